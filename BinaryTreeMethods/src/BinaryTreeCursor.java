@@ -0,0 +1,324 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.binarytree.BinaryTree;
+
+/**
+ * Lazy, non-recursive traversal of the labels of a {@code BinaryTree} in
+ * pre-order, in-order, post-order or level order.
+ *
+ * <p>
+ * {@code BinaryTree} gives no access to the subtrees of a node other than
+ * {@code disassemble}, so a cursor disassembles the tree one node at a time,
+ * only as far as it has to in order to deliver the next label, keeping the
+ * pieces on explicit stacks rather than on the Java call stack; however deep
+ * the tree, traversing it cannot overflow the stack. Every node disassembled
+ * is reassembled, in reverse order, when the traversal runs out of labels or
+ * when {@code close} is called, whichever comes first, so a traversal can be
+ * abandoned early:
+ *
+ * <pre>
+ * try (BinaryTreeCursor&lt;T&gt; c = new BinaryTreeCursor&lt;&gt;(t,
+ *         Order.PRE_ORDER)) {
+ *     while (!found &amp;&amp; c.hasNext()) {
+ *         found = c.next().equals(x);
+ *     }
+ * }
+ * </pre>
+ *
+ * While a cursor is open, the tree it traverses must not be used in any
+ * other way.
+ *
+ * @param <T>
+ *            the type of the {@code BinaryTree} node labels
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public final class BinaryTreeCursor<T> implements Iterator<T>, AutoCloseable {
+
+    /**
+     * Orders in which a cursor can deliver the labels of a tree.
+     */
+    public enum Order {
+
+        /**
+         * Each label before the labels of its left and then right subtrees.
+         */
+        PRE_ORDER,
+
+        /**
+         * Each label between the labels of its left and right subtrees.
+         */
+        IN_ORDER,
+
+        /**
+         * Each label after the labels of its left and then right subtrees.
+         */
+        POST_ORDER,
+
+        /**
+         * By depth, and from left to right within each depth.
+         */
+        LEVEL_ORDER
+
+    }
+
+    /**
+     * A subtree still to be traversed, or a label ready to be delivered.
+     */
+    private final class Item {
+
+        /**
+         * The subtree still to be traversed, or null if this is a label.
+         */
+        private final BinaryTree<T> tree;
+
+        /**
+         * The label ready to be delivered, if {@code tree} is null.
+         */
+        private final T label;
+
+        /**
+         * Depth of the root of the subtree, or of the label; the root of the
+         * whole tree has depth 1.
+         */
+        private final int depth;
+
+        /**
+         * Constructor.
+         *
+         * @param tree
+         *            the subtree, or null
+         * @param label
+         *            the label, if tree is null
+         * @param depth
+         *            the depth of the subtree or label
+         */
+        Item(BinaryTree<T> tree, T label, int depth) {
+            this.tree = tree;
+            this.label = label;
+            this.depth = depth;
+        }
+
+    }
+
+    /**
+     * A node that has been disassembled, with everything needed to reassemble
+     * it.
+     */
+    private final class Frame {
+
+        /**
+         * The tree the node was the root of, now empty.
+         */
+        private final BinaryTree<T> whole;
+
+        /**
+         * The label of the node.
+         */
+        private final T root;
+
+        /**
+         * The left subtree of the node.
+         */
+        private final BinaryTree<T> left;
+
+        /**
+         * The right subtree of the node.
+         */
+        private final BinaryTree<T> right;
+
+        /**
+         * Constructor.
+         *
+         * @param whole
+         *            the tree the node was the root of
+         * @param root
+         *            the label of the node
+         * @param left
+         *            the left subtree of the node
+         * @param right
+         *            the right subtree of the node
+         */
+        Frame(BinaryTree<T> whole, T root, BinaryTree<T> left,
+                BinaryTree<T> right) {
+            this.whole = whole;
+            this.root = root;
+            this.left = left;
+            this.right = right;
+        }
+
+    }
+
+    /**
+     * Order of the traversal.
+     */
+    private final Order order;
+
+    /**
+     * Items still to be processed, the next one first.
+     */
+    private final Deque<Item> pending;
+
+    /**
+     * Nodes disassembled so far, the most recent on top.
+     */
+    private final Deque<Frame> disassembled;
+
+    /**
+     * Depth of the label most recently delivered.
+     */
+    private int depth;
+
+    /**
+     * Constructor.
+     *
+     * @param t
+     *            the tree to traverse
+     * @param order
+     *            the order of the traversal
+     * @ensures [this delivers the labels of t in the given order]
+     */
+    public BinaryTreeCursor(BinaryTree<T> t, Order order) {
+        assert t != null : "Violation of: t is not null";
+        assert order != null : "Violation of: order is not null";
+
+        this.order = order;
+        this.pending = new ArrayDeque<Item>();
+        this.disassembled = new ArrayDeque<Frame>();
+        this.depth = 0;
+        if (t.size() > 0) {
+            this.pending.push(new Item(t, null, 1));
+        }
+    }
+
+    /**
+     * Disassembles subtrees until the first pending item is a label, or there
+     * are no pending items left, in which case the tree is reassembled.
+     */
+    private void advance() {
+        while (!this.pending.isEmpty() && this.pending.peek().tree != null) {
+            Item item = this.pending.pop();
+            BinaryTree<T> left = item.tree.newInstance();
+            BinaryTree<T> right = item.tree.newInstance();
+            T root = item.tree.disassemble(left, right);
+            this.disassembled.push(new Frame(item.tree, root, left, right));
+
+            Item label = new Item(null, root, item.depth);
+            Item leftItem = null;
+            if (left.size() > 0) {
+                leftItem = new Item(left, null, item.depth + 1);
+            }
+            Item rightItem = null;
+            if (right.size() > 0) {
+                rightItem = new Item(right, null, item.depth + 1);
+            }
+            /*
+             * Items are pushed in the reverse of the order they are to be
+             * processed in, except in level order, where the subtrees go to
+             * the back to wait for the rest of the current depth.
+             */
+            switch (this.order) {
+                case PRE_ORDER:
+                    this.pushIfPresent(rightItem);
+                    this.pushIfPresent(leftItem);
+                    this.pending.push(label);
+                    break;
+                case IN_ORDER:
+                    this.pushIfPresent(rightItem);
+                    this.pending.push(label);
+                    this.pushIfPresent(leftItem);
+                    break;
+                case POST_ORDER:
+                    this.pending.push(label);
+                    this.pushIfPresent(rightItem);
+                    this.pushIfPresent(leftItem);
+                    break;
+                default:
+                    if (leftItem != null) {
+                        this.pending.addLast(leftItem);
+                    }
+                    if (rightItem != null) {
+                        this.pending.addLast(rightItem);
+                    }
+                    this.pending.push(label);
+                    break;
+            }
+        }
+        if (this.pending.isEmpty()) {
+            this.close();
+        }
+    }
+
+    /**
+     * Pushes {@code item} onto the front of {@code pending} unless it is null.
+     *
+     * @param item
+     *            the item, or null
+     */
+    private void pushIfPresent(Item item) {
+        if (item != null) {
+            this.pending.push(item);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        this.advance();
+        return !this.pending.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+        if (!this.hasNext()) {
+            /*
+             * Exception is supposed to be thrown in this case, but with
+             * assertion-checking enabled it cannot happen because of assert
+             * above.
+             */
+            throw new NoSuchElementException();
+        }
+        Item item = this.pending.pop();
+        this.depth = item.depth;
+        return item.label;
+    }
+
+    /**
+     * Reports the depth of the label most recently delivered by {@code next}:
+     * 1 for the root of the tree, 2 for its children, and so on.
+     *
+     * @return the depth of the last label delivered
+     * @requires [next has been called]
+     */
+    public int depth() {
+        assert this.depth > 0 : "Violation of: next has been called";
+
+        return this.depth;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException(
+                "remove operation not supported");
+    }
+
+    /**
+     * Ends the traversal, reassembling every node it has disassembled, so that
+     * the tree is again as it was before the traversal started. Calling it
+     * again has no effect.
+     */
+    @Override
+    public void close() {
+        this.pending.clear();
+        while (!this.disassembled.isEmpty()) {
+            Frame f = this.disassembled.pop();
+            f.whole.assemble(f.root, f.left, f.right);
+        }
+    }
+
+}
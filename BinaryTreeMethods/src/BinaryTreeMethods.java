@@ -21,7 +21,9 @@ public final class BinaryTreeMethods {
     }
 
     /**
-     * Returns the height of the given {@code BinaryTree<T>}.
+     * Returns the height of the given {@code BinaryTree<T>}. The tree is
+     * traversed with a {@code BinaryTreeCursor}, so no recursion is involved
+     * and the height of the tree is not limited by the size of the stack.
      *
      * @param <T>
      *            the type of the {@code BinaryTree} node labels
@@ -32,21 +34,23 @@ public final class BinaryTreeMethods {
      */
     public static <T> int height(BinaryTree<T> t) {
         assert t != null : "Violation of: t is not null";
-        BinaryTree<T> left = t.newInstance();
-        BinaryTree<T> right = t.newInstance();
+
         int ht = 0;
-        if (t.size() > 0) {
-            T root = t.disassemble(left, right);
-            ht = 1 + Math.max(left.height(), right.height());
-            t.assemble(root, left, right);
+        try (BinaryTreeCursor<T> c = new BinaryTreeCursor<T>(t,
+                BinaryTreeCursor.Order.PRE_ORDER)) {
+            while (c.hasNext()) {
+                c.next();
+                ht = Math.max(ht, c.depth());
+            }
         }
-
         return ht;
     }
 
     /**
      * Returns true if the given {@code T} is in the given {@code BinaryTree<T>}
-     * or false otherwise.
+     * or false otherwise. The tree is traversed in pre-order with a
+     * {@code BinaryTreeCursor}, which stops disassembling it as soon as
+     * {@code x} is found.
      *
      * @param <T>
      *            the type of the {@code BinaryTree} node labels
@@ -61,25 +65,15 @@ public final class BinaryTreeMethods {
     public static <T> boolean isInTree(BinaryTree<T> t, T x) {
         assert t != null : "Violation of: t is not null";
         assert x != null : "Violation of: x is not null";
-        boolean found = false;
-
-//        for (T node : t) {
-//            if (node.equals(x)) {
-//                count++;
-//            }
-//        }
-        BinaryTree<T> left = t.newInstance();
-        BinaryTree<T> right = t.newInstance();
 
-        if (t.size() > 0) {
-            T root = t.disassemble(left, right);
-            found = root.equals(x) || isInTree(left, x) || isInTree(right, x);
-            t.assemble(root, left, right);
+        boolean found = false;
+        try (BinaryTreeCursor<T> c = new BinaryTreeCursor<T>(t,
+                BinaryTreeCursor.Order.PRE_ORDER)) {
+            while (!found && c.hasNext()) {
+                found = c.next().equals(x);
+            }
         }
-
-        // This line added just to make the component compilable.
         return found;
-
     }
 
     /**
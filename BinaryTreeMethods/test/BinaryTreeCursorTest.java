@@ -0,0 +1,114 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.binarytree.BinaryTree;
+
+/**
+ * JUnit test fixture for {@code BinaryTreeCursor}.
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public final class BinaryTreeCursorTest {
+
+    /**
+     * The tree most tests traverse.
+     */
+    private static final String TREE = "a(b(d(()())e(()()))c(()f(g(()())())))";
+
+    /**
+     * Returns the labels {@code t} delivers in the given order, concatenated,
+     * with the depth of each label after it.
+     *
+     * @param t
+     *            the tree
+     * @param order
+     *            the order of the traversal
+     * @return the labels and depths
+     */
+    private static String traverse(BinaryTree<String> t,
+            BinaryTreeCursor.Order order) {
+        StringBuilder seen = new StringBuilder();
+        try (BinaryTreeCursor<String> c = new BinaryTreeCursor<String>(t,
+                order)) {
+            while (c.hasNext()) {
+                seen.append(c.next());
+                seen.append(c.depth());
+            }
+        }
+        return seen.toString();
+    }
+
+    @Test
+    public void testPreOrder() {
+        BinaryTree<String> t = BinaryTreeUtility.treeFromString(TREE);
+        BinaryTree<String> tExpected = BinaryTreeUtility.treeFromString(TREE);
+
+        String seen = traverse(t, BinaryTreeCursor.Order.PRE_ORDER);
+
+        assertEquals("a1b2d3e3c2f3g4", seen);
+        assertEquals(tExpected, t);
+    }
+
+    @Test
+    public void testInOrder() {
+        BinaryTree<String> t = BinaryTreeUtility.treeFromString(TREE);
+        BinaryTree<String> tExpected = BinaryTreeUtility.treeFromString(TREE);
+
+        String seen = traverse(t, BinaryTreeCursor.Order.IN_ORDER);
+
+        assertEquals("d3b2e3a1c2g4f3", seen);
+        assertEquals(tExpected, t);
+    }
+
+    @Test
+    public void testPostOrder() {
+        BinaryTree<String> t = BinaryTreeUtility.treeFromString(TREE);
+        BinaryTree<String> tExpected = BinaryTreeUtility.treeFromString(TREE);
+
+        String seen = traverse(t, BinaryTreeCursor.Order.POST_ORDER);
+
+        assertEquals("d3e3b2g4f3c2a1", seen);
+        assertEquals(tExpected, t);
+    }
+
+    @Test
+    public void testLevelOrder() {
+        BinaryTree<String> t = BinaryTreeUtility.treeFromString(TREE);
+        BinaryTree<String> tExpected = BinaryTreeUtility.treeFromString(TREE);
+
+        String seen = traverse(t, BinaryTreeCursor.Order.LEVEL_ORDER);
+
+        assertEquals("a1b2c2d3e3f3g4", seen);
+        assertEquals(tExpected, t);
+    }
+
+    @Test
+    public void testEmpty() {
+        BinaryTree<String> t = BinaryTreeUtility.treeFromString("()");
+
+        for (BinaryTreeCursor.Order order : BinaryTreeCursor.Order.values()) {
+            assertEquals("", traverse(t, order));
+        }
+        assertEquals(0, t.size());
+    }
+
+    @Test
+    public void testCloseEarly() {
+        BinaryTree<String> t = BinaryTreeUtility.treeFromString(TREE);
+        BinaryTree<String> tExpected = BinaryTreeUtility.treeFromString(TREE);
+
+        String first;
+        try (BinaryTreeCursor<String> c = new BinaryTreeCursor<String>(t,
+                BinaryTreeCursor.Order.IN_ORDER)) {
+            c.next();
+            first = c.next();
+        }
+
+        assertEquals("b", first);
+        assertEquals(tExpected, t);
+    }
+
+}
@@ -1,8 +1,12 @@
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 import org.junit.Test;
 
 import components.binarytree.BinaryTree;
+import components.binarytree.BinaryTree1;
 
 /**
  * JUnit test fixture for {@code BinaryTree<String>}'s methods.
@@ -264,4 +268,145 @@ public final class BinaryTreeMethodsTest {
         assertEquals(tExpected, t);
     }
 
+    /**
+     * Depth of the degenerate trees of the deep-tree tests, far more than
+     * recursion over them could handle.
+     */
+    private static final int DEEP = 100000;
+
+    /**
+     * Returns a degenerate tree of {@code depth} nodes, each the left child (or
+     * right child, if {@code right}) of the one before; the labels are the
+     * depths of the nodes, as strings.
+     *
+     * @param depth
+     *            the number of nodes
+     * @param right
+     *            whether each node is the right child of its parent
+     * @return the tree
+     */
+    private static BinaryTree<String> path(int depth, boolean right) {
+        BinaryTree<String> t = new BinaryTree1<String>();
+        for (int d = depth; d > 0; d--) {
+            BinaryTree<String> next = new BinaryTree1<String>();
+            BinaryTree<String> empty = new BinaryTree1<String>();
+            if (right) {
+                next.assemble(Integer.toString(d), empty, t);
+            } else {
+                next.assemble(Integer.toString(d), t, empty);
+            }
+            t.transferFrom(next);
+        }
+        return t;
+    }
+
+    /**
+     * Asserts that {@code actual} has the same shape and labels as
+     * {@code expected}, taking both apart as it goes. The subtrees still to be
+     * compared are kept on an explicit stack, since the recursion in
+     * {@code equals} would overflow the call stack on the deep trees.
+     *
+     * @param expected
+     *            the expected tree
+     * @param actual
+     *            the tree to check
+     * @clears expected, actual
+     */
+    private static void assertSameTree(BinaryTree<String> expected,
+            BinaryTree<String> actual) {
+        Deque<BinaryTree<String>> pending = new ArrayDeque<>();
+        pending.push(expected);
+        pending.push(actual);
+        while (!pending.isEmpty()) {
+            BinaryTree<String> a = pending.pop();
+            BinaryTree<String> e = pending.pop();
+            assertEquals(e.size(), a.size());
+            if (e.size() > 0) {
+                BinaryTree<String> eLeft = e.newInstance();
+                BinaryTree<String> eRight = e.newInstance();
+                BinaryTree<String> aLeft = a.newInstance();
+                BinaryTree<String> aRight = a.newInstance();
+                assertEquals(e.disassemble(eLeft, eRight),
+                        a.disassemble(aLeft, aRight));
+                pending.push(eLeft);
+                pending.push(aLeft);
+                pending.push(eRight);
+                pending.push(aRight);
+            }
+        }
+    }
+
+    @Test
+    public void testHeightDeepLeft() {
+        /*
+         * Set up variables
+         */
+        BinaryTree<String> t = path(DEEP, false);
+        BinaryTree<String> tExpected = path(DEEP, false);
+        /*
+         * Call method under test
+         */
+        int h = BinaryTreeMethods.height(t);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(DEEP, h);
+        assertSameTree(tExpected, t);
+    }
+
+    @Test
+    public void testHeightDeepRight() {
+        /*
+         * Set up variables
+         */
+        BinaryTree<String> t = path(DEEP, true);
+        BinaryTree<String> tExpected = path(DEEP, true);
+        /*
+         * Call method under test
+         */
+        int h = BinaryTreeMethods.height(t);
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(DEEP, h);
+        assertSameTree(tExpected, t);
+    }
+
+    @Test
+    public void testIsInTreeDeepTrue() {
+        /*
+         * Set up variables
+         */
+        BinaryTree<String> t = path(DEEP, false);
+        BinaryTree<String> tExpected = path(DEEP, false);
+        /*
+         * Call method under test
+         */
+        boolean found = BinaryTreeMethods.isInTree(t,
+                Integer.toString(DEEP / 2));
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(true, found);
+        assertSameTree(tExpected, t);
+    }
+
+    @Test
+    public void testIsInTreeDeepFalse() {
+        /*
+         * Set up variables
+         */
+        BinaryTree<String> t = path(DEEP, true);
+        BinaryTree<String> tExpected = path(DEEP, true);
+        /*
+         * Call method under test
+         */
+        boolean found = BinaryTreeMethods.isInTree(t, "0");
+        /*
+         * Assert that values of variables match expectations
+         */
+        assertEquals(false, found);
+        assertSameTree(tExpected, t);
+    }
+
 }
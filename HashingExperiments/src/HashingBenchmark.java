@@ -0,0 +1,448 @@
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.set.Set;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Benchmarks a matrix of string hash functions against a matrix of hash table
+ * sizes on each of the data files in {@code data}. For every combination it
+ * reports the time per operation of inserting every distinct line into a
+ * chained hash table and of then looking every line up again, together with
+ * the chi-square statistic of the resulting bucket counts, which is about
+ * {@code size - 1} when lines are spread uniformly over the buckets and much
+ * larger when they are not.
+ *
+ * <p>
+ * Timings are taken with {@code System.nanoTime} after a number of warm-up
+ * rounds that let the JIT compiler settle, and the fastest measured round is
+ * reported. The optional command-line argument is the directory holding the
+ * data files (default {@code data}).
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public final class HashingBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private HashingBenchmark() {
+    }
+
+    /**
+     * Names of the data files benchmarked.
+     */
+    private static final String[] DATA_FILES = { "length8.txt", "mod30.txt",
+            "random.txt", "startend.txt" };
+
+    /**
+     * Hash table sizes benchmarked: the primes used by the {@code Map4}
+     * tests, and the powers of 2 closest to them.
+     */
+    private static final int[] TABLE_SIZES = { 101, 128, 1009, 1024 };
+
+    /**
+     * Number of untimed rounds run before the timed ones.
+     */
+    private static final int WARM_UP_ROUNDS = 20;
+
+    /**
+     * Number of timed rounds, of which the fastest is reported.
+     */
+    private static final int MEASURED_ROUNDS = 20;
+
+    /**
+     * 32-bit FNV offset basis.
+     */
+    private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+
+    /**
+     * 32-bit FNV prime.
+     */
+    private static final int FNV_PRIME = 0x01000193;
+
+    /**
+     * First xxHash32 prime.
+     */
+    private static final int XX_PRIME1 = 0x9E3779B1;
+
+    /**
+     * Second xxHash32 prime.
+     */
+    private static final int XX_PRIME2 = 0x85EBCA77;
+
+    /**
+     * Third xxHash32 prime.
+     */
+    private static final int XX_PRIME3 = 0xC2B2AE3D;
+
+    /**
+     * Fourth xxHash32 prime.
+     */
+    private static final int XX_PRIME4 = 0x27D4EB2F;
+
+    /**
+     * Fifth xxHash32 prime.
+     */
+    private static final int XX_PRIME5 = 0x165667B1;
+
+    /**
+     * Number of characters in an xxHash32 lane.
+     */
+    private static final int XX_LANE = 4;
+
+    /**
+     * Bits in a byte.
+     */
+    private static final int BYTE_BITS = 8;
+
+    /**
+     * Mask keeping the low byte of a character.
+     */
+    private static final int BYTE_MASK = 0xFF;
+
+    /**
+     * Rotation applied after mixing in a lane.
+     */
+    private static final int XX_LANE_ROTATION = 17;
+
+    /**
+     * Rotation applied after mixing in a single character.
+     */
+    private static final int XX_CHAR_ROTATION = 11;
+
+    /**
+     * First shift of the xxHash32 avalanche.
+     */
+    private static final int XX_SHIFT1 = 15;
+
+    /**
+     * Second shift of the xxHash32 avalanche.
+     */
+    private static final int XX_SHIFT2 = 13;
+
+    /**
+     * Third shift of the xxHash32 avalanche.
+     */
+    private static final int XX_SHIFT3 = 16;
+
+    /**
+     * Hash functions benchmarked.
+     */
+    enum Hash {
+
+        /**
+         * The character-sum {@code hashCode} of {@code HashingExploration}.
+         */
+        CHAR_SUM {
+            @Override
+            int hash(String s) {
+                return HashingExploration.hashCode(s);
+            }
+        },
+
+        /**
+         * {@code String.hashCode}.
+         */
+        STRING_HASH_CODE {
+            @Override
+            int hash(String s) {
+                return s.hashCode();
+            }
+        },
+
+        /**
+         * 32-bit FNV-1a.
+         */
+        FNV_1A {
+            @Override
+            int hash(String s) {
+                return fnv1a(s);
+            }
+        },
+
+        /**
+         * xxHash32 (short-input path).
+         */
+        XXHASH32 {
+            @Override
+            int hash(String s) {
+                return xxHash32(s, 0);
+            }
+        };
+
+        /**
+         * Returns the hash code of {@code s} computed by this function.
+         *
+         * @param s
+         *            the {@code String} to hash
+         * @return the hash code of {@code s}
+         */
+        abstract int hash(String s);
+
+    }
+
+    /**
+     * Returns the 32-bit FNV-1a hash of the low bytes of the characters of
+     * {@code s} (which, for text in ISO-8859-1, is the FNV-1a hash of its
+     * encoding).
+     *
+     * @param s
+     *            the {@code String} to hash
+     * @return the FNV-1a hash of {@code s}
+     */
+    static int fnv1a(String s) {
+        assert s != null : "Violation of: s is not null";
+        int h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i) & BYTE_MASK;
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Returns the xxHash32 hash, with the given seed, of the low bytes of the
+     * characters of {@code s}. Only the short-input path of xxHash32 is
+     * implemented, so the result matches the reference xxHash32 for inputs of
+     * fewer than 16 characters, which covers all of the data files; longer
+     * inputs still hash well but differently.
+     *
+     * @param s
+     *            the {@code String} to hash
+     * @param seed
+     *            the seed
+     * @return the xxHash32 hash of {@code s}
+     */
+    static int xxHash32(String s, int seed) {
+        assert s != null : "Violation of: s is not null";
+        int h = seed + XX_PRIME5 + s.length();
+        int i = 0;
+        while (i + XX_LANE <= s.length()) {
+            int lane = 0;
+            for (int j = XX_LANE - 1; j >= 0; j--) {
+                lane = (lane << BYTE_BITS) | (s.charAt(i + j) & BYTE_MASK);
+            }
+            h += lane * XX_PRIME3;
+            h = Integer.rotateLeft(h, XX_LANE_ROTATION) * XX_PRIME4;
+            i += XX_LANE;
+        }
+        while (i < s.length()) {
+            h += (s.charAt(i) & BYTE_MASK) * XX_PRIME5;
+            h = Integer.rotateLeft(h, XX_CHAR_ROTATION) * XX_PRIME1;
+            i++;
+        }
+        h ^= h >>> XX_SHIFT1;
+        h *= XX_PRIME2;
+        h ^= h >>> XX_SHIFT2;
+        h *= XX_PRIME3;
+        h ^= h >>> XX_SHIFT3;
+        return h;
+    }
+
+    /**
+     * Returns the chi-square statistic of {@code counts} against a uniform
+     * distribution of the same total over the same number of buckets.
+     *
+     * @param counts
+     *            the number of entries in each bucket
+     * @return the chi-square statistic of {@code counts}
+     * @requires |counts| > 0  and  [the sum of counts is positive]
+     * @ensures <pre>
+     * chiSquare = [sum over i of (counts[i] - e)^2 / e, where
+     *              e = (sum of counts) / |counts|]
+     * </pre>
+     */
+    static double chiSquare(int[] counts) {
+        assert counts.length > 0 : "Violation of: |counts| > 0";
+        long total = 0;
+        for (int c : counts) {
+            total += c;
+        }
+        assert total > 0 : "Violation of: the sum of counts is positive";
+        double expected = (double) total / counts.length;
+        double chi = 0.0;
+        for (int c : counts) {
+            double diff = c - expected;
+            chi += diff * diff / expected;
+        }
+        return chi;
+    }
+
+    /**
+     * Reads the distinct lines of the file named {@code fileName}.
+     *
+     * @param fileName
+     *            the name of the file
+     * @return the distinct lines of the file, in order of first occurrence
+     */
+    private static String[] distinctLines(String fileName) {
+        Set<String> counted = new Set4<String>();
+        Queue<String> order = new Queue1L<String>();
+        SimpleReader textFile = new SimpleReader1L(fileName);
+        while (!textFile.atEOS()) {
+            String line = textFile.nextLine();
+            if (!counted.contains(line)) {
+                counted.add(line);
+                order.enqueue(line);
+            }
+        }
+        textFile.close();
+        String[] lines = new String[order.length()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = order.dequeue();
+        }
+        return lines;
+    }
+
+    /**
+     * Inserts every line into a new chained hash table with {@code size}
+     * buckets, using {@code hash} to place lines.
+     *
+     * @param lines
+     *            the (distinct) lines to insert
+     * @param hash
+     *            the hash function
+     * @param size
+     *            the number of buckets
+     * @param counts
+     *            receives the number of lines in each bucket
+     * @return the buckets, where bucket i holds its lines in entries
+     *         [0, counts[i])
+     * @replaces counts
+     * @requires |counts| = size
+     */
+    private static String[][] insertAll(String[] lines, Hash hash, int size,
+            int[] counts) {
+        String[][] buckets = new String[size][];
+        for (int i = 0; i < size; i++) {
+            counts[i] = 0;
+            buckets[i] = new String[1];
+        }
+        for (String line : lines) {
+            int b = HashingExploration.mod(hash.hash(line), size);
+            if (counts[b] == buckets[b].length) {
+                String[] bigger = new String[2 * counts[b]];
+                System.arraycopy(buckets[b], 0, bigger, 0, counts[b]);
+                buckets[b] = bigger;
+            }
+            buckets[b][counts[b]] = line;
+            counts[b]++;
+        }
+        return buckets;
+    }
+
+    /**
+     * Looks up every line in the chained hash table produced by
+     * {@code insertAll}.
+     *
+     * @param lines
+     *            the lines to look up
+     * @param hash
+     *            the hash function used to build {@code buckets}
+     * @param buckets
+     *            the buckets
+     * @param counts
+     *            the number of lines in each bucket
+     * @return the number of lines found
+     */
+    private static int lookUpAll(String[] lines, Hash hash, String[][] buckets,
+            int[] counts) {
+        int found = 0;
+        for (String line : lines) {
+            int b = HashingExploration.mod(hash.hash(line), buckets.length);
+            String[] bucket = buckets[b];
+            int j = 0;
+            while (j < counts[b] && !bucket[j].equals(line)) {
+                j++;
+            }
+            if (j < counts[b]) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Benchmarks one combination of data, hash function, and table size, and
+     * reports the results as one row of {@code out}.
+     *
+     * @param out
+     *            the output stream
+     * @param dataName
+     *            the name of the data file, for reporting
+     * @param lines
+     *            the distinct lines of the data file
+     * @param hash
+     *            the hash function
+     * @param size
+     *            the number of buckets
+     * @updates out.content
+     * @requires out.is_open
+     */
+    private static void benchmark(SimpleWriter out, String dataName,
+            String[] lines, Hash hash, int size) {
+        int[] counts = new int[size];
+        long bestInsert = Long.MAX_VALUE;
+        long bestLookUp = Long.MAX_VALUE;
+        int found = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            String[][] buckets = insertAll(lines, hash, size, counts);
+            long middle = System.nanoTime();
+            found = lookUpAll(lines, hash, buckets, counts);
+            long end = System.nanoTime();
+            if (round >= WARM_UP_ROUNDS) {
+                bestInsert = Math.min(bestInsert, middle - start);
+                bestLookUp = Math.min(bestLookUp, end - middle);
+            }
+        }
+        assert found == lines.length : "Violation of: every line is found";
+
+        int longest = 0;
+        for (int c : counts) {
+            longest = Math.max(longest, c);
+        }
+        double chi = chiSquare(counts);
+        out.println(String.format("%-14s%-18s%6d%10.1f%10.1f%10.1f%8.2f%6d",
+                dataName, hash, size,
+                (double) bestInsert / lines.length,
+                (double) bestLookUp / lines.length, chi,
+                chi / (size - 1), longest));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments; the optional first one is the
+     *            directory holding the data files
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        String dataDirectory = "data";
+        if (args.length > 0) {
+            dataDirectory = args[0];
+        }
+
+        out.println(String.format("%-14s%-18s%6s%10s%10s%10s%8s%6s", "data",
+                "hash", "size", "insert", "lookup", "chi-sq", "chi/df",
+                "max"));
+        out.println(String.format("%-14s%-18s%6s%10s%10s%10s%8s%6s", "", "",
+                "", "(ns/op)", "(ns/op)", "", "", ""));
+        for (String dataFile : DATA_FILES) {
+            String[] lines = distinctLines(dataDirectory + "/" + dataFile);
+            for (Hash hash : Hash.values()) {
+                for (int size : TABLE_SIZES) {
+                    benchmark(out, dataFile, lines, hash, size);
+                }
+            }
+        }
+        out.close();
+    }
+
+}
@@ -1,5 +1,4 @@
 import components.set.Set;
-import components.set.Set1L;
 import components.simplereader.SimpleReader;
 import components.simplereader.SimpleReader1L;
 import components.simplewriter.SimpleWriter;
@@ -54,7 +53,7 @@ public final class HashingExploration {
      * @return a hash code value for the given {@code String}
      * @ensures hashCode = [hash code value for the given String]
      */
-    private static int hashCode(String s) {
+    static int hashCode(String s) {
         assert s != null : "Violation of: s is not null";
         int hash = 0;
         final int prime = 31;
@@ -90,7 +89,7 @@ public final class HashingExploration {
          * initialized to 0.
          */
         int[] counts = new int[hashTableSize];
-        Set<String> counted = new Set1L<String>();
+        Set<String> counted = new Set4<String>();
         /*
          * Get some lines of input, hash them, and record counts.
          */
@@ -0,0 +1,64 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for the hash functions and the chi-square statistic of
+ * {@code HashingBenchmark}, checked against published test vectors.
+ */
+public final class HashingBenchmarkTest {
+
+    /**
+     * Tolerance for comparing chi-square statistics.
+     */
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    public void testFnv1aEmpty() {
+        assertEquals(0x811c9dc5, HashingBenchmark.fnv1a(""));
+    }
+
+    @Test
+    public void testFnv1aA() {
+        assertEquals(0xe40c292c, HashingBenchmark.fnv1a("a"));
+    }
+
+    @Test
+    public void testFnv1aFoobar() {
+        assertEquals(0xbf9cf968, HashingBenchmark.fnv1a("foobar"));
+    }
+
+    @Test
+    public void testXxHash32Empty() {
+        assertEquals(0x02cc5d05, HashingBenchmark.xxHash32("", 0));
+    }
+
+    @Test
+    public void testXxHash32A() {
+        assertEquals(0x550d7456, HashingBenchmark.xxHash32("a", 0));
+    }
+
+    @Test
+    public void testXxHash32Abc() {
+        assertEquals(0x32d153ff, HashingBenchmark.xxHash32("abc", 0));
+    }
+
+    @Test
+    public void testXxHash32Lanes() {
+        assertEquals(0x9759cd1a,
+                HashingBenchmark.xxHash32("Nobody inspects", 0));
+    }
+
+    @Test
+    public void testChiSquareUniform() {
+        int[] counts = { 5, 5, 5, 5 };
+        assertEquals(0.0, HashingBenchmark.chiSquare(counts), EPSILON);
+    }
+
+    @Test
+    public void testChiSquareAllInOneBucket() {
+        int[] counts = { 8, 0, 0, 0 };
+        assertEquals(24.0, HashingBenchmark.chiSquare(counts), EPSILON);
+    }
+
+}
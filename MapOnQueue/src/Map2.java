@@ -35,7 +35,8 @@ public class Map2<K, V> extends MapSecondary<K, V> {
 
     /**
      * Finds pair with first component {@code key} and, if such exists, moves it
-     * to the front of {@code q}.
+     * to the front of {@code q} by rotating {@code q}, stopping as soon as it
+     * is found.
      *
      * @param <K>
      *            type of {@code Pair} key
@@ -45,24 +46,27 @@ public class Map2<K, V> extends MapSecondary<K, V> {
      *            the {@code Queue} to be searched
      * @param key
      *            the key to be searched for
+     * @return true iff there is a pair in q whose first component is key
      * @updates q
      * @ensures <pre>
      * perms(q, #q)  and
-     * if there exists value: V (<(key, value)> is substring of q)
+     * moveToFront = there exists value: V (<(key, value)> is substring of q)
+     *   and
+     * if moveToFront
      *  then there exists value: V (<(key, value)> is prefix of q)
      * </pre>
      */
-    private static <K, V> void moveToFront(Queue<Pair<K, V>> q, K key) {
+    private static <K, V> boolean moveToFront(Queue<Pair<K, V>> q, K key) {
         assert q != null : "Violation of: q is not null";
         assert key != null : "Violation of: key is not null";
 
         int i = 0;
-        while (i < q.length() && q.front().key() != key) {
+        while (i < q.length() && !q.front().key().equals(key)) {
             Pair<K, V> p = q.dequeue();
             q.enqueue(p);
             i++;
         }
-
+        return i < q.length();
     }
 
     /**
@@ -136,14 +140,9 @@ public class Map2<K, V> extends MapSecondary<K, V> {
     public final Pair<K, V> remove(K key) {
         assert key != null : "Violation of: key is not null";
         assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
-        Map.Pair<K, V> p = this.pairsQueue.front();
-        for (int i = 0; i < this.pairsQueue.length(); i++) {
-            p = this.pairsQueue.dequeue();
-            if (p.key().equals(key)) {
-                this.pairsQueue.enqueue(p);
-            }
-        }
-        return p;
+
+        moveToFront(this.pairsQueue, key);
+        return this.pairsQueue.dequeue();
     }
 
     @Override
@@ -160,24 +159,22 @@ public class Map2<K, V> extends MapSecondary<K, V> {
         assert key != null : "Violation of: key is not null";
         assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        V val = this.pairsQueue.front().value();
-
-        for (Pair<K, V> p : this.pairsQueue) {
-            if (p.key().equals(key)) {
-                val = p.value();
-            }
+        Iterator<Pair<K, V>> it = this.pairsQueue.iterator();
+        Pair<K, V> p = it.next();
+        while (!p.key().equals(key)) {
+            p = it.next();
         }
-        return val;
+        return p.value();
     }
 
     @Override
     public final boolean hasKey(K key) {
         assert key != null : "Violation of: key is not null";
+
         boolean foundKey = false;
-        for (Pair<K, V> p : this.pairsQueue) {
-            if (p.key().equals(key)) {
-                foundKey = true;
-            }
+        Iterator<Pair<K, V>> it = this.pairsQueue.iterator();
+        while (!foundKey && it.hasNext()) {
+            foundKey = it.next().key().equals(key);
         }
         return foundKey;
     }
@@ -192,4 +189,63 @@ public class Map2<K, V> extends MapSecondary<K, V> {
         return this.pairsQueue.iterator();
     }
 
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Removes the pair whose first component is {@code key}, if there is one,
+     * and returns it, or returns {@code null} if there is none. Unlike
+     * {@code remove}, this searches {@code this} only once.
+     *
+     * @param key
+     *            the key of the pair to be removed
+     * @return the pair removed, or {@code null}
+     * @updates this
+     * @ensures <pre>
+     * if key is in DOMAIN(#this)
+     *  then removeIfPresent.key = key  and
+     *       removeIfPresent is in #this  and
+     *       this = #this \ {removeIfPresent}
+     *  else removeIfPresent = null  and  this = #this
+     * </pre>
+     */
+    public final Pair<K, V> removeIfPresent(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        Pair<K, V> removed = null;
+        if (moveToFront(this.pairsQueue, key)) {
+            removed = this.pairsQueue.dequeue();
+        }
+        return removed;
+    }
+
+    /**
+     * Reports the value associated with {@code key} in {@code this}, or
+     * {@code null} if {@code key} is not in {@code DOMAIN(this)}. Unlike
+     * {@code value}, this searches {@code this} only once.
+     *
+     * @param key
+     *            the key whose associated value is to be reported
+     * @return the value associated with key, or {@code null}
+     * @ensures <pre>
+     * if key is in DOMAIN(this)
+     *  then (key, valueOrNull) is in this
+     *  else valueOrNull = null
+     * </pre>
+     */
+    public final V valueOrNull(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        V val = null;
+        Iterator<Pair<K, V>> it = this.pairsQueue.iterator();
+        while (val == null && it.hasNext()) {
+            Pair<K, V> p = it.next();
+            if (p.key().equals(key)) {
+                val = p.value();
+            }
+        }
+        return val;
+    }
+
 }
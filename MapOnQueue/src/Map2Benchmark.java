@@ -0,0 +1,216 @@
+import java.util.Random;
+
+import components.map.Map;
+import components.map.Map.Pair;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the early-exit lookups of {@code Map2} with the full scan of the
+ * queue that {@code Map2.value} used to do, on lookups whose keys follow a
+ * Zipf distribution (a few keys are looked up most of the time, as in a word
+ * count) and, as a control, a uniform distribution. Each combination is run
+ * with the frequent keys added first, as happens when counting words, and
+ * with them added last.
+ *
+ * <p>
+ * Timings are taken with {@code System.nanoTime} after a number of warm-up
+ * rounds that let the JIT compiler settle, and the fastest measured round is
+ * reported.
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public final class Map2Benchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Map2Benchmark() {
+    }
+
+    /**
+     * Map sizes benchmarked.
+     */
+    private static final int[] SIZES = { 10, 100, 1000 };
+
+    /**
+     * Zipf exponents benchmarked; 0 is the uniform distribution.
+     */
+    private static final double[] EXPONENTS = { 0.0, 1.0, 1.5 };
+
+    /**
+     * Number of lookups per round.
+     */
+    private static final int LOOKUPS = 20000;
+
+    /**
+     * Number of untimed rounds run before the timed ones.
+     */
+    private static final int WARM_UP_ROUNDS = 10;
+
+    /**
+     * Number of timed rounds, of which the fastest is reported.
+     */
+    private static final int MEASURED_ROUNDS = 10;
+
+    /**
+     * Seed of the random key sequences, so that runs are repeatable.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Returns {@code count} keys drawn from {@code keys} with a Zipf
+     * distribution of exponent {@code s}: key {@code k} (counting from 1) is
+     * drawn with probability proportional to {@code 1 / k^s}.
+     *
+     * @param keys
+     *            the keys to draw from, most frequent first
+     * @param s
+     *            the exponent of the distribution
+     * @param count
+     *            the number of keys to draw
+     * @param random
+     *            the source of randomness
+     * @return the keys drawn
+     * @requires |keys| > 0  and  s >= 0
+     */
+    private static String[] zipf(String[] keys, double s, int count,
+            Random random) {
+        double[] cumulative = new double[keys.length];
+        double total = 0.0;
+        for (int k = 0; k < keys.length; k++) {
+            total += 1.0 / Math.pow(k + 1, s);
+            cumulative[k] = total;
+        }
+        String[] drawn = new String[count];
+        for (int i = 0; i < count; i++) {
+            double u = random.nextDouble() * total;
+            int low = 0;
+            int high = keys.length - 1;
+            while (low < high) {
+                int middle = (low + high) / 2;
+                if (cumulative[middle] < u) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            drawn[i] = keys[low];
+        }
+        return drawn;
+    }
+
+    /**
+     * Looks up the value of {@code key} the way {@code Map2.value} used to:
+     * by scanning every pair of {@code m}.
+     *
+     * @param m
+     *            the map
+     * @param key
+     *            the key
+     * @return the value associated with key
+     * @requires key is in DOMAIN(m)
+     */
+    private static String fullScanValue(Map<String, String> m, String key) {
+        String val = null;
+        for (Pair<String, String> p : m) {
+            if (p.key().equals(key)) {
+                val = p.value();
+            }
+        }
+        return val;
+    }
+
+    /**
+     * Benchmarks one combination of map size and exponent, and reports the
+     * results as one row of {@code out}.
+     *
+     * @param out
+     *            the output stream
+     * @param size
+     *            the number of keys in the map
+     * @param s
+     *            the Zipf exponent
+     * @param frequentFirst
+     *            whether the most frequent keys are added to the map first
+     * @updates out.content
+     * @requires out.is_open
+     */
+    private static void benchmark(SimpleWriter out, int size, double s,
+            boolean frequentFirst) {
+        String[] keys = new String[size];
+        for (int k = 0; k < size; k++) {
+            keys[k] = "key" + k;
+        }
+        String[] lookups = zipf(keys, s, LOOKUPS, new Random(SEED));
+        Map<String, String> m = new Map2<String, String>();
+        for (int i = 0; i < size; i++) {
+            int k = i;
+            if (!frequentFirst) {
+                k = size - 1 - i;
+            }
+            m.add(keys[k], keys[k]);
+        }
+
+        long bestScan = Long.MAX_VALUE;
+        long bestEarlyExit = Long.MAX_VALUE;
+        int matches = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String key : lookups) {
+                if (fullScanValue(m, key) == key) {
+                    matches++;
+                }
+            }
+            long scanned = System.nanoTime();
+            for (String key : lookups) {
+                if (m.value(key) == key) {
+                    matches++;
+                }
+            }
+            long exited = System.nanoTime();
+            if (round >= WARM_UP_ROUNDS) {
+                bestScan = Math.min(bestScan, scanned - start);
+                bestEarlyExit = Math.min(bestEarlyExit,
+                        exited - scanned);
+            }
+        }
+        int rounds = WARM_UP_ROUNDS + MEASURED_ROUNDS;
+        assert matches == 2 * LOOKUPS
+                * rounds : "Violation of: every lookup finds its value";
+
+        String order = "frequent last";
+        if (frequentFirst) {
+            order = "frequent first";
+        }
+        out.println(String.format("%6d%8.1f%16s%12.1f%12.1f%10.1f", size, s,
+                order, (double) bestScan / LOOKUPS,
+                (double) bestEarlyExit / LOOKUPS,
+                (double) bestScan / bestEarlyExit));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.println(String.format("%6s%8s%16s%12s%12s%10s", "size",
+                "zipf s", "added", "full scan", "early exit", "speedup"));
+        out.println(String.format("%6s%8s%16s%12s%12s%10s", "", "", "",
+                "(ns/op)", "(ns/op)", ""));
+        for (int size : SIZES) {
+            for (double s : EXPONENTS) {
+                benchmark(out, size, s, true);
+                benchmark(out, size, s, false);
+            }
+        }
+        out.close();
+    }
+
+}
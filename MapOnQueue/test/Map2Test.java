@@ -1,3 +1,7 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
 import components.map.Map;
 import components.map.Map1L;
 
@@ -16,4 +20,64 @@ public class Map2Test extends MapTest {
         return new Map1L<String, String>();
     }
 
+    /** removeIfPresent routine case - key in map. */
+    @Test
+    public final void testRemoveIfPresentPresent() {
+        Map2<String, String> m = new Map2<String, String>();
+        m.add("one", "1");
+        m.add("two", "2");
+        m.add("three", "3");
+        Map.Pair<String, String> p = m.removeIfPresent("two");
+        Map<String, String> mExpected = this.constructorRef();
+        mExpected.add("one", "1");
+        mExpected.add("three", "3");
+
+        assertEquals("two", p.key());
+        assertEquals("2", p.value());
+        assertEquals(mExpected, m);
+    }
+
+    /** removeIfPresent boundary case - key not in map. */
+    @Test
+    public final void testRemoveIfPresentAbsent() {
+        Map2<String, String> m = new Map2<String, String>();
+        m.add("one", "1");
+        Map.Pair<String, String> p = m.removeIfPresent("two");
+        Map<String, String> mExpected = this.constructorRef();
+        mExpected.add("one", "1");
+
+        assertEquals(null, p);
+        assertEquals(mExpected, m);
+    }
+
+    /** removeIfPresent boundary case - empty map. */
+    @Test
+    public final void testRemoveIfPresentEmpty() {
+        Map2<String, String> m = new Map2<String, String>();
+
+        assertEquals(null, m.removeIfPresent("one"));
+        assertEquals(0, m.size());
+    }
+
+    /** valueOrNull routine case - key in map. */
+    @Test
+    public final void testValueOrNullPresent() {
+        Map2<String, String> m = new Map2<String, String>();
+        m.add("one", "1");
+        m.add("two", "2");
+
+        assertEquals("2", m.valueOrNull("two"));
+        assertEquals(2, m.size());
+    }
+
+    /** valueOrNull boundary case - key not in map. */
+    @Test
+    public final void testValueOrNullAbsent() {
+        Map2<String, String> m = new Map2<String, String>();
+        m.add("one", "1");
+
+        assertEquals(null, m.valueOrNull("One"));
+        assertEquals(1, m.size());
+    }
+
 }
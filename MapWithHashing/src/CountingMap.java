@@ -0,0 +1,304 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map from {@code String} keys to {@code int} counts, represented as an
+ * open-addressing hash table (linear probing) over parallel arrays of keys,
+ * cached hash codes and primitive counts. Counting a word with
+ * {@code increment} allocates nothing once the word has been seen, unlike a
+ * {@code Map<String, Integer>} which boxes a new {@code Integer} per update.
+ * Uses only standard Java classes, so it can serve both the components-based
+ * and the plain-Java tools.
+ *
+ * @convention <pre>
+ * |$this.keys| = |$this.hashes| = |$this.counts|  and
+ * [|$this.keys| is a power of 2]  and
+ * 2 * $this.size <= |$this.keys|  and
+ * $this.size = [number of slots i with $this.keys[i] /= null]  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.keys|  and  $this.keys[i] /= null)
+ *   ($this.counts[i] > 0  and
+ *    $this.hashes[i] = [computed result of $this.keys[i].hashCode()]  and
+ *    [no slot between the home slot of $this.hashes[i] and i (going
+ *     around the table) has a null key]  and
+ *    [no other slot holds a key equal to $this.keys[i]])
+ * </pre>
+ * @correspondence <pre>
+ * this = {(key, count): (string of character, integer) where
+ *           (there exists i: integer
+ *              (0 <= i  and  i < |$this.keys|  and
+ *               $this.keys[i] = key  and  $this.counts[i] = count))}
+ * </pre>
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public final class CountingMap implements Iterable<String> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default capacity of the table.
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Keys, {@code null} for an empty slot.
+     */
+    private String[] keys;
+
+    /**
+     * Cached hash codes of the keys, parallel to {@code keys}.
+     */
+    private int[] hashes;
+
+    /**
+     * Counts, parallel to {@code keys}.
+     */
+    private int[] counts;
+
+    /**
+     * Number of keys in {@code this}.
+     */
+    private int size;
+
+    /**
+     * Returns the slot holding {@code key}, or the empty slot where it would
+     * go if it is not in {@code this}.
+     *
+     * @param key
+     *            the key to look for
+     * @param hash
+     *            the hash code of {@code key}
+     * @return the slot for {@code key}
+     * @requires hash = [computed result of key.hashCode()]
+     * @ensures <pre>
+     * $this.keys[slotFor] = key  or
+     * ($this.keys[slotFor] = null  and  key is not in DOMAIN(this))
+     * </pre>
+     */
+    private int slotFor(String key, int hash) {
+        int mask = this.keys.length - 1;
+        int i = (hash ^ (hash >>> (Integer.SIZE / 2))) & mask;
+        while (this.keys[i] != null
+                && !(this.hashes[i] == hash && key.equals(this.keys[i]))) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Doubles the capacity of the table, re-placing every key.
+     *
+     * @updates this
+     * @ensures this = #this  and  |$this.keys| = 2 * |#$this.keys|
+     */
+    private void grow() {
+        String[] oldKeys = this.keys;
+        int[] oldHashes = this.hashes;
+        int[] oldCounts = this.counts;
+        this.createNewRep(2 * oldKeys.length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = this.slotFor(oldKeys[i], oldHashes[i]);
+                this.keys[slot] = oldKeys[i];
+                this.hashes[slot] = oldHashes[i];
+                this.counts[slot] = oldCounts[i];
+                this.size++;
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param capacity
+     *            the number of slots
+     * @requires [capacity is a power of 2]  and  capacity > 1
+     * @ensures |$this.keys| = capacity  and  this = {}
+     */
+    private void createNewRep(int capacity) {
+        this.keys = new String[capacity];
+        this.hashes = new int[capacity];
+        this.counts = new int[capacity];
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public CountingMap() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor resulting in a table that can hold about
+     * {@code expectedSize} keys before it has to grow.
+     *
+     * @param expectedSize
+     *            expected number of distinct keys
+     * @requires 0 < expectedSize <= 2^29
+     * @ensures this = {}
+     */
+    public CountingMap(int expectedSize) {
+        assert expectedSize > 0 : "Violation of: expectedSize > 0";
+        int capacity = 2;
+        while (capacity < 2 * expectedSize) {
+            capacity *= 2;
+        }
+        this.createNewRep(capacity);
+    }
+
+    /*
+     * Public methods ---------------------------------------------------------
+     */
+
+    /**
+     * Adds one to the count of {@code key}, adding {@code key} with count 1 if
+     * it is not already in {@code this}, and returns the new count.
+     *
+     * @param key
+     *            the key to count
+     * @return the new count of {@code key}
+     * @updates this
+     * @ensures <pre>
+     * if key is in DOMAIN(#this)
+     *  then increment = [count of key in #this] + 1
+     *  else increment = 1  and
+     * this = {(k, c): (string of character, integer)
+     *           where ((k, c) is in #this  and  k /= key)}
+     *          union {(key, increment)}
+     * </pre>
+     */
+    public int increment(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        int hash = key.hashCode();
+        int slot = this.slotFor(key, hash);
+        if (this.keys[slot] == null) {
+            if (2 * (this.size + 1) > this.keys.length) {
+                this.grow();
+                slot = this.slotFor(key, hash);
+            }
+            this.keys[slot] = key;
+            this.hashes[slot] = hash;
+            this.size++;
+        }
+        this.counts[slot]++;
+
+        return this.counts[slot];
+    }
+
+    /**
+     * Reports the count of {@code key}, or 0 if {@code key} is not in
+     * {@code this}.
+     *
+     * @param key
+     *            the key whose count is to be reported
+     * @return the count of {@code key}
+     * @ensures <pre>
+     * if key is in DOMAIN(this)
+     *  then (key, count) is in this
+     *  else count = 0
+     * </pre>
+     */
+    public int count(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.counts[this.slotFor(key, key.hashCode())];
+    }
+
+    /**
+     * Reports the number of distinct keys in {@code this}.
+     *
+     * @return the number of keys
+     * @ensures size = |this|
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Resets {@code this} to empty.
+     *
+     * @clears this
+     */
+    public void clear() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns an iterator over the keys of {@code this}, in no particular
+     * order.
+     *
+     * @return an iterator over DOMAIN(this)
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new CountingMapIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code CountingMap}.
+     */
+    private final class CountingMapIterator implements Iterator<String> {
+
+        /**
+         * Number of keys seen already.
+         */
+        private int numberSeen;
+
+        /**
+         * Slot at which to start looking for the next key.
+         */
+        private int currentSlot;
+
+        /**
+         * No-argument constructor.
+         */
+        CountingMapIterator() {
+            this.numberSeen = 0;
+            this.currentSlot = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < CountingMap.this.size;
+        }
+
+        @Override
+        public String next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            while (CountingMap.this.keys[this.currentSlot] == null) {
+                this.currentSlot++;
+            }
+            String next = CountingMap.this.keys[this.currentSlot];
+            this.currentSlot++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
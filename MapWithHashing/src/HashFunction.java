@@ -0,0 +1,25 @@
+/**
+ * Function from keys to {@code int} hash codes, used by {@code Map4} to place
+ * keys in buckets in place of calling {@code key.hashCode()} directly.
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public interface HashFunction {
+
+    /**
+     * Returns the hash code of {@code key}.
+     *
+     * @param key
+     *            the key to hash
+     * @return the hash code of {@code key}
+     * @requires key is not null
+     * @ensures <pre>
+     * [hash is a function of key's abstract value only, i.e., keys that are
+     *  equal according to equals have the same hash]
+     * </pre>
+     */
+    int hash(Object key);
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Utility class with the {@code HashFunction}s offered to {@code Map4}.
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public final class HashFunctions {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private HashFunctions() {
+    }
+
+    /**
+     * First multiplier of the murmur3 32-bit finalizer.
+     */
+    private static final int MURMUR_C1 = 0x85ebca6b;
+
+    /**
+     * Second multiplier of the murmur3 32-bit finalizer.
+     */
+    private static final int MURMUR_C2 = 0xc2b2ae35;
+
+    /**
+     * First shift of the murmur3 32-bit finalizer.
+     */
+    private static final int MURMUR_S1 = 16;
+
+    /**
+     * Second shift of the murmur3 32-bit finalizer.
+     */
+    private static final int MURMUR_S2 = 13;
+
+    /**
+     * 32-bit FNV prime.
+     */
+    private static final int FNV_PRIME = 0x01000193;
+
+    /**
+     * Hash function that just reports {@code key.hashCode()}.
+     */
+    public static final HashFunction IDENTITY = key -> key.hashCode();
+
+    /**
+     * Hash function that passes {@code key.hashCode()} through the murmur3
+     * finalizer, so that every bit of the hash code affects every bit of the
+     * result. This spreads hash codes that differ only in their high bits, or
+     * by multiples of the table size.
+     */
+    public static final HashFunction MURMUR_FINALIZER = key -> mix(
+            key.hashCode());
+
+    /**
+     * Applies the murmur3 32-bit finalizer to {@code h}.
+     *
+     * @param h
+     *            the value to mix
+     * @return the mixed value
+     * @ensures [mix is a bijection on int in which each bit of h affects each
+     *          bit of the result with probability close to 1/2]
+     */
+    public static int mix(int h) {
+        int x = h;
+        x ^= x >>> MURMUR_S1;
+        x *= MURMUR_C1;
+        x ^= x >>> MURMUR_S2;
+        x *= MURMUR_C2;
+        x ^= x >>> MURMUR_S1;
+        return x;
+    }
+
+    /**
+     * Returns a hash function keyed by {@code seed}. Keys that are
+     * {@code CharSequence}s are hashed character by character together with
+     * the seed, so that, unlike with {@code String.hashCode}, a set of
+     * colliding keys cannot be precomputed without knowing the seed; other
+     * keys have their {@code hashCode()} mixed with the seed.
+     *
+     * @param seed
+     *            the seed, which should be chosen at random and kept secret
+     * @return the seeded hash function
+     */
+    public static HashFunction seeded(final int seed) {
+        return key -> {
+            int h;
+            if (key instanceof CharSequence) {
+                CharSequence s = (CharSequence) key;
+                h = seed;
+                for (int i = 0; i < s.length(); i++) {
+                    h = (h ^ s.charAt(i)) * FNV_PRIME;
+                }
+                h = mix(h ^ s.length());
+            } else {
+                h = mix(key.hashCode() ^ seed);
+            }
+            return h;
+        };
+    }
+
+}
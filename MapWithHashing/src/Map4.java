@@ -2,12 +2,25 @@ import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 import components.map.Map;
-import components.map.Map2;
 import components.map.MapSecondary;
 
 /**
  * {@code Map} represented as a hash table using {@code Map}s for the buckets,
- * with implementations of primary methods.
+ * with implementations of primary methods. The buckets are {@code SmallMap}s,
+ * which keep their few entries inline in arrays.
+ * <p>
+ * The hash table grows when {@code size / |hashTable|} exceeds the load factor
+ * and shrinks when it falls well below it. Entries are moved from the old
+ * table to the new one a few buckets at a time on later calls to {@code add}
+ * and {@code remove}, so no single call pays for a full rehash. An occupancy
+ * bitset per table lets {@code removeAny}, the iterator and the migration skip
+ * runs of empty buckets 64 at a time.
+ * <p>
+ * By default the hash table sizes are primes and a key's bucket is its hash
+ * code mod the table size. In power-of-two mode the table sizes are powers of
+ * 2 and the bucket is picked by masking off the low bits of the hash code,
+ * after folding its high half into its low half, which avoids an integer
+ * division on every operation.
  *
  * @param <K>
  *            type of {@code Map} domain (key) entries
@@ -15,24 +28,52 @@ import components.map.MapSecondary;
  *            type of {@code Map} range (associated value) entries
  * @convention <pre>
  * |$this.hashTable| > 0  and
+ * $this.loadFactor > 0  and  $this.hashFunction /= null  and
+ * 0 < $this.minTableSize <= |$this.hashTable|  and
+ * if $this.powerOfTwo then
+ *   [$this.minTableSize, |$this.hashTable| and, if $this.oldTable /= null,
+ *    |$this.oldTable| are powers of 2]  and
  * for all i: integer, pf: PARTIAL_FUNCTION, x: K
  *     where (0 <= i  and  i < |$this.hashTable|  and
  *            <pf> = $this.hashTable[i, i+1)  and
  *            x is in DOMAIN(pf))
- *   ([computed result of x.hashCode()] mod |$this.hashTable| = i))  and
+ *   (INDEX($this.hashFunction.hash(x), |$this.hashTable|) = i  and
+ *    ($this.oldTable = null  or
+ *     INDEX($this.hashFunction.hash(x), |$this.oldTable|) <
+ *        $this.migrated))  and
  * for all i: integer
  *     where (0 <= i  and  i < |$this.hashTable|)
  *   ([entry at position i in $this.hashTable is not null])  and
+ * if $this.oldTable /= null then
+ *   0 <= $this.migrated <= |$this.oldTable|  and
+ *   for all i: integer, pf: PARTIAL_FUNCTION, x: K
+ *       where (0 <= i  and  i < |$this.oldTable|  and
+ *              <pf> = $this.oldTable[i, i+1)  and
+ *              x is in DOMAIN(pf))
+ *     (INDEX($this.hashFunction.hash(x), |$this.oldTable|) = i  and
+ *      $this.migrated <= i)  and
+ *   for all i: integer
+ *       where (0 <= i  and  i < |$this.oldTable|)
+ *     ([entry at position i in $this.oldTable is not null])  and
+ * [bit i of $this.occupied is set iff $this.hashTable[i, i+1) /= <{}>]  and
+ * [all buckets of $this.hashTable before $this.anyHint are empty]  and
+ * if $this.oldTable /= null then
+ *   [bit i of $this.oldOccupied is set iff $this.oldTable[i, i+1) /= <{}>]  and
+ *   [all buckets of $this.oldTable before $this.oldAnyHint are empty]  and
  * $this.size = sum i: integer, pf: PARTIAL_FUNCTION
  *     where (0 <= i  and  i < |$this.hashTable|  and
  *            <pf> = $this.hashTable[i, i+1))
- *   (|pf|)
+ *   (|pf|) +
+ *   [sum of the sizes of the buckets in $this.oldTable, if not null]
+ * where INDEX(h, n) = (if $this.powerOfTwo then SPREAD(h) else h) mod n
+ *   and SPREAD(h) = h xor (h >>> 16)
  * </pre>
  * @correspondence <pre>
  * this = union i: integer, pf: PARTIAL_FUNCTION
  *            where (0 <= i  and  i < |$this.hashTable|  and
  *                   <pf> = $this.hashTable[i, i+1))
- *          (pf)
+ *          (pf)  union
+ *        [union of the buckets in $this.oldTable, if not null]
  * </pre>
  *
  * @author Mohammed Maalin
@@ -50,16 +91,105 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      */
     private static final int DEFAULT_HASH_TABLE_SIZE = 101;
 
+    /**
+     * Default load factor, i.e., the largest {@code size / |hashTable|} that
+     * does not trigger growth of the hash table.
+     */
+    private static final double DEFAULT_LOAD_FACTOR = 0.75;
+
+    /**
+     * Number of old buckets migrated to the new hash table by each call to
+     * {@code add} or {@code remove} while a resize is in progress.
+     */
+    private static final int MIGRATION_STEP = 4;
+
+    /**
+     * Fraction of the load factor below which the hash table shrinks.
+     */
+    private static final int SHRINK_DIVISOR = 4;
+
+    /**
+     * Shift that folds the high half of a hash code into its low half in
+     * power-of-two mode.
+     */
+    private static final int SPREAD_SHIFT = 16;
+
     /**
      * Buckets for hashing.
      */
-    private Map<K, V>[] hashTable;
+    private SmallMap<K, V>[] hashTable;
+
+    /**
+     * Buckets of the hash table being migrated into {@code hashTable}, or
+     * {@code null} when no resize is in progress.
+     */
+    private SmallMap<K, V>[] oldTable;
+
+    /**
+     * Number of buckets of {@code oldTable} already migrated.
+     */
+    private int migrated;
+
+    /**
+     * Occupancy bitset of {@code hashTable}: bit {@code i} is set exactly when
+     * bucket {@code i} is not empty.
+     */
+    private long[] occupied;
+
+    /**
+     * Occupancy bitset of {@code oldTable}, or {@code null} when no resize is
+     * in progress.
+     */
+    private long[] oldOccupied;
+
+    /**
+     * Bucket of {@code hashTable} at which {@code removeAny} starts looking;
+     * all buckets before it are empty.
+     */
+    private int anyHint;
+
+    /**
+     * Bucket of {@code oldTable} at which {@code removeAny} starts looking;
+     * all buckets before it are empty.
+     */
+    private int oldAnyHint;
 
     /**
      * Total size of abstract {@code this}.
      */
     private int size;
 
+    /**
+     * Load factor that triggers growth of the hash table.
+     */
+    private double loadFactor;
+
+    /**
+     * Size below which the hash table never shrinks.
+     */
+    private int minTableSize;
+
+    /**
+     * Whether the hash table sizes are powers of 2, with buckets picked by
+     * masking, rather than primes, with buckets picked by mod.
+     */
+    private boolean powerOfTwo;
+
+    /**
+     * Function used to hash keys.
+     */
+    private HashFunction hashFunction;
+
+    /**
+     * Number of key lookups since the probe counts were last reset.
+     */
+    private long lookups;
+
+    /**
+     * Total number of entries in the buckets searched by those lookups.
+     */
+    private long probes;
+
     /**
      * Computes {@code a} mod {@code b} as % should have been defined to work.
      *
@@ -84,32 +214,426 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         return result;
     }
 
+    /**
+     * Returns the smallest prime number that is at least {@code n}.
+     *
+     * @param n
+     *            the lower bound
+     * @return the smallest prime >= n
+     * @requires n > 0
+     * @ensures nextPrime >= n  and  [nextPrime is prime]
+     */
+    private static int nextPrime(int n) {
+        assert n > 0 : "Violation of: n > 0";
+        int candidate = Math.max(n, 2);
+        boolean isPrime = false;
+        while (!isPrime) {
+            isPrime = true;
+            for (int d = 2; isPrime && d <= candidate / d; d++) {
+                if (candidate % d == 0) {
+                    isPrime = false;
+                }
+            }
+            if (!isPrime) {
+                candidate++;
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Returns the smallest power of 2 that is at least {@code n}.
+     *
+     * @param n
+     *            the lower bound
+     * @return the smallest power of 2 >= n
+     * @requires 0 < n <= 2^30
+     * @ensures nextPowerOfTwo >= n  and  [nextPowerOfTwo is a power of 2]
+     */
+    private static int nextPowerOfTwo(int n) {
+        assert n > 0 : "Violation of: n > 0";
+        int power = 1;
+        while (power < n) {
+            power *= 2;
+        }
+        return power;
+    }
+
+    /**
+     * Returns the index of the bucket for hash code {@code hash} in a table of
+     * {@code tableSize} buckets.
+     *
+     * @param hash
+     *            the hash code
+     * @param tableSize
+     *            the number of buckets
+     * @return the index of the bucket
+     * @requires <pre>
+     * tableSize > 0  and
+     * ($this.powerOfTwo implies [tableSize is a power of 2])
+     * </pre>
+     * @ensures indexFor = INDEX(hash, tableSize)
+     */
+    private int indexFor(int hash, int tableSize) {
+        int index;
+        if (this.powerOfTwo) {
+            index = (hash ^ (hash >>> SPREAD_SHIFT)) & (tableSize - 1);
+        } else {
+            index = mod(hash, tableSize);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the smallest valid table size that is at least {@code n}: the
+     * next power of 2 in power-of-two mode, otherwise the next prime.
+     *
+     * @param n
+     *            the lower bound
+     * @return the smallest valid table size >= n
+     * @requires n > 0
+     * @ensures tableSizeAtLeast >= n
+     */
+    private int tableSizeAtLeast(int n) {
+        int tableSize;
+        if (this.powerOfTwo) {
+            tableSize = nextPowerOfTwo(n);
+        } else {
+            tableSize = nextPrime(n);
+        }
+        return tableSize;
+    }
+
+    /**
+     * Creates and returns an array of {@code tableSize} empty buckets.
+     *
+     * @param <K>
+     *            type of {@code Map} domain (key) entries
+     * @param <V>
+     *            type of {@code Map} range (associated value) entries
+     * @param tableSize
+     *            the number of buckets
+     * @return the new buckets
+     * @requires tableSize > 0
+     * @ensures <pre>
+     * |newTable| = tableSize  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |newTable|)
+     *   (newTable[i, i+1) = <{}>)
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> SmallMap<K, V>[] newTable(int tableSize) {
+        assert tableSize > 0 : "Violation of: tableSize > 0";
+        /*
+         * With "new SmallMap<K, V>[...]" in place of "new SmallMap[...]" it
+         * does not compile; as shown, it results in a warning about an
+         * unchecked conversion, though it cannot fail.
+         */
+        SmallMap<K, V>[] table = new SmallMap[tableSize];
+        for (int i = 0; i < tableSize; i++) {
+            table[i] = new SmallMap<K, V>();
+        }
+        return table;
+    }
+
+    /**
+     * Creates and returns an all-clear occupancy bitset for a table of
+     * {@code tableSize} buckets.
+     *
+     * @param tableSize
+     *            the number of buckets
+     * @return the new bitset
+     * @requires tableSize > 0
+     * @ensures |newOccupancy| * 64 >= tableSize  and  [all bits are clear]
+     */
+    private static long[] newOccupancy(int tableSize) {
+        assert tableSize > 0 : "Violation of: tableSize > 0";
+        return new long[(tableSize + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+     * Sets or clears bit {@code i} of {@code bits}.
+     *
+     * @param bits
+     *            the bitset
+     * @param i
+     *            the bit to update
+     * @param isSet
+     *            whether bit {@code i} should be set
+     * @updates bits
+     * @requires 0 <= i < |bits| * 64
+     * @ensures [bit i of bits = isSet]  and  [other bits are unchanged]
+     */
+    private static void setBit(long[] bits, int i, boolean isSet) {
+        long mask = 1L << (i % Long.SIZE);
+        if (isSet) {
+            bits[i / Long.SIZE] |= mask;
+        } else {
+            bits[i / Long.SIZE] &= ~mask;
+        }
+    }
+
+    /**
+     * Returns the first set bit of {@code bits} at or after {@code from},
+     * scanning a whole word of 64 bits at a time.
+     *
+     * @param bits
+     *            the bitset
+     * @param from
+     *            the first bit to consider
+     * @return the index of the first set bit >= from, or -1 if there is none
+     * @requires from >= 0
+     * @ensures <pre>
+     * if [there is a set bit at or after from]
+     *  then nextSetBit = [index of the first such bit]
+     *  else nextSetBit = -1
+     * </pre>
+     */
+    private static int nextSetBit(long[] bits, int from) {
+        assert from >= 0 : "Violation of: from >= 0";
+        int result = -1;
+        int word = from / Long.SIZE;
+        if (word < bits.length) {
+            long w = bits[word] & (-1L << (from % Long.SIZE));
+            while (w == 0 && word + 1 < bits.length) {
+                word++;
+                w = bits[word];
+            }
+            if (w != 0) {
+                result = word * Long.SIZE + Long.numberOfTrailingZeros(w);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position of the bucket where a key with hash code
+     * {@code hash} is, or would be, stored: {@code i} for
+     * {@code $this.hashTable[i]}, or {@code -(i + 1)} for
+     * {@code $this.oldTable[i]}.
+     *
+     * @param hash
+     *            the hash code of the key
+     * @return the position of the bucket for the key
+     * @ensures <pre>
+     * if $this.oldTable /= null  and
+     *    INDEX(hash, |$this.oldTable|) >= $this.migrated
+     *  then bucketPosition = -(INDEX(hash, |$this.oldTable|) + 1)
+     *  else bucketPosition = INDEX(hash, |$this.hashTable|)
+     * </pre>
+     */
+    private int bucketPosition(int hash) {
+        int oldIndex = -1;
+        if (this.oldTable != null) {
+            oldIndex = this.indexFor(hash, this.oldTable.length);
+        }
+        int position;
+        if (oldIndex >= this.migrated) {
+            position = -(oldIndex + 1);
+        } else {
+            position = this.indexFor(hash, this.hashTable.length);
+        }
+        return position;
+    }
+
+    /**
+     * Returns the position of the bucket for {@code key}, hashing {@code key}
+     * once with {@code $this.hashFunction}, and records the lookup in the
+     * probe counts.
+     *
+     * @param key
+     *            the key
+     * @return the position of the bucket for {@code key}
+     * @updates this.lookups, this.probes
+     * @ensures <pre>
+     * lookUp = bucketPosition($this.hashFunction.hash(key))  and
+     * this.lookups = #this.lookups + 1  and
+     * this.probes = #this.probes + [size of the bucket at lookUp]
+     * </pre>
+     */
+    private int lookUp(K key) {
+        int position = this.bucketPosition(this.hashFunction.hash(key));
+        this.lookups++;
+        this.probes += this.bucketAt(position).size();
+        return position;
+    }
+
+    /**
+     * Returns the bucket at {@code position}.
+     *
+     * @param position
+     *            the position, as reported by {@code bucketPosition}
+     * @return the bucket at {@code position}
+     * @ensures <pre>
+     * if position >= 0
+     *  then bucketAt = $this.hashTable[position]
+     *  else bucketAt = $this.oldTable[-(position + 1)]
+     * </pre>
+     */
+    private SmallMap<K, V> bucketAt(int position) {
+        SmallMap<K, V> bucket;
+        if (position >= 0) {
+            bucket = this.hashTable[position];
+        } else {
+            bucket = this.oldTable[-(position + 1)];
+        }
+        return bucket;
+    }
+
+    /**
+     * Brings the occupancy bit of the bucket at {@code position} up to date
+     * after the bucket has changed.
+     *
+     * @param position
+     *            the position, as reported by {@code bucketPosition}
+     * @updates this.occupied, this.oldOccupied, this.anyHint,
+     *          this.oldAnyHint
+     * @ensures [the occupancy bit of the bucket at position is set exactly
+     *          when the bucket is not empty]
+     */
+    private void updateOccupancy(int position) {
+        boolean isSet = this.bucketAt(position).size() > 0;
+        if (position >= 0) {
+            setBit(this.occupied, position, isSet);
+            if (isSet && position < this.anyHint) {
+                this.anyHint = position;
+            }
+        } else {
+            int index = -(position + 1);
+            setBit(this.oldOccupied, index, isSet);
+            if (isSet && index < this.oldAnyHint) {
+                this.oldAnyHint = index;
+            }
+        }
+    }
+
+    /**
+     * Moves the entries of up to {@code buckets} non-empty old buckets into
+     * {@code $this.hashTable}, ending the migration when none are left. Empty
+     * old buckets are skipped without being counted.
+     *
+     * @param buckets
+     *            the maximum number of old buckets to migrate
+     * @updates this
+     * @requires buckets > 0
+     * @ensures [this represents the same map as #this]
+     */
+    private void migrate(int buckets) {
+        assert buckets > 0 : "Violation of: buckets > 0";
+
+        int moved = 0;
+        while (this.oldTable != null && moved < buckets) {
+            int i = nextSetBit(this.oldOccupied, this.migrated);
+            if (i < 0) {
+                this.oldTable = null;
+                this.oldOccupied = null;
+                this.migrated = 0;
+            } else {
+                Map<K, V> bucket = this.oldTable[i];
+                while (bucket.size() > 0) {
+                    Pair<K, V> p = bucket.removeAny();
+                    int index = this.indexFor(
+                            this.hashFunction.hash(p.key()),
+                            this.hashTable.length);
+                    this.hashTable[index].add(p.key(), p.value());
+                    this.updateOccupancy(index);
+                }
+                setBit(this.oldOccupied, i, false);
+                this.migrated = i + 1;
+                moved++;
+            }
+        }
+    }
+
+    /**
+     * Starts migrating the entries of {@code this} into a new hash table of
+     * size {@code tableSize}, first finishing any migration in progress.
+     *
+     * @param tableSize
+     *            the size of the new hash table
+     * @updates this
+     * @requires tableSize > 0
+     * @ensures [this represents the same map as #this]  and
+     *          |this.hashTable| = tableSize
+     */
+    private void startResize(int tableSize) {
+        assert tableSize > 0 : "Violation of: tableSize > 0";
+
+        if (this.oldTable != null) {
+            this.migrate(this.oldTable.length);
+        }
+        this.oldTable = this.hashTable;
+        this.oldOccupied = this.occupied;
+        this.oldAnyHint = this.anyHint;
+        this.migrated = 0;
+        this.hashTable = newTable(tableSize);
+        this.occupied = newOccupancy(tableSize);
+        this.anyHint = 0;
+    }
+
+    /**
+     * Grows or shrinks the hash table if the current load calls for it.
+     *
+     * @updates this
+     * @ensures [this represents the same map as #this]
+     */
+    private void resizeIfNeeded() {
+        int length = this.hashTable.length;
+        if (this.size > this.loadFactor * length) {
+            this.startResize(this.tableSizeAtLeast(2 * length));
+        } else if (length > this.minTableSize
+                && this.size < this.loadFactor / SHRINK_DIVISOR * length) {
+            this.startResize(Math.max(this.minTableSize,
+                    this.tableSizeAtLeast(length / 2)));
+        }
+    }
+
     /**
      * Creator of initial representation.
      *
      * @param hashTableSize
      *            the size of the hash table
-     * @requires hashTableSize > 0
+     * @param loadFactor
+     *            the load factor
+     * @param hashFunction
+     *            the function used to hash keys
+     * @param powerOfTwo
+     *            whether to use power-of-two mode
+     * @requires <pre>
+     * hashTableSize > 0  and  loadFactor > 0  and
+     * (powerOfTwo implies [hashTableSize is a power of 2])
+     * </pre>
      * @ensures <pre>
      * |$this.hashTable| = hashTableSize  and
      * for all i: integer
      *     where (0 <= i  and  i < |$this.hashTable|)
      *   ($this.hashTable[i, i+1) = <{}>)  and
-     * $this.size = 0
+     * [all bits of $this.occupied are clear]  and
+     * $this.oldTable = null  and  $this.size = 0  and
+     * $this.loadFactor = loadFactor  and
+     * $this.minTableSize = hashTableSize  and
+     * $this.hashFunction = hashFunction  and
+     * $this.powerOfTwo = powerOfTwo  and
+     * $this.lookups = 0  and  $this.probes = 0
      * </pre>
      */
-    @SuppressWarnings("unchecked")
-    private void createNewRep(int hashTableSize) {
-        /*
-         * With "new Map<K, V>[...]" in place of "new Map[...]" it does not
-         * compile; as shown, it results in a warning about an unchecked
-         * conversion, though it cannot fail.
-         */
+    private void createNewRep(int hashTableSize, double loadFactor,
+            HashFunction hashFunction, boolean powerOfTwo) {
         this.size = 0;
-        this.hashTable = new Map[hashTableSize];
-        for (int i = 0; i < hashTableSize; i++) {
-            this.hashTable[i] = new Map2<K, V>();
-        }
+        this.hashTable = newTable(hashTableSize);
+        this.occupied = newOccupancy(hashTableSize);
+        this.anyHint = 0;
+        this.oldTable = null;
+        this.oldOccupied = null;
+        this.oldAnyHint = 0;
+        this.migrated = 0;
+        this.loadFactor = loadFactor;
+        this.minTableSize = hashTableSize;
+        this.hashFunction = hashFunction;
+        this.powerOfTwo = powerOfTwo;
+        this.lookups = 0;
+        this.probes = 0;
     }
 
     /*
@@ -120,7 +644,8 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      * No-argument constructor.
      */
     public Map4() {
-        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE, DEFAULT_LOAD_FACTOR,
+                HashFunctions.IDENTITY, false);
     }
 
     /**
@@ -132,7 +657,81 @@ public class Map4<K, V> extends MapSecondary<K, V> {
      * @ensures this = {}
      */
     public Map4(int hashTableSize) {
-        this.createNewRep(hashTableSize);
+        this.createNewRep(hashTableSize, DEFAULT_LOAD_FACTOR,
+                HashFunctions.IDENTITY, false);
+    }
+
+    /**
+     * Constructor resulting in a hash table of initial size
+     * {@code hashTableSize} that grows when {@code |this| / [number of
+     * buckets]} exceeds {@code loadFactor}.
+     *
+     * @param hashTableSize
+     *            initial (and minimum) size of hash table
+     * @param loadFactor
+     *            load factor that triggers growth of the hash table
+     * @requires hashTableSize > 0  and  loadFactor > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, double loadFactor) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert loadFactor > 0 : "Violation of: loadFactor > 0";
+        this.createNewRep(hashTableSize, loadFactor, HashFunctions.IDENTITY,
+                false);
+    }
+
+    /**
+     * Constructor resulting in a hash table of initial size
+     * {@code hashTableSize} that grows when {@code |this| / [number of
+     * buckets]} exceeds {@code loadFactor}, and that places keys in buckets
+     * using {@code hashFunction} instead of {@code hashCode}.
+     *
+     * @param hashTableSize
+     *            initial (and minimum) size of hash table
+     * @param loadFactor
+     *            load factor that triggers growth of the hash table
+     * @param hashFunction
+     *            function used to hash keys
+     * @requires hashTableSize > 0  and  loadFactor > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, double loadFactor,
+            HashFunction hashFunction) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert loadFactor > 0 : "Violation of: loadFactor > 0";
+        assert hashFunction != null : "Violation of: hashFunction is not null";
+        this.createNewRep(hashTableSize, loadFactor, hashFunction, false);
+    }
+
+    /**
+     * Constructor resulting in a hash table of initial size at least
+     * {@code hashTableSize} that grows when {@code |this| / [number of
+     * buckets]} exceeds {@code loadFactor}, and that places keys in buckets
+     * using {@code hashFunction}. If {@code powerOfTwo} is true, the table
+     * sizes are powers of 2 (the initial size being {@code hashTableSize}
+     * rounded up to one) and buckets are picked by masking instead of mod.
+     *
+     * @param hashTableSize
+     *            initial (and minimum) size of hash table
+     * @param loadFactor
+     *            load factor that triggers growth of the hash table
+     * @param hashFunction
+     *            function used to hash keys
+     * @param powerOfTwo
+     *            whether to use power-of-two table sizes and masking
+     * @requires 0 < hashTableSize <= 2^30  and  loadFactor > 0
+     * @ensures this = {}
+     */
+    public Map4(int hashTableSize, double loadFactor,
+            HashFunction hashFunction, boolean powerOfTwo) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert loadFactor > 0 : "Violation of: loadFactor > 0";
+        assert hashFunction != null : "Violation of: hashFunction is not null";
+        int tableSize = hashTableSize;
+        if (powerOfTwo) {
+            tableSize = nextPowerOfTwo(hashTableSize);
+        }
+        this.createNewRep(tableSize, loadFactor, hashFunction, powerOfTwo);
     }
 
     /*
@@ -152,7 +751,8 @@ public class Map4<K, V> extends MapSecondary<K, V> {
 
     @Override
     public final void clear() {
-        this.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+        this.createNewRep(this.minTableSize, this.loadFactor,
+                this.hashFunction, this.powerOfTwo);
     }
 
     @Override
@@ -168,8 +768,22 @@ public class Map4<K, V> extends MapSecondary<K, V> {
          */
         Map4<K, V> localSource = (Map4<K, V>) source;
         this.hashTable = localSource.hashTable;
+        this.occupied = localSource.occupied;
+        this.anyHint = localSource.anyHint;
+        this.oldTable = localSource.oldTable;
+        this.oldOccupied = localSource.oldOccupied;
+        this.oldAnyHint = localSource.oldAnyHint;
+        this.migrated = localSource.migrated;
         this.size = localSource.size;
-        localSource.createNewRep(DEFAULT_HASH_TABLE_SIZE);
+        this.loadFactor = localSource.loadFactor;
+        this.minTableSize = localSource.minTableSize;
+        this.hashFunction = localSource.hashFunction;
+        this.powerOfTwo = localSource.powerOfTwo;
+        this.lookups = localSource.lookups;
+        this.probes = localSource.probes;
+        localSource.createNewRep(localSource.minTableSize,
+                localSource.loadFactor, localSource.hashFunction,
+                localSource.powerOfTwo);
     }
 
     /*
@@ -180,21 +794,32 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     public final void add(K key, V value) {
         assert key != null : "Violation of: key is not null";
         assert value != null : "Violation of: value is not null";
-        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
 
-        int index = mod(key.hashCode(), this.hashTable.length);
-        this.hashTable[index].add(key, value);
+        this.migrate(MIGRATION_STEP);
+        int position = this.lookUp(key);
+        Map<K, V> bucket = this.bucketAt(position);
+        assert !bucket
+                .hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        bucket.add(key, value);
+        this.updateOccupancy(position);
         this.size++;
+        this.resizeIfNeeded();
     }
 
     @Override
     public final Pair<K, V> remove(K key) {
         assert key != null : "Violation of: key is not null";
-        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        int index = mod(key.hashCode(), this.hashTable.length);
-        Pair<K, V> removedPair = this.hashTable[index].remove(key);
+        this.migrate(MIGRATION_STEP);
+        int position = this.lookUp(key);
+        Map<K, V> bucket = this.bucketAt(position);
+        assert bucket.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        Pair<K, V> removedPair = bucket.remove(key);
+        this.updateOccupancy(position);
         this.size--;
+        this.resizeIfNeeded();
 
         return removedPair;
     }
@@ -203,14 +828,25 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     public final Pair<K, V> removeAny() {
         assert this.size() > 0 : "Violation of: this /= empty_set";
 
-        //find a bucket to remove from
-        int nonEmptyBucketIndex = 0;
-        while (this.hashTable[nonEmptyBucketIndex].size() < 1) {
-            nonEmptyBucketIndex++;
+        this.migrate(MIGRATION_STEP);
+        //find a bucket to remove from, looking at the old buckets first
+        int position;
+        int i = -1;
+        if (this.oldTable != null) {
+            i = nextSetBit(this.oldOccupied, this.oldAnyHint);
+        }
+        if (i >= 0) {
+            this.oldAnyHint = i;
+            position = -(i + 1);
+        } else {
+            i = nextSetBit(this.occupied, this.anyHint);
+            this.anyHint = i;
+            position = i;
         }
-        Pair<K, V> removedPair = this.hashTable[nonEmptyBucketIndex]
-                .removeAny();
+        Pair<K, V> removedPair = this.bucketAt(position).removeAny();
+        this.updateOccupancy(position);
         this.size--;
+        this.resizeIfNeeded();
 
         return removedPair;
     }
@@ -218,19 +854,18 @@ public class Map4<K, V> extends MapSecondary<K, V> {
     @Override
     public final V value(K key) {
         assert key != null : "Violation of: key is not null";
-        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        int index = mod(key.hashCode(), this.hashTable.length);
+        Map<K, V> bucket = this.bucketAt(this.lookUp(key));
+        assert bucket.hasKey(key) : "Violation of: key is in DOMAIN(this)";
 
-        return this.hashTable[index].value(key);
+        return bucket.value(key);
     }
 
     @Override
     public final boolean hasKey(K key) {
         assert key != null : "Violation of: key is not null";
 
-        int index = mod(key.hashCode(), this.hashTable.length);
-        return this.hashTable[index].hasKey(key);
+        return this.bucketAt(this.lookUp(key)).hasKey(key);
     }
 
     @Override
@@ -243,6 +878,155 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         return new Map4Iterator();
     }
 
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Associates {@code value} with {@code key} in {@code this}, adding
+     * {@code key} if it is not already in {@code DOMAIN(this)}, and returns the
+     * value previously associated with {@code key}, if any. Hashes
+     * {@code key} and scans its bucket only once.
+     *
+     * @param key
+     *            the key to add or update
+     * @param value
+     *            the value to associate with {@code key}
+     * @return the value {@code key} had in {@code #this}, or {@code null} if
+     *         it was not in {@code DOMAIN(#this)}
+     * @updates this
+     * @ensures <pre>
+     * this = {(k, v): (K, V) where ((k, v) is in #this  and  k /= key)}
+     *          union {(key, value)}  and
+     * if key is in DOMAIN(#this)
+     *  then (key, addOrReplace) is in #this
+     *  else addOrReplace = null
+     * </pre>
+     */
+    public final V addOrReplace(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        this.migrate(MIGRATION_STEP);
+        int position = this.lookUp(key);
+        SmallMap<K, V> bucket = this.bucketAt(position);
+        V oldValue = bucket.replaceValueIfPresent(key, value);
+        if (oldValue == null) {
+            bucket.add(key, value);
+            this.updateOccupancy(position);
+            this.size++;
+            this.resizeIfNeeded();
+        }
+
+        return oldValue;
+    }
+
+    /**
+     * Reports the value associated with {@code key} in {@code this}, or
+     * {@code defaultValue} if {@code key} is not in {@code DOMAIN(this)}.
+     * Hashes {@code key} and scans its bucket only once.
+     *
+     * @param key
+     *            the key whose associated value is to be reported
+     * @param defaultValue
+     *            the value to report if {@code key} is not in
+     *            {@code DOMAIN(this)}
+     * @return the value associated with {@code key}, or {@code defaultValue}
+     * @ensures <pre>
+     * if key is in DOMAIN(this)
+     *  then (key, valueOrDefault) is in this
+     *  else valueOrDefault = defaultValue
+     * </pre>
+     */
+    public final V valueOrDefault(K key, V defaultValue) {
+        assert key != null : "Violation of: key is not null";
+
+        V result = this.bucketAt(this.lookUp(key)).valueOrNull(key);
+        if (result == null) {
+            result = defaultValue;
+        }
+
+        return result;
+    }
+
+    /**
+     * Reports how many buckets hold each number of entries: entry {@code k}
+     * of the result is the number of buckets holding exactly {@code k}
+     * entries. While a resize is in progress the old buckets not yet migrated
+     * are counted too.
+     *
+     * @return the histogram of bucket sizes
+     * @ensures <pre>
+     * |chainLengthHistogram| = maxChainLength + 1  and
+     * for all k: integer where (0 <= k < |chainLengthHistogram|)
+     *   (chainLengthHistogram[k] = [number of buckets with k entries])
+     * </pre>
+     */
+    public final int[] chainLengthHistogram() {
+        int[] histogram = new int[this.maxChainLength() + 1];
+        for (Map<K, V> bucket : this.hashTable) {
+            histogram[bucket.size()]++;
+        }
+        if (this.oldTable != null) {
+            for (int i = this.migrated; i < this.oldTable.length; i++) {
+                histogram[this.oldTable[i].size()]++;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Reports the number of entries in the fullest bucket.
+     *
+     * @return the largest bucket size
+     * @ensures maxChainLength = [largest number of entries in one bucket]
+     */
+    public final int maxChainLength() {
+        int max = 0;
+        for (Map<K, V> bucket : this.hashTable) {
+            max = Math.max(max, bucket.size());
+        }
+        if (this.oldTable != null) {
+            for (int i = this.migrated; i < this.oldTable.length; i++) {
+                max = Math.max(max, this.oldTable[i].size());
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Reports the number of key lookups ({@code add}, {@code remove},
+     * {@code value}, {@code hasKey}, {@code addOrReplace} and
+     * {@code valueOrDefault} calls) since {@code this} was created or cleared,
+     * or the probe counts were reset.
+     *
+     * @return the number of lookups
+     */
+    public final long lookups() {
+        return this.lookups;
+    }
+
+    /**
+     * Reports the total number of entries in the buckets searched by the
+     * lookups counted by {@code lookups}; {@code probes() / lookups()} is the
+     * average cost of a lookup.
+     *
+     * @return the number of probes
+     */
+    public final long probes() {
+        return this.probes;
+    }
+
+    /**
+     * Resets the counts reported by {@code lookups} and {@code probes} to 0.
+     *
+     * @ensures lookups = 0  and  probes = 0
+     */
+    public final void resetProbeCounts() {
+        this.lookups = 0;
+        this.probes = 0;
+    }
+
     /**
      * Implementation of {@code Iterator} interface for {@code Map4}.
      */
@@ -253,6 +1037,17 @@ public class Map4<K, V> extends MapSecondary<K, V> {
          */
         private int numberSeen;
 
+        /**
+         * Buckets from which current bucket iterator comes; the old buckets
+         * are visited first while a resize is in progress.
+         */
+        private SmallMap<K, V>[] currentTable;
+
+        /**
+         * Occupancy bitset of {@code currentTable}.
+         */
+        private long[] currentOccupied;
+
         /**
          * Bucket from which current bucket iterator comes.
          */
@@ -269,7 +1064,14 @@ public class Map4<K, V> extends MapSecondary<K, V> {
         Map4Iterator() {
             this.numberSeen = 0;
             this.currentBucket = 0;
-            this.bucketIterator = Map4.this.hashTable[0].iterator();
+            if (Map4.this.oldTable != null) {
+                this.currentTable = Map4.this.oldTable;
+                this.currentOccupied = Map4.this.oldOccupied;
+            } else {
+                this.currentTable = Map4.this.hashTable;
+                this.currentOccupied = Map4.this.occupied;
+            }
+            this.bucketIterator = this.currentTable[0].iterator();
         }
 
         @Override
@@ -290,8 +1092,18 @@ public class Map4<K, V> extends MapSecondary<K, V> {
             }
             this.numberSeen++;
             while (!this.bucketIterator.hasNext()) {
-                this.currentBucket++;
-                this.bucketIterator = Map4.this.hashTable[this.currentBucket]
+                /*
+                 * Jump straight to the next non-empty bucket, moving on to the
+                 * new buckets once the old ones are used up
+                 */
+                this.currentBucket = nextSetBit(this.currentOccupied,
+                        this.currentBucket + 1);
+                if (this.currentBucket < 0) {
+                    this.currentTable = Map4.this.hashTable;
+                    this.currentOccupied = Map4.this.occupied;
+                    this.currentBucket = nextSetBit(this.currentOccupied, 0);
+                }
+                this.bucketIterator = this.currentTable[this.currentBucket]
                         .iterator();
             }
             return this.bucketIterator.next();
@@ -0,0 +1,535 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import components.map.Map;
+import components.map.Map2;
+import components.map.MapSecondary;
+import components.queue.Queue;
+import components.queue.Queue1L;
+
+/**
+ * {@code Map} represented as a hash table using {@code Map}s for the buckets,
+ * with implementations of primary methods that may be called concurrently from
+ * several threads.
+ * <p>
+ * Buckets are guarded by a fixed set of lock stripes: bucket {@code i} is
+ * guarded by {@code $this.locks[i mod |$this.locks|]}, so threads working on
+ * keys in different stripes never wait for each other. The kernel methods,
+ * {@code replaceValue}, {@code merge}, {@code removeAnyOrNull} and the
+ * iterator are thread-safe; {@code clear}, {@code newInstance} and
+ * {@code transferFrom} are not, and must not run concurrently with any other
+ * method on the same map. The other methods inherited from
+ * {@code MapSecondary}, such as {@code key}, {@code hasValue},
+ * {@code combineWith}, {@code sharesKeyWith} and {@code equals}, are built
+ * from several kernel calls or an iteration, so they are not atomic: updates
+ * by other threads, including {@code merge}, may interleave with them. The
+ * precondition of {@code removeAny} that {@code this} is not empty only holds
+ * if no other thread can remove at the same time, so threads that drain a map
+ * together should use {@code removeAnyOrNull}. The iterator is weakly
+ * consistent: it copies each bucket under its lock just before visiting it,
+ * so it never fails because of concurrent updates, but it may or may not
+ * reflect updates made after it was created.
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * |$this.hashTable| > 0  and  |$this.locks| > 0  and
+ * for all i: integer, pf: PARTIAL_FUNCTION, x: K
+ *     where (0 <= i  and  i < |$this.hashTable|  and
+ *            <pf> = $this.hashTable[i, i+1)  and
+ *            x is in DOMAIN(pf))
+ *   ([computed result of x.hashCode()] mod |$this.hashTable| = i))  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.hashTable|)
+ *   ([entry at position i in $this.hashTable is not null])  and
+ * [when no thread holds a lock of $this.locks]
+ *   $this.size = sum i: integer, pf: PARTIAL_FUNCTION
+ *       where (0 <= i  and  i < |$this.hashTable|  and
+ *              <pf> = $this.hashTable[i, i+1))
+ *     (|pf|)
+ * </pre>
+ * @correspondence <pre>
+ * this = union i: integer, pf: PARTIAL_FUNCTION
+ *            where (0 <= i  and  i < |$this.hashTable|  and
+ *                   <pf> = $this.hashTable[i, i+1))
+ *          (pf)
+ * </pre>
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public class Map4Concurrent<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default size of hash table.
+     */
+    private static final int DEFAULT_HASH_TABLE_SIZE = 1009;
+
+    /**
+     * Default number of lock stripes.
+     */
+    private static final int DEFAULT_STRIPES = 64;
+
+    /**
+     * Buckets for hashing.
+     */
+    private Map<K, V>[] hashTable;
+
+    /**
+     * Lock stripes guarding the buckets.
+     */
+    private Object[] locks;
+
+    /**
+     * Total size of abstract {@code this}.
+     */
+    private AtomicInteger size;
+
+    /**
+     * Counter from which each sweep of {@code removeAnyOrNull} takes the
+     * bucket it starts at, so that successive sweeps start at successive
+     * buckets instead of all at bucket 0.
+     */
+    private AtomicInteger anyHint;
+
+    /**
+     * Computes {@code a} mod {@code b} as % should have been defined to work.
+     *
+     * @param a
+     *            the number being reduced
+     * @param b
+     *            the modulus
+     * @return the result of a mod b, which satisfies 0 <= {@code mod} < b
+     * @requires b > 0
+     * @ensures <pre>
+     * 0 <= mod  and  mod < b  and
+     * there exists k: integer (a = k * b + mod)
+     * </pre>
+     */
+    private static int mod(int a, int b) {
+        assert b > 0 : "Violation of: b > 0";
+        int result = 0;
+        result = a % b;
+        if (a < 0 && result != 0) {
+            result += b;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the bucket for {@code key}.
+     *
+     * @param key
+     *            the key
+     * @return the index of the bucket for {@code key}
+     * @ensures <pre>
+     * bucketIndex = [computed result of key.hashCode()] mod |$this.hashTable|
+     * </pre>
+     */
+    private int bucketIndex(K key) {
+        return mod(key.hashCode(), this.hashTable.length);
+    }
+
+    /**
+     * Returns the lock guarding bucket {@code index}.
+     *
+     * @param index
+     *            the bucket index
+     * @return the lock guarding bucket {@code index}
+     * @requires 0 <= index < |$this.hashTable|
+     * @ensures lockFor = $this.locks[index mod |$this.locks|]
+     */
+    private Object lockFor(int index) {
+        return this.locks[index % this.locks.length];
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param hashTableSize
+     *            the size of the hash table
+     * @param stripes
+     *            the number of lock stripes
+     * @requires hashTableSize > 0  and  stripes > 0
+     * @ensures <pre>
+     * |$this.hashTable| = hashTableSize  and
+     * for all i: integer
+     *     where (0 <= i  and  i < |$this.hashTable|)
+     *   ($this.hashTable[i, i+1) = <{}>)  and
+     * |$this.locks| = min(stripes, hashTableSize)  and
+     * $this.size = 0  and  $this.anyHint = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(int hashTableSize, int stripes) {
+        /*
+         * With "new Map<K, V>[...]" in place of "new Map[...]" it does not
+         * compile; as shown, it results in a warning about an unchecked
+         * conversion, though it cannot fail.
+         */
+        this.size = new AtomicInteger(0);
+        this.anyHint = new AtomicInteger(0);
+        this.hashTable = new Map[hashTableSize];
+        for (int i = 0; i < hashTableSize; i++) {
+            this.hashTable[i] = new Map2<K, V>();
+        }
+        this.locks = new Object[Math.min(stripes, hashTableSize)];
+        for (int i = 0; i < this.locks.length; i++) {
+            this.locks[i] = new Object();
+        }
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map4Concurrent() {
+        this.createNewRep(DEFAULT_HASH_TABLE_SIZE, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor resulting in a hash table of size {@code hashTableSize}
+     * guarded by {@code stripes} locks.
+     *
+     * @param hashTableSize
+     *            size of hash table
+     * @param stripes
+     *            number of lock stripes
+     * @requires hashTableSize > 0  and  stripes > 0
+     * @ensures this = {}
+     */
+    public Map4Concurrent(int hashTableSize, int stripes) {
+        assert hashTableSize > 0 : "Violation of: hashTableSize > 0";
+        assert stripes > 0 : "Violation of: stripes > 0";
+        this.createNewRep(hashTableSize, stripes);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.hashTable.length, this.locks.length);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map4Concurrent<?, ?> : ""
+                + "Violation of: source is of dynamic type Map4Concurrent<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * Map4Concurrent<?,?>, and the ?,? must be K,V or the call would not
+         * have compiled.
+         */
+        Map4Concurrent<K, V> localSource = (Map4Concurrent<K, V>) source;
+        this.hashTable = localSource.hashTable;
+        this.locks = localSource.locks;
+        this.size = localSource.size;
+        this.anyHint = localSource.anyHint;
+        localSource.createNewRep(localSource.hashTable.length,
+                localSource.locks.length);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        int index = this.bucketIndex(key);
+        synchronized (this.lockFor(index)) {
+            Map<K, V> bucket = this.hashTable[index];
+            assert !bucket
+                    .hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+            bucket.add(key, value);
+            this.size.incrementAndGet();
+        }
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int index = this.bucketIndex(key);
+        Pair<K, V> removedPair;
+        synchronized (this.lockFor(index)) {
+            Map<K, V> bucket = this.hashTable[index];
+            assert bucket.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+            removedPair = bucket.remove(key);
+            this.size.decrementAndGet();
+        }
+
+        return removedPair;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Pair<K, V> removedPair = this.removeAnyOrNull();
+        if (removedPair == null) {
+            /*
+             * Other threads emptied this after the size check above; the
+             * caller did not make sure this /= empty_set held throughout.
+             */
+            throw new NoSuchElementException(
+                    "Violation of: this /= empty_set");
+        }
+
+        return removedPair;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int index = this.bucketIndex(key);
+        synchronized (this.lockFor(index)) {
+            Map<K, V> bucket = this.hashTable[index];
+            assert bucket.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+            return bucket.value(key);
+        }
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        int index = this.bucketIndex(key);
+        synchronized (this.lockFor(index)) {
+            return this.hashTable[index].hasKey(key);
+        }
+    }
+
+    @Override
+    public final int size() {
+        return this.size.get();
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map4ConcurrentIterator();
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Atomically associates with {@code key} the result of combining its
+     * current value with {@code value} using {@code remapping}, or just
+     * {@code value} if {@code key} is not in {@code DOMAIN(this)}, and returns
+     * the new associated value. {@code remapping} is called while the bucket's
+     * lock is held, so it should be quick and must not use {@code this}.
+     *
+     * @param key
+     *            the key to add or update
+     * @param value
+     *            the value to add, or to combine with the current value
+     * @param remapping
+     *            the function combining the current value with {@code value}
+     * @return the value associated with {@code key} in {@code this}
+     * @updates this
+     * @requires remapping does not return null
+     * @ensures <pre>
+     * if key is in DOMAIN(#this)
+     *  then merge = [remapping.apply(#this value for key, value)]
+     *  else merge = value  and
+     * this = {(k, v): (K, V) where ((k, v) is in #this  and  k /= key)}
+     *          union {(key, merge)}
+     * </pre>
+     */
+    public final V merge(K key, V value,
+            BiFunction<? super V, ? super V, ? extends V> remapping) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert remapping != null : "Violation of: remapping is not null";
+
+        int index = this.bucketIndex(key);
+        V newValue = value;
+        synchronized (this.lockFor(index)) {
+            Map<K, V> bucket = this.hashTable[index];
+            if (bucket.hasKey(key)) {
+                newValue = remapping.apply(bucket.value(key), value);
+                assert newValue != null : ""
+                        + "Violation of: remapping does not return null";
+                bucket.replaceValue(key, newValue);
+            } else {
+                bucket.add(key, value);
+                this.size.incrementAndGet();
+            }
+        }
+
+        return newValue;
+    }
+
+    /**
+     * Atomically replaces the value associated with {@code key} in
+     * {@code this} by {@code value}, and returns the old value. Unlike the
+     * inherited version, which removes and re-adds the pair, other threads
+     * never see {@code key} missing from {@code this}.
+     *
+     * @param key
+     *            the key whose value is to be replaced
+     * @param value
+     *            the new value
+     * @return the old value associated with {@code key}
+     * @updates this
+     * @requires key is in DOMAIN(this)
+     * @ensures <pre>
+     * this = ((#this \ {(key, replaceValue)}) union {(key, value)})  and
+     * (key, replaceValue) is in #this
+     * </pre>
+     */
+    @Override
+    public final V replaceValue(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        int index = this.bucketIndex(key);
+        synchronized (this.lockFor(index)) {
+            Map<K, V> bucket = this.hashTable[index];
+            assert bucket.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+            return bucket.replaceValue(key, value);
+        }
+    }
+
+    /**
+     * Removes and returns an arbitrary pair from {@code this}, or returns
+     * {@code null} if {@code this} is empty. Safe to call from several threads
+     * at once: each call sweeps the buckets at most once, starting from a
+     * different bucket than the previous call, and returns {@code null} if the
+     * sweep finds them all empty.
+     *
+     * @return the pair removed from {@code this}, or {@code null}
+     * @updates this
+     * @ensures <pre>
+     * if #this = {}
+     *  then removeAnyOrNull = null  and  this = #this
+     *  else removeAnyOrNull is in #this  and
+     *       this = #this \ {removeAnyOrNull}
+     * </pre>
+     */
+    public final Pair<K, V> removeAnyOrNull() {
+        int length = this.hashTable.length;
+        int start = mod(this.anyHint.getAndIncrement(), length);
+        Pair<K, V> removedPair = null;
+        for (int n = 0; n < length && removedPair == null; n++) {
+            int i = (start + n) % length;
+            synchronized (this.lockFor(i)) {
+                if (this.hashTable[i].size() > 0) {
+                    removedPair = this.hashTable[i].removeAny();
+                    this.size.decrementAndGet();
+                }
+            }
+        }
+
+        return removedPair;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code Map4Concurrent}.
+     */
+    private final class Map4ConcurrentIterator
+            implements Iterator<Pair<K, V>> {
+
+        /**
+         * Buckets being iterated over.
+         */
+        private final Map<K, V>[] table;
+
+        /**
+         * Index of the next bucket to copy.
+         */
+        private int nextBucket;
+
+        /**
+         * Copy of the current bucket's pairs not yet returned.
+         */
+        private final Queue<Pair<K, V>> pending;
+
+        /**
+         * No-argument constructor.
+         */
+        Map4ConcurrentIterator() {
+            this.table = Map4Concurrent.this.hashTable;
+            this.nextBucket = 0;
+            this.pending = new Queue1L<Pair<K, V>>();
+        }
+
+        /**
+         * Copies buckets, one at a time and each under its lock, until there is
+         * a pending pair or no buckets are left.
+         */
+        private void fill() {
+            while (this.pending.length() == 0
+                    && this.nextBucket < this.table.length) {
+                synchronized (Map4Concurrent.this.lockFor(this.nextBucket)) {
+                    for (Pair<K, V> p : this.table[this.nextBucket]) {
+                        this.pending.enqueue(p);
+                    }
+                }
+                this.nextBucket++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            this.fill();
+            return this.pending.length() > 0;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            return this.pending.dequeue();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,478 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented as an open-addressing hash table (linear probing)
+ * stored in parallel arrays of keys, values and cached hash codes, with
+ * implementations of primary methods.
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @mathdefinitions <pre>
+ * PROBE_SEQUENCE (
+ *   h: integer,
+ *   n: integer
+ *  ) : string of integer is
+ *  <SPREAD(h) mod n, (SPREAD(h) + 1) mod n, ..., (SPREAD(h) + n - 1) mod n>
+ * </pre>
+ * @convention <pre>
+ * |$this.keys| = |$this.values| = |$this.hashes|  and
+ * [|$this.keys| is a power of 2]  and
+ * $this.size + $this.tombstones < |$this.keys|  and
+ * $this.size = [number of slots i with $this.keys[i] not null and
+ *               not TOMBSTONE]  and
+ * $this.tombstones = [number of slots i with $this.keys[i] = TOMBSTONE]  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.keys|  and
+ *            $this.keys[i] is not null and not TOMBSTONE)
+ *   ($this.values[i] is not null  and
+ *    $this.hashes[i] = [computed result of $this.keys[i].hashCode()]  and
+ *    [no slot before i in PROBE_SEQUENCE($this.hashes[i], |$this.keys|)
+ *     has a null key]  and
+ *    [no other slot holds a key equal to $this.keys[i]])
+ * </pre>
+ * @correspondence <pre>
+ * this = {(key, value): (K, V) where (there exists i: integer
+ *           (0 <= i  and  i < |$this.keys|  and
+ *            $this.keys[i] = key  and  $this.values[i] = value))}
+ * </pre>
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public class Map4Flat<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default capacity of the table.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Marker stored in {@code keys} in place of a removed key, so that probe
+     * sequences passing through the slot are not cut short.
+     */
+    private static final Object TOMBSTONE = new Object();
+
+    /**
+     * Keys, {@code null} for a never-used slot or {@code TOMBSTONE} for a
+     * slot whose entry has been removed.
+     */
+    private Object[] keys;
+
+    /**
+     * Values, parallel to {@code keys}.
+     */
+    private Object[] values;
+
+    /**
+     * Cached hash codes of the keys, parallel to {@code keys}.
+     */
+    private int[] hashes;
+
+    /**
+     * Total size of abstract {@code this}.
+     */
+    private int size;
+
+    /**
+     * Number of slots holding {@code TOMBSTONE}.
+     */
+    private int tombstones;
+
+    /**
+     * Slot where the last call to {@code removeAny} found an entry; the next
+     * call starts looking there.
+     */
+    private int anyHint;
+
+    /**
+     * Spreads the high bits of {@code h} into the low bits used for indexing.
+     *
+     * @param h
+     *            the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int h) {
+        return h ^ (h >>> (Integer.SIZE / 2));
+    }
+
+    /**
+     * Returns the smallest power of 2 that is at least {@code n}.
+     *
+     * @param n
+     *            the lower bound
+     * @return the smallest power of 2 >= n
+     * @requires 0 < n <= 2^30
+     * @ensures powerOfTwoAtLeast >= n  and  [powerOfTwoAtLeast is a power of 2]
+     */
+    private static int powerOfTwoAtLeast(int n) {
+        assert n > 0 : "Violation of: n > 0";
+        int result = 1;
+        while (result < n) {
+            result *= 2;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or -1 if there is none.
+     *
+     * @param key
+     *            the key to look for
+     * @param hash
+     *            the hash code of {@code key}
+     * @return the slot holding {@code key}, or -1
+     * @requires hash = [computed result of key.hashCode()]
+     * @ensures <pre>
+     * if key is in DOMAIN(this)
+     *  then $this.keys[find] = key
+     *  else find = -1
+     * </pre>
+     */
+    private int find(K key, int hash) {
+        int mask = this.keys.length - 1;
+        int i = spread(hash) & mask;
+        int found = -1;
+        while (found < 0 && this.keys[i] != null) {
+            if (this.keys[i] != TOMBSTONE && this.hashes[i] == hash
+                    && key.equals(this.keys[i])) {
+                found = i;
+            }
+            i = (i + 1) & mask;
+        }
+        return found;
+    }
+
+    /**
+     * Puts {@code (key, value)} in the first free slot of its probe sequence,
+     * reusing a tombstone if one comes first.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value
+     * @param hash
+     *            the hash code of {@code key}
+     * @updates this
+     * @requires <pre>
+     * key is not in DOMAIN(this)  and
+     * hash = [computed result of key.hashCode()]  and
+     * $this.size + $this.tombstones + 1 < |$this.keys|
+     * </pre>
+     * @ensures this = #this union {(key, value)}
+     */
+    private void insert(K key, V value, int hash) {
+        int mask = this.keys.length - 1;
+        int i = spread(hash) & mask;
+        while (this.keys[i] != null && this.keys[i] != TOMBSTONE) {
+            i = (i + 1) & mask;
+        }
+        if (this.keys[i] == TOMBSTONE) {
+            this.tombstones--;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        this.hashes[i] = hash;
+        this.size++;
+    }
+
+    /**
+     * Empties slot {@code i}. If the next slot is never-used the slot (and any
+     * tombstones just before it) become never-used too; otherwise it becomes a
+     * tombstone.
+     *
+     * @param i
+     *            the slot to empty
+     * @updates this
+     * @requires $this.keys[i] is not null and not TOMBSTONE
+     * @ensures this = #this \ {(#$this.keys[i], #$this.values[i])}
+     */
+    private void clearSlot(int i) {
+        int mask = this.keys.length - 1;
+        this.values[i] = null;
+        this.size--;
+        if (this.keys[(i + 1) & mask] == null) {
+            this.keys[i] = null;
+            int j = (i - 1) & mask;
+            while (this.keys[j] == TOMBSTONE) {
+                this.keys[j] = null;
+                this.tombstones--;
+                j = (j - 1) & mask;
+            }
+        } else {
+            this.keys[i] = TOMBSTONE;
+            this.tombstones++;
+        }
+    }
+
+    /**
+     * Moves all entries into fresh arrays of {@code capacity} slots, dropping
+     * all tombstones.
+     *
+     * @param capacity
+     *            the new capacity
+     * @updates this
+     * @requires [capacity is a power of 2]  and  $this.size < capacity
+     * @ensures this = #this  and  |$this.keys| = capacity  and
+     *          $this.tombstones = 0
+     */
+    @SuppressWarnings("unchecked")
+    private void rehash(int capacity) {
+        Object[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        int[] oldHashes = this.hashes;
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.hashes = new int[capacity];
+        this.size = 0;
+        this.tombstones = 0;
+        this.anyHint = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null && oldKeys[i] != TOMBSTONE) {
+                this.insert((K) oldKeys[i], (V) oldValues[i], oldHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param capacity
+     *            the number of slots
+     * @requires [capacity is a power of 2]  and  capacity > 1
+     * @ensures <pre>
+     * |$this.keys| = capacity  and
+     * [all slots are never-used]  and
+     * $this.size = 0  and  $this.tombstones = 0
+     * </pre>
+     */
+    private void createNewRep(int capacity) {
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.hashes = new int[capacity];
+        this.size = 0;
+        this.tombstones = 0;
+        this.anyHint = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Map4Flat() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor resulting in a table that can hold about
+     * {@code expectedSize} entries before it has to grow.
+     *
+     * @param expectedSize
+     *            expected number of entries
+     * @requires 0 < expectedSize <= 2^28
+     * @ensures this = {}
+     */
+    public Map4Flat(int expectedSize) {
+        assert expectedSize > 0 : "Violation of: expectedSize > 0";
+        this.createNewRep(powerOfTwoAtLeast(2 * expectedSize + 2));
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Map4Flat<?, ?> : ""
+                + "Violation of: source is of dynamic type Map4Flat<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * Map4Flat<?,?>, and the ?,? must be K,V or the call would not have
+         * compiled.
+         */
+        Map4Flat<K, V> localSource = (Map4Flat<K, V>) source;
+        this.keys = localSource.keys;
+        this.values = localSource.values;
+        this.hashes = localSource.hashes;
+        this.size = localSource.size;
+        this.tombstones = localSource.tombstones;
+        this.anyHint = localSource.anyHint;
+        localSource.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        if (2 * (this.size + this.tombstones + 1) > this.keys.length) {
+            /*
+             * Grow only if live entries alone are filling the table; if it is
+             * tombstones, rehashing at the same capacity clears them out.
+             */
+            int capacity = this.keys.length;
+            if (2 * (this.size + 1) > capacity / 2) {
+                capacity *= 2;
+            }
+            this.rehash(capacity);
+        }
+        this.insert(key, value, key.hashCode());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        int i = this.find(key, key.hashCode());
+        Pair<K, V> removedPair = new SimplePair<K, V>((K) this.keys[i],
+                (V) this.values[i]);
+        this.clearSlot(i);
+
+        return removedPair;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        int mask = this.keys.length - 1;
+        int i = this.anyHint & mask;
+        while (this.keys[i] == null || this.keys[i] == TOMBSTONE) {
+            i = (i + 1) & mask;
+        }
+        this.anyHint = i;
+        Pair<K, V> removedPair = new SimplePair<K, V>((K) this.keys[i],
+                (V) this.values[i]);
+        this.clearSlot(i);
+
+        return removedPair;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        return (V) this.values[this.find(key, key.hashCode())];
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.find(key, key.hashCode()) >= 0;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        return new Map4FlatIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Map4Flat}.
+     */
+    private final class Map4FlatIterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * Slot at which to start looking for the next element.
+         */
+        private int currentSlot;
+
+        /**
+         * No-argument constructor.
+         */
+        Map4FlatIterator() {
+            this.numberSeen = 0;
+            this.currentSlot = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Map4Flat.this.size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            this.numberSeen++;
+            Object[] keys = Map4Flat.this.keys;
+            while (keys[this.currentSlot] == null
+                    || keys[this.currentSlot] == TOMBSTONE) {
+                this.currentSlot++;
+            }
+            Pair<K, V> next = new SimplePair<K, V>(
+                    (K) keys[this.currentSlot],
+                    (V) Map4Flat.this.values[this.currentSlot]);
+            this.currentSlot++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,233 @@
+import components.map.Map;
+import components.queue.Queue;
+import components.queue.Queue1L;
+import components.set.Set;
+import components.set.Set1L;
+import components.simplereader.SimpleReader;
+import components.simplereader.SimpleReader1L;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the prime-modulus and power-of-two modes of {@code Map4} on the key
+ * sets in {@code HashingExperiments/data}, reporting the time per operation
+ * of adding every distinct line as a key, of looking every key up, and of
+ * removing every key again.
+ *
+ * <p>
+ * Timings are taken with {@code System.nanoTime} after a number of warm-up
+ * rounds that let the JIT compiler settle, and the fastest measured round is
+ * reported. The optional command-line argument is the directory holding the
+ * data files (default {@code ../HashingExperiments/data}).
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public final class Map4IndexingBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Map4IndexingBenchmark() {
+    }
+
+    /**
+     * Names of the data files benchmarked.
+     */
+    private static final String[] DATA_FILES = { "length8.txt", "mod30.txt",
+            "random.txt", "startend.txt" };
+
+    /**
+     * Number of untimed rounds run before the timed ones.
+     */
+    private static final int WARM_UP_ROUNDS = 50;
+
+    /**
+     * Number of timed rounds, of which the fastest is reported.
+     */
+    private static final int MEASURED_ROUNDS = 50;
+
+    /**
+     * Load factor used by every variant.
+     */
+    private static final double LOAD_FACTOR = 0.75;
+
+    /**
+     * Prime table size used by the {@code Map4Test1009} tests.
+     */
+    private static final int PRIME_SIZE = 1009;
+
+    /**
+     * Power-of-two table size closest to {@code PRIME_SIZE}.
+     */
+    private static final int POWER_OF_TWO_SIZE = 1024;
+
+    /**
+     * Small initial table size for the variants that have to grow.
+     */
+    private static final int SMALL_SIZE = 16;
+
+    /**
+     * Variants of {@code Map4} benchmarked.
+     */
+    enum Variant {
+
+        /**
+         * Prime-modulus mode, presized as in {@code Map4Test1009}.
+         */
+        PRIME_1009 {
+            @Override
+            Map<String, String> create() {
+                return new Map4<String, String>(PRIME_SIZE, LOAD_FACTOR);
+            }
+        },
+
+        /**
+         * Power-of-two mode, presized to a similar number of buckets.
+         */
+        POWER_OF_TWO_1024 {
+            @Override
+            Map<String, String> create() {
+                return new Map4<String, String>(POWER_OF_TWO_SIZE, LOAD_FACTOR,
+                        HashFunctions.IDENTITY, true);
+            }
+        },
+
+        /**
+         * Prime-modulus mode, growing from a small table.
+         */
+        PRIME_GROWING {
+            @Override
+            Map<String, String> create() {
+                return new Map4<String, String>(SMALL_SIZE + 1, LOAD_FACTOR);
+            }
+        },
+
+        /**
+         * Power-of-two mode, growing from a small table.
+         */
+        POWER_OF_TWO_GROWING {
+            @Override
+            Map<String, String> create() {
+                return new Map4<String, String>(SMALL_SIZE, LOAD_FACTOR,
+                        HashFunctions.IDENTITY, true);
+            }
+        };
+
+        /**
+         * Returns a new, empty map of this variant.
+         *
+         * @return the new map
+         */
+        abstract Map<String, String> create();
+
+    }
+
+    /**
+     * Reads the distinct lines of the file named {@code fileName}.
+     *
+     * @param fileName
+     *            the name of the file
+     * @return the distinct lines of the file, in order of first occurrence
+     */
+    private static String[] distinctLines(String fileName) {
+        Set<String> counted = new Set1L<String>();
+        Queue<String> order = new Queue1L<String>();
+        SimpleReader textFile = new SimpleReader1L(fileName);
+        while (!textFile.atEOS()) {
+            String line = textFile.nextLine();
+            if (!counted.contains(line)) {
+                counted.add(line);
+                order.enqueue(line);
+            }
+        }
+        textFile.close();
+        String[] lines = new String[order.length()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = order.dequeue();
+        }
+        return lines;
+    }
+
+    /**
+     * Benchmarks one variant on one key set, and reports the results as one
+     * row of {@code out}.
+     *
+     * @param out
+     *            the output stream
+     * @param dataName
+     *            the name of the data file, for reporting
+     * @param keys
+     *            the distinct keys
+     * @param variant
+     *            the variant of {@code Map4}
+     * @updates out.content
+     * @requires out.is_open
+     */
+    private static void benchmark(SimpleWriter out, String dataName,
+            String[] keys, Variant variant) {
+        long bestAdd = Long.MAX_VALUE;
+        long bestLookUp = Long.MAX_VALUE;
+        long bestRemove = Long.MAX_VALUE;
+        int found = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            Map<String, String> m = variant.create();
+            long start = System.nanoTime();
+            for (String key : keys) {
+                m.add(key, key);
+            }
+            long added = System.nanoTime();
+            found = 0;
+            for (String key : keys) {
+                if (m.hasKey(key)) {
+                    found++;
+                }
+            }
+            long lookedUp = System.nanoTime();
+            for (String key : keys) {
+                m.remove(key);
+            }
+            long removed = System.nanoTime();
+            if (round >= WARM_UP_ROUNDS) {
+                bestAdd = Math.min(bestAdd, added - start);
+                bestLookUp = Math.min(bestLookUp, lookedUp - added);
+                bestRemove = Math.min(bestRemove, removed - lookedUp);
+            }
+        }
+        assert found == keys.length : "Violation of: every key is found";
+
+        out.println(String.format("%-14s%-22s%10.1f%10.1f%10.1f", dataName,
+                variant, (double) bestAdd / keys.length,
+                (double) bestLookUp / keys.length,
+                (double) bestRemove / keys.length));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments; the optional first one is the
+     *            directory holding the data files
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        String dataDirectory = "../HashingExperiments/data";
+        if (args.length > 0) {
+            dataDirectory = args[0];
+        }
+
+        out.println(String.format("%-14s%-22s%10s%10s%10s", "data", "variant",
+                "add", "hasKey", "remove"));
+        out.println(String.format("%-14s%-22s%10s%10s%10s", "", "", "(ns/op)",
+                "(ns/op)", "(ns/op)"));
+        for (String dataFile : DATA_FILES) {
+            String[] keys = distinctLines(dataDirectory + "/" + dataFile);
+            for (Variant variant : Variant.values()) {
+                benchmark(out, dataFile, keys, variant);
+            }
+        }
+        out.close();
+    }
+
+}
@@ -0,0 +1,406 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import components.map.Map;
+import components.map.Map.Pair;
+
+/**
+ * Read-only map from {@code String} keys to {@code String} values served
+ * directly from a memory-mapped snapshot file, together with the method that
+ * writes such a snapshot from a {@code Map<String, String>} (typically a
+ * {@code Map4}).
+ * <p>
+ * Opening a snapshot only maps the file, so it costs the same for ten entries
+ * as for ten million; {@code hasKey} and {@code value} hash the key, look its
+ * bucket up in the bucket directory, and compare the key against the packed
+ * entries of that bucket in place, decoding only the value returned.
+ * <p>
+ * A snapshot file consists of:
+ * <ul>
+ * <li>a header: the magic number, the format version, the number of entries
+ * and the number of buckets (a power of 2), as {@code int}s;</li>
+ * <li>the bucket directory: for each bucket, the offset of its first entry,
+ * followed by the offset of the end of the last bucket, as {@code int}s;</li>
+ * <li>the entries, grouped by bucket: the key's {@code hashCode}, the lengths
+ * of the UTF-8 encodings of the key and the value, as {@code int}s, and then
+ * those encodings.</li>
+ * </ul>
+ * All {@code int}s are big-endian, and a snapshot must be smaller than 2 GiB.
+ *
+ * @convention <pre>
+ * [$this.buffer holds a snapshot file as described above]  and
+ * $this.size = [number of entries of the snapshot]  and
+ * $this.bucketMask = [number of buckets of the snapshot] - 1
+ * </pre>
+ * @correspondence <pre>
+ * this = [the (key, value) pairs encoded by the entries of $this.buffer]
+ * </pre>
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public final class Map4Snapshot {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Magic number at the start of every snapshot file.
+     */
+    private static final int MAGIC = 0x4D345350;
+
+    /**
+     * Version of the snapshot file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Number of {@code int}s in the header.
+     */
+    private static final int HEADER_INTS = 4;
+
+    /**
+     * Number of {@code int}s at the start of every entry.
+     */
+    private static final int ENTRY_HEADER_INTS = 3;
+
+    /**
+     * Largest number of buckets, the largest power of 2 that is an
+     * {@code int}.
+     */
+    private static final int MAX_BUCKETS = 1 << 30;
+
+    /**
+     * Shift that folds the high half of a hash code into its low half.
+     */
+    private static final int SPREAD_SHIFT = 16;
+
+    /**
+     * The mapped snapshot file.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Number of entries in the snapshot.
+     */
+    private final int size;
+
+    /**
+     * Number of buckets in the snapshot, minus 1.
+     */
+    private final int bucketMask;
+
+    /**
+     * Returns the bucket of a key with hash code {@code hash} in a snapshot
+     * with {@code bucketMask + 1} buckets.
+     *
+     * @param hash
+     *            the hash code of the key
+     * @param bucketMask
+     *            the number of buckets minus 1
+     * @return the bucket of the key
+     * @requires [bucketMask + 1 is a power of 2]
+     * @ensures 0 <= bucketFor <= bucketMask
+     */
+    private static int bucketFor(int hash, int bucketMask) {
+        return (hash ^ (hash >>> SPREAD_SHIFT)) & bucketMask;
+    }
+
+    /**
+     * Constructor from an already-mapped snapshot file.
+     *
+     * @param buffer
+     *            the mapped snapshot file
+     * @requires [buffer holds a valid snapshot file]
+     */
+    private Map4Snapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.getInt(2 * Integer.BYTES);
+        this.bucketMask = buffer.getInt((HEADER_INTS - 1) * Integer.BYTES) - 1;
+    }
+
+    /**
+     * Returns the position in {@code $this.buffer} of the entry with key
+     * {@code key}, or -1 if there is none.
+     *
+     * @param key
+     *            the key to look for
+     * @return the position of the entry for {@code key}, or -1
+     * @ensures <pre>
+     * if key is in DOMAIN(this)
+     *  then [entryFor is the position of the entry for key]
+     *  else entryFor = -1
+     * </pre>
+     */
+    private int entryFor(String key) {
+        int hash = key.hashCode();
+        int bucket = bucketFor(hash, this.bucketMask);
+        int directory = HEADER_INTS * Integer.BYTES;
+        int position = this.buffer.getInt(directory + bucket * Integer.BYTES);
+        int end = this.buffer.getInt(directory + (bucket + 1) * Integer.BYTES);
+        byte[] keyBytes = null;
+        int found = -1;
+        while (found < 0 && position < end) {
+            int keyLength = this.buffer.getInt(position + Integer.BYTES);
+            int valueLength = this.buffer.getInt(position + 2 * Integer.BYTES);
+            if (this.buffer.getInt(position) == hash) {
+                if (keyBytes == null) {
+                    keyBytes = key.getBytes(StandardCharsets.UTF_8);
+                }
+                if (this.keyMatches(position, keyLength, keyBytes)) {
+                    found = position;
+                }
+            }
+            position += ENTRY_HEADER_INTS * Integer.BYTES + keyLength
+                    + valueLength;
+        }
+        return found;
+    }
+
+    /**
+     * Reports whether the key of the entry at {@code position}, whose encoding
+     * is {@code keyLength} bytes long, is encoded as {@code keyBytes}.
+     *
+     * @param position
+     *            the position of the entry
+     * @param keyLength
+     *            the length of the encoding of the entry's key
+     * @param keyBytes
+     *            the encoding of the key to compare against
+     * @return true iff the entry's key is encoded as {@code keyBytes}
+     */
+    private boolean keyMatches(int position, int keyLength, byte[] keyBytes) {
+        boolean matches = keyLength == keyBytes.length;
+        int start = position + ENTRY_HEADER_INTS * Integer.BYTES;
+        for (int i = 0; matches && i < keyLength; i++) {
+            matches = this.buffer.get(start + i) == keyBytes[i];
+        }
+        return matches;
+    }
+
+    /*
+     * Public methods ---------------------------------------------------------
+     */
+
+    /**
+     * Writes a snapshot of {@code map} to the file named {@code fileName},
+     * replacing any existing file of that name. The snapshot is written to a
+     * temporary file in the same directory, which is then renamed to
+     * {@code fileName}, so if writing fails any existing file is left as it
+     * was.
+     *
+     * @param map
+     *            the map to write
+     * @param fileName
+     *            the name of the snapshot file
+     * @throws IOException
+     *             if the file cannot be written
+     * @ensures [the file named fileName holds a snapshot of map]
+     */
+    public static void write(Map<String, String> map, String fileName)
+            throws IOException {
+        assert map != null : "Violation of: map is not null";
+        assert fileName != null : "Violation of: fileName is not null";
+
+        int size = map.size();
+        if (size > MAX_BUCKETS) {
+            /*
+             * Each entry takes at least 12 bytes, so such a snapshot could not
+             * be smaller than 2 GiB anyway; checking here also keeps the
+             * number of buckets from overflowing.
+             */
+            throw new IOException("Snapshot would exceed 2 GiB");
+        }
+        int buckets = 1;
+        if (size > 1) {
+            buckets = Integer.highestOneBit(size - 1) << 1;
+        }
+        /*
+         * Encode the entries, then order them by bucket with a counting sort.
+         */
+        int[] hashes = new int[size];
+        byte[][] keys = new byte[size][];
+        byte[][] values = new byte[size][];
+        int[] bucketStart = new int[buckets + 1];
+        int n = 0;
+        for (Pair<String, String> p : map) {
+            hashes[n] = p.key().hashCode();
+            keys[n] = p.key().getBytes(StandardCharsets.UTF_8);
+            values[n] = p.value().getBytes(StandardCharsets.UTF_8);
+            bucketStart[bucketFor(hashes[n], buckets - 1) + 1]++;
+            n++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        int[] order = new int[size];
+        int[] next = bucketStart.clone();
+        for (int i = 0; i < size; i++) {
+            order[next[bucketFor(hashes[i], buckets - 1)]++] = i;
+        }
+        /*
+         * Write the header, the bucket directory, and the entries.
+         */
+        Path target = Paths.get(fileName).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(),
+                target.getFileName().toString(), ".tmp");
+        boolean written = false;
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(size);
+                out.writeInt(buckets);
+                long offset = (long) (HEADER_INTS + buckets + 1)
+                        * Integer.BYTES;
+                int i = 0;
+                for (int b = 0; b <= buckets; b++) {
+                    while (i < bucketStart[b]) {
+                        int e = order[i];
+                        offset += ENTRY_HEADER_INTS * Integer.BYTES
+                                + keys[e].length + values[e].length;
+                        i++;
+                    }
+                    if (offset > Integer.MAX_VALUE) {
+                        throw new IOException("Snapshot would exceed 2 GiB");
+                    }
+                    out.writeInt((int) offset);
+                }
+                for (int e : order) {
+                    out.writeInt(hashes[e]);
+                    out.writeInt(keys[e].length);
+                    out.writeInt(values[e].length);
+                    out.write(keys[e]);
+                    out.write(values[e]);
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            written = true;
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Opens the snapshot file named {@code fileName}, mapping it into memory
+     * read-only.
+     *
+     * @param fileName
+     *            the name of the snapshot file
+     * @return the map held by the snapshot
+     * @throws IOException
+     *             if the file cannot be read or is not a snapshot
+     * @ensures open = [the map held by the file named fileName]
+     */
+    public static Map4Snapshot open(String fileName) throws IOException {
+        assert fileName != null : "Violation of: fileName is not null";
+
+        ByteBuffer buffer;
+        /*
+         * The mapping stays valid after the channel is closed.
+         */
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        }
+        if (buffer.capacity() < HEADER_INTS * Integer.BYTES
+                || buffer.getInt(0) != MAGIC
+                || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException(fileName + " is not a Map4 snapshot");
+        }
+        /*
+         * Check that the directory fits in the file and that it ends where the
+         * file does, so that a truncated or corrupt file is reported here
+         * rather than by a lookup reading past the end of the buffer.
+         */
+        int size = buffer.getInt(2 * Integer.BYTES);
+        int buckets = buffer.getInt((HEADER_INTS - 1) * Integer.BYTES);
+        long directoryEnd = (HEADER_INTS + (long) buckets + 1) * Integer.BYTES;
+        if (size < 0 || buckets <= 0 || (buckets & (buckets - 1)) != 0
+                || directoryEnd > buffer.capacity()) {
+            throw new IOException(fileName + " has a corrupt header");
+        }
+        int directory = HEADER_INTS * Integer.BYTES;
+        int firstOffset = buffer.getInt(directory);
+        int lastOffset = buffer.getInt(directory + buckets * Integer.BYTES);
+        if (firstOffset != directoryEnd || lastOffset != buffer.capacity()) {
+            throw new IOException(fileName + " is truncated or corrupt");
+        }
+        return new Map4Snapshot(buffer);
+    }
+
+    /**
+     * Reports whether there is a pair in {@code this} whose first component is
+     * {@code key}.
+     *
+     * @param key
+     *            the key to be checked
+     * @return true iff there is a pair in this whose first component is key
+     * @ensures hasKey = (key is in DOMAIN(this))
+     */
+    public boolean hasKey(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        return this.entryFor(key) >= 0;
+    }
+
+    /**
+     * Reports the value associated with {@code key} in {@code this}.
+     *
+     * @param key
+     *            the key whose associated value is to be reported
+     * @return the value associated with key
+     * @requires key is in DOMAIN(this)
+     * @ensures (key, value) is in this
+     */
+    public String value(String key) {
+        assert key != null : "Violation of: key is not null";
+
+        int position = this.entryFor(key);
+        assert position >= 0 : "Violation of: key is in DOMAIN(this)";
+
+        int keyLength = this.buffer.getInt(position + Integer.BYTES);
+        int valueLength = this.buffer.getInt(position + 2 * Integer.BYTES);
+        byte[] valueBytes = new byte[valueLength];
+        /*
+         * A duplicate has its own position, so this.buffer is not changed.
+         */
+        ByteBuffer view = this.buffer.duplicate();
+        view.position(
+                position + ENTRY_HEADER_INTS * Integer.BYTES + keyLength);
+        view.get(valueBytes);
+        return new String(valueBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reports the size (cardinality) of {@code this}.
+     *
+     * @return the number of pairs in this
+     * @ensures size = |this|
+     */
+    public int size() {
+        return this.size;
+    }
+
+}
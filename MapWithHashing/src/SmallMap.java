@@ -0,0 +1,486 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.map.Map;
+import components.map.MapSecondary;
+
+/**
+ * {@code Map} represented, while it is small, as parallel arrays of keys and
+ * values searched linearly, and as a {@code Map4Flat} once it outgrows
+ * {@code INLINE_CAPACITY} entries, with implementations of primary methods.
+ * <p>
+ * Meant for the buckets of {@code Map4}, which almost always hold a handful of
+ * entries: an empty {@code SmallMap} is a single object with no arrays, and a
+ * small one stores its keys and values inline instead of in a queue of
+ * separately allocated pairs, so a lookup scans one array. The map goes back
+ * to the arrays when removals shrink it to half of {@code INLINE_CAPACITY}.
+ *
+ * @param <K>
+ *            type of {@code Map} domain (key) entries
+ * @param <V>
+ *            type of {@code Map} range (associated value) entries
+ * @convention <pre>
+ * if $this.large /= null then
+ *   $this.keys = null  and  $this.values = null  and  $this.size = 0  and
+ *   |$this.large| > INLINE_CAPACITY / 2
+ * else
+ *   0 <= $this.size <= INLINE_CAPACITY  and
+ *   ($this.keys = null  iff  $this.values = null)  and
+ *   ($this.keys = null  implies  $this.size = 0)  and
+ *   ($this.keys /= null  implies
+ *      $this.size <= |$this.keys| = |$this.values| <= INLINE_CAPACITY)  and
+ *   for all i: integer where (0 <= i < $this.size)
+ *     ($this.keys[i] /= null  and  $this.values[i] /= null  and
+ *      [no other j in [0, $this.size) has $this.keys[j] = $this.keys[i]])
+ * </pre>
+ * @correspondence <pre>
+ * if $this.large /= null
+ *  then this = $this.large
+ *  else this = {(key, value): (K, V) where (there exists i: integer
+ *                 (0 <= i < $this.size  and
+ *                  $this.keys[i] = key  and  $this.values[i] = value))}
+ * </pre>
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public class SmallMap<K, V> extends MapSecondary<K, V> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Largest number of entries stored in the arrays.
+     */
+    private static final int INLINE_CAPACITY = 8;
+
+    /**
+     * Length of the arrays when they are first allocated.
+     */
+    private static final int INITIAL_LENGTH = 2;
+
+    /**
+     * Keys of a small map, or {@code null} if none has been added yet or the
+     * map is large.
+     */
+    private K[] keys;
+
+    /**
+     * Values of a small map, parallel to {@code keys}.
+     */
+    private V[] values;
+
+    /**
+     * Number of entries in the arrays.
+     */
+    private int size;
+
+    /**
+     * The entries of a large map, or {@code null} if the map is small.
+     */
+    private Map<K, V> large;
+
+    /**
+     * Returns the index in {@code $this.keys} of {@code key}, or -1 if it is
+     * not there.
+     *
+     * @param key
+     *            the key to look for
+     * @return the index of {@code key}, or -1
+     * @requires $this.large = null
+     * @ensures <pre>
+     * if there exists i: integer (0 <= i < $this.size  and
+     *                             $this.keys[i] = key)
+     *  then $this.keys[indexOf] = key
+     *  else indexOf = -1
+     * </pre>
+     */
+    private int indexOf(K key) {
+        int i = this.size - 1;
+        while (i >= 0 && !this.keys[i].equals(key)) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Resizes the arrays to {@code length}, keeping their entries.
+     *
+     * @param length
+     *            the new length of the arrays
+     * @updates $this.keys, $this.values
+     * @requires $this.size <= length
+     * @ensures this = #this  and  |$this.keys| = length
+     */
+    @SuppressWarnings("unchecked")
+    private void resizeArrays(int length) {
+        /*
+         * With "new K[...]" in place of "(K[]) new Object[...]" it does not
+         * compile; as shown, it results in a warning about an unchecked
+         * conversion, though it cannot fail since the arrays never leave this
+         * object.
+         */
+        K[] newKeys = (K[]) new Object[length];
+        V[] newValues = (V[]) new Object[length];
+        if (this.keys != null) {
+            System.arraycopy(this.keys, 0, newKeys, 0, this.size);
+            System.arraycopy(this.values, 0, newValues, 0, this.size);
+        }
+        this.keys = newKeys;
+        this.values = newValues;
+    }
+
+    /**
+     * Moves the entries from the arrays into a new {@code Map4Flat}.
+     *
+     * @updates this
+     * @requires $this.large = null
+     * @ensures this = #this  and  $this.large /= null
+     */
+    private void promote() {
+        this.large = new Map4Flat<K, V>(2 * INLINE_CAPACITY);
+        for (int i = 0; i < this.size; i++) {
+            this.large.add(this.keys[i], this.values[i]);
+        }
+        this.keys = null;
+        this.values = null;
+        this.size = 0;
+    }
+
+    /**
+     * Moves the entries of the {@code Map4Flat} back into the arrays.
+     *
+     * @updates this
+     * @requires $this.large /= null  and  |$this.large| <= INLINE_CAPACITY
+     * @ensures this = #this  and  $this.large = null
+     */
+    private void demote() {
+        this.resizeArrays(INLINE_CAPACITY);
+        while (this.large.size() > 0) {
+            Pair<K, V> p = this.large.removeAny();
+            this.keys[this.size] = p.key();
+            this.values[this.size] = p.value();
+            this.size++;
+        }
+        this.large = null;
+    }
+
+    /**
+     * Removes the entry at index {@code i} of the arrays, moving the last
+     * entry into its place.
+     *
+     * @param i
+     *            the index of the entry to remove
+     * @return the removed entry
+     * @updates this
+     * @requires $this.large = null  and  0 <= i < $this.size
+     * @ensures <pre>
+     * removeAt = (#$this.keys[i], #$this.values[i])  and
+     * this = #this \ {removeAt}
+     * </pre>
+     */
+    private Pair<K, V> removeAt(int i) {
+        Pair<K, V> removed = new SimplePair<K, V>(this.keys[i], this.values[i]);
+        this.size--;
+        this.keys[i] = this.keys[this.size];
+        this.values[i] = this.values[this.size];
+        this.keys[this.size] = null;
+        this.values[this.size] = null;
+        return removed;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.keys = null;
+        this.values = null;
+        this.size = 0;
+        this.large = null;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public SmallMap() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Map<K, V> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Map<K, V> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SmallMap<?, ?> : ""
+                + "Violation of: source is of dynamic type SmallMap<?,?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SmallMap<?,?>, and the ?,? must be K,V or the call would not have
+         * compiled.
+         */
+        SmallMap<K, V> localSource = (SmallMap<K, V>) source;
+        this.keys = localSource.keys;
+        this.values = localSource.values;
+        this.size = localSource.size;
+        this.large = localSource.large;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+        assert !this.hasKey(key) : "Violation of: key is not in DOMAIN(this)";
+
+        if (this.large == null && this.size == INLINE_CAPACITY) {
+            this.promote();
+        }
+        if (this.large != null) {
+            this.large.add(key, value);
+        } else {
+            if (this.keys == null) {
+                this.resizeArrays(INITIAL_LENGTH);
+            } else if (this.size == this.keys.length) {
+                this.resizeArrays(
+                        Math.min(2 * this.keys.length, INLINE_CAPACITY));
+            }
+            this.keys[this.size] = key;
+            this.values[this.size] = value;
+            this.size++;
+        }
+    }
+
+    @Override
+    public final Pair<K, V> remove(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        Pair<K, V> removed;
+        if (this.large != null) {
+            removed = this.large.remove(key);
+            if (this.large.size() <= INLINE_CAPACITY / 2) {
+                this.demote();
+            }
+        } else {
+            removed = this.removeAt(this.indexOf(key));
+        }
+        return removed;
+    }
+
+    @Override
+    public final Pair<K, V> removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Pair<K, V> removed;
+        if (this.large != null) {
+            removed = this.large.removeAny();
+            if (this.large.size() <= INLINE_CAPACITY / 2) {
+                this.demote();
+            }
+        } else {
+            removed = this.removeAt(this.size - 1);
+        }
+        return removed;
+    }
+
+    @Override
+    public final V value(K key) {
+        assert key != null : "Violation of: key is not null";
+        assert this.hasKey(key) : "Violation of: key is in DOMAIN(this)";
+
+        V value;
+        if (this.large != null) {
+            value = this.large.value(key);
+        } else {
+            value = this.values[this.indexOf(key)];
+        }
+        return value;
+    }
+
+    @Override
+    public final boolean hasKey(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        boolean hasKey;
+        if (this.large != null) {
+            hasKey = this.large.hasKey(key);
+        } else {
+            hasKey = this.indexOf(key) >= 0;
+        }
+        return hasKey;
+    }
+
+    @Override
+    public final int size() {
+        int size = this.size;
+        if (this.large != null) {
+            size = this.large.size();
+        }
+        return size;
+    }
+
+    @Override
+    public final Iterator<Pair<K, V>> iterator() {
+        Iterator<Pair<K, V>> it;
+        if (this.large != null) {
+            it = this.large.iterator();
+        } else {
+            it = new SmallMapIterator();
+        }
+        return it;
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the value associated with {@code key} in {@code this}, or
+     * {@code null} if {@code key} is not in {@code DOMAIN(this)}. Scans a
+     * small map's keys only once.
+     *
+     * @param key
+     *            the key whose associated value is to be reported
+     * @return the value associated with key, or {@code null}
+     * @ensures <pre>
+     * if key is in DOMAIN(this)
+     *  then (key, valueOrNull) is in this
+     *  else valueOrNull = null
+     * </pre>
+     */
+    public final V valueOrNull(K key) {
+        assert key != null : "Violation of: key is not null";
+
+        V value = null;
+        if (this.large != null) {
+            if (this.large.hasKey(key)) {
+                value = this.large.value(key);
+            }
+        } else if (this.keys != null) {
+            int i = this.indexOf(key);
+            if (i >= 0) {
+                value = this.values[i];
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Replaces the value associated with {@code key} in {@code this} by
+     * {@code value} if {@code key} is in {@code DOMAIN(this)}, and returns the
+     * old value, or {@code null} if {@code key} is not in
+     * {@code DOMAIN(this)}. Scans a small map's keys only once.
+     *
+     * @param key
+     *            the key whose value is to be replaced
+     * @param value
+     *            the new value
+     * @return the old value associated with key, or {@code null}
+     * @updates this
+     * @ensures <pre>
+     * if key is in DOMAIN(#this)
+     *  then this = ((#this \ {(key, replaceValueIfPresent)})
+     *                union {(key, value)})  and
+     *       (key, replaceValueIfPresent) is in #this
+     *  else this = #this  and  replaceValueIfPresent = null
+     * </pre>
+     */
+    public final V replaceValueIfPresent(K key, V value) {
+        assert key != null : "Violation of: key is not null";
+        assert value != null : "Violation of: value is not null";
+
+        V oldValue = null;
+        if (this.large != null) {
+            if (this.large.hasKey(key)) {
+                oldValue = this.large.replaceValue(key, value);
+            }
+        } else if (this.keys != null) {
+            int i = this.indexOf(key);
+            if (i >= 0) {
+                oldValue = this.values[i];
+                this.values[i] = value;
+            }
+        }
+        return oldValue;
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for a small
+     * {@code SmallMap}.
+     */
+    private final class SmallMapIterator implements Iterator<Pair<K, V>> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * No-argument constructor.
+         */
+        SmallMapIterator() {
+            this.numberSeen = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < SmallMap.this.size;
+        }
+
+        @Override
+        public Pair<K, V> next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Pair<K, V> next = new SimplePair<K, V>(
+                    SmallMap.this.keys[this.numberSeen],
+                    SmallMap.this.values[this.numberSeen]);
+            this.numberSeen++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * JUnit test fixture for {@code CountingMap}.
+ */
+public final class CountingMapTest {
+
+    /**
+     * Number of distinct keys used to make the table grow.
+     */
+    private static final int MANY = 1000;
+
+    /** Constructor - a new map is empty and counts every key as 0. */
+    @Test
+    public void testConstructorEmpty() {
+        CountingMap m = new CountingMap();
+        assertEquals(0, m.size());
+        assertEquals(0, m.count("a"));
+    }
+
+    /** increment routine case - key not yet counted. */
+    @Test
+    public void testIncrementNewKey() {
+        CountingMap m = new CountingMap();
+        int c = m.increment("a");
+        assertEquals(1, c);
+        assertEquals(1, m.count("a"));
+        assertEquals(1, m.size());
+    }
+
+    /** increment routine case - key already counted. */
+    @Test
+    public void testIncrementExistingKey() {
+        CountingMap m = new CountingMap();
+        m.increment("a");
+        m.increment("b");
+        int c = m.increment("a");
+        assertEquals(2, c);
+        assertEquals(2, m.count("a"));
+        assertEquals(1, m.count("b"));
+        assertEquals(2, m.size());
+    }
+
+    /** count boundary case - key never incremented, and case matters. */
+    @Test
+    public void testCountMissingKey() {
+        CountingMap m = new CountingMap();
+        m.increment("a");
+        assertEquals(0, m.count("A"));
+        assertEquals(1, m.size());
+    }
+
+    /** increment challenging case - enough keys that the table grows. */
+    @Test
+    public void testIncrementGrows() {
+        CountingMap m = new CountingMap(1);
+        for (int i = 0; i < MANY; i++) {
+            m.increment("w" + i);
+            m.increment("w" + (i / 2));
+        }
+        assertEquals(MANY, m.size());
+        assertEquals(3, m.count("w0"));
+        assertEquals(3, m.count("w" + (MANY / 2 - 1)));
+        assertEquals(1, m.count("w" + (MANY - 1)));
+    }
+
+    /** Iterator - every key is seen exactly once. */
+    @Test
+    public void testIteratorSeesEveryKeyOnce() {
+        CountingMap m = new CountingMap();
+        for (int i = 0; i < MANY; i++) {
+            m.increment("w" + i);
+        }
+        int total = 0;
+        for (String key : m) {
+            total += m.count(key);
+        }
+        assertEquals(MANY, total);
+    }
+
+    /** clear - the map is empty afterwards. */
+    @Test
+    public void testClear() {
+        CountingMap m = new CountingMap();
+        m.increment("a");
+        m.clear();
+        assertEquals(0, m.size());
+        assertEquals(0, m.count("a"));
+    }
+
+}
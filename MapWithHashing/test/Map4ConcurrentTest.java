@@ -0,0 +1,248 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map.Pair;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4Concurrent}, plus
+ * multi-threaded stress tests.
+ */
+public class Map4ConcurrentTest extends MapTest {
+
+    /**
+     * Number of threads used by the stress tests.
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * Number of operations each thread performs in the stress tests.
+     */
+    private static final int OPERATIONS = 5000;
+
+    /**
+     * Size of hash table used by the add/remove stress test.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 101;
+
+    /**
+     * Number of lock stripes used by the add/remove stress test.
+     */
+    private static final int TEST_STRIPES = 8;
+
+    /**
+     * Number of distinct keys shared by all threads in the merge stress test.
+     */
+    private static final int SHARED_KEYS = 50;
+
+    /**
+     * Number of entries raced for by the over-subscribed removeAnyOrNull
+     * stress test; fewer than the removals the threads attempt.
+     */
+    private static final int SCARCE_ENTRIES = 1000;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4Concurrent<String, String>();
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /**
+     * Starts all of the given tasks on their own threads, waits for them to
+     * finish, and rethrows the first failure of any of them.
+     *
+     * @param tasks
+     *            the tasks to run
+     */
+    private static void runAll(List<Runnable> tasks) {
+        final List<Throwable> failures = Collections
+                .synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<>();
+        for (Runnable task : tasks) {
+            Thread t = new Thread(task);
+            t.setUncaughtExceptionHandler((thread, e) -> failures.add(e));
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                throw new AssertionError("Interrupted while joining " + t);
+            }
+        }
+        if (failures.size() > 0) {
+            throw new AssertionError(failures.get(0));
+        }
+    }
+
+    /** Stress test - threads add and remove disjoint keys concurrently. */
+    @Test
+    public final void testConcurrentAddRemove() {
+        final Map4Concurrent<String, String> m = new Map4Concurrent<>(
+                TEST_HASH_TABLE_SIZE, TEST_STRIPES);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final String prefix = "t" + t + "-";
+            tasks.add(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    m.add(prefix + i, "v" + i);
+                }
+                for (int i = 0; i < OPERATIONS; i += 2) {
+                    assertEquals("v" + i, m.remove(prefix + i).value());
+                }
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(THREADS * OPERATIONS / 2, m.size());
+        int seen = 0;
+        for (Pair<String, String> p : m) {
+            int i = Integer.parseInt(p.value().substring(1));
+            assertEquals(1, i % 2);
+            seen++;
+        }
+        assertEquals(m.size(), seen);
+    }
+
+    /** Stress test - threads merge counts into shared keys concurrently. */
+    @Test
+    public final void testConcurrentMerge() {
+        final Map4Concurrent<String, Integer> m = new Map4Concurrent<>();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    m.merge("k" + (i % SHARED_KEYS), 1, Integer::sum);
+                }
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(SHARED_KEYS, m.size());
+        for (int k = 0; k < SHARED_KEYS; k++) {
+            assertEquals(THREADS * OPERATIONS / SHARED_KEYS,
+                    m.value("k" + k).intValue());
+        }
+    }
+
+    /**
+     * Stress test - threads replace the values of shared keys concurrently,
+     * and never see a key missing.
+     */
+    @Test
+    public final void testConcurrentReplaceValue() {
+        final Map4Concurrent<String, String> m = new Map4Concurrent<>(
+                TEST_HASH_TABLE_SIZE, TEST_STRIPES);
+        for (int k = 0; k < SHARED_KEYS; k++) {
+            m.add("k" + k, "v");
+        }
+        final AtomicInteger missing = new AtomicInteger(0);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final String value = "t" + t;
+            tasks.add(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    m.replaceValue("k" + (i % SHARED_KEYS), value);
+                    if (!m.hasKey("k" + ((i + 1) % SHARED_KEYS))) {
+                        missing.incrementAndGet();
+                    }
+                }
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(0, missing.get());
+        assertEquals(SHARED_KEYS, m.size());
+    }
+
+    /** Stress test - threads drain the map with removeAny concurrently. */
+    @Test
+    public final void testConcurrentRemoveAny() {
+        final Map4Concurrent<String, String> m = new Map4Concurrent<>();
+        for (int i = 0; i < THREADS * OPERATIONS; i++) {
+            m.add("k" + i, "v" + i);
+        }
+        final Map4Concurrent<String, String> removed = new Map4Concurrent<>();
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    Pair<String, String> p = m.removeAny();
+                    removed.add(p.key(), p.value());
+                }
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(0, m.size());
+        assertEquals(THREADS * OPERATIONS, removed.size());
+    }
+
+    /** removeAnyOrNull - returns null on an empty map. */
+    @Test
+    public final void testRemoveAnyOrNullEmpty() {
+        Map4Concurrent<String, String> m = new Map4Concurrent<>();
+
+        assertNull(m.removeAnyOrNull());
+        assertEquals(0, m.size());
+    }
+
+    /** removeAnyOrNull - removes the only pair. */
+    @Test
+    public final void testRemoveAnyOrNullOne() {
+        Map4Concurrent<String, String> m = new Map4Concurrent<>();
+        m.add("k", "v");
+        Pair<String, String> p = m.removeAnyOrNull();
+
+        assertEquals("k", p.key());
+        assertEquals("v", p.value());
+        assertEquals(0, m.size());
+    }
+
+    /**
+     * Stress test - more threads race to remove with removeAnyOrNull than
+     * there are entries; every call returns, and each entry is removed once.
+     */
+    @Test
+    public final void testConcurrentRemoveAnyOrNullOversubscribed() {
+        final Map4Concurrent<String, String> m = new Map4Concurrent<>(
+                TEST_HASH_TABLE_SIZE, TEST_STRIPES);
+        for (int i = 0; i < SCARCE_ENTRIES; i++) {
+            m.add("k" + i, "v" + i);
+        }
+        final Map4Concurrent<String, String> removed = new Map4Concurrent<>();
+        final AtomicInteger nulls = new AtomicInteger(0);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                for (int i = 0; i < SCARCE_ENTRIES; i++) {
+                    Pair<String, String> p = m.removeAnyOrNull();
+                    if (p == null) {
+                        nulls.incrementAndGet();
+                    } else {
+                        removed.add(p.key(), p.value());
+                    }
+                }
+            });
+        }
+        runAll(tasks);
+
+        assertEquals(0, m.size());
+        assertEquals(SCARCE_ENTRIES, removed.size());
+        assertEquals((THREADS - 1) * SCARCE_ENTRIES, nulls.get());
+    }
+
+}
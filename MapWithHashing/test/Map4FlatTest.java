@@ -0,0 +1,19 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4Flat}.
+ */
+public class Map4FlatTest extends MapTest {
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4Flat<String, String>();
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
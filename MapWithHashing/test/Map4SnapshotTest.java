@@ -0,0 +1,192 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+
+import components.map.Map;
+
+/**
+ * JUnit test fixture for {@code Map4Snapshot}.
+ */
+public final class Map4SnapshotTest {
+
+    /**
+     * Number of entries in the large snapshot test.
+     */
+    private static final int MANY = 10000;
+
+    /**
+     * Position in a snapshot file of the number of buckets.
+     */
+    private static final int BUCKETS_POSITION = 12;
+
+    /**
+     * Writes a snapshot of a small map to a new temporary file.
+     *
+     * @return the snapshot file
+     * @throws IOException
+     *             if the snapshot cannot be written
+     */
+    private static File smallSnapshot() throws IOException {
+        Map<String, String> m = new Map4<String, String>();
+        m.add("a", "b");
+        m.add("c", "d");
+        m.add("e", "f");
+        File file = File.createTempFile("map4", ".snapshot");
+        file.deleteOnExit();
+        Map4Snapshot.write(m, file.getPath());
+        return file;
+    }
+
+    /**
+     * Writes {@code map} to a new temporary snapshot file and opens it.
+     *
+     * @param map
+     *            the map to snapshot
+     * @return the opened snapshot
+     * @throws IOException
+     *             if the snapshot cannot be written or read
+     */
+    private static Map4Snapshot roundTrip(Map<String, String> map)
+            throws IOException {
+        File file = File.createTempFile("map4", ".snapshot");
+        file.deleteOnExit();
+        Map4Snapshot.write(map, file.getPath());
+        return Map4Snapshot.open(file.getPath());
+    }
+
+    /** write/open boundary case - empty map. */
+    @Test
+    public void testEmpty() throws IOException {
+        Map<String, String> m = new Map4<String, String>();
+        Map4Snapshot s = roundTrip(m);
+
+        assertEquals(0, s.size());
+        assertEquals(false, s.hasKey("a"));
+    }
+
+    /** value/hasKey routine case - including empty keys and values. */
+    @Test
+    public void testValues() throws IOException {
+        Map<String, String> m = new Map4<String, String>();
+        m.add("a", "b");
+        m.add("c", "");
+        m.add("", "empty key");
+        Map4Snapshot s = roundTrip(m);
+
+        assertEquals(3, s.size());
+        assertEquals("b", s.value("a"));
+        assertEquals("", s.value("c"));
+        assertEquals("empty key", s.value(""));
+        assertEquals(false, s.hasKey("b"));
+        assertEquals(false, s.hasKey("A"));
+    }
+
+    /** value/hasKey challenging case - keys and values beyond ASCII. */
+    @Test
+    public void testNonAsciiKeysAndValues() throws IOException {
+        Map<String, String> m = new Map4<String, String>();
+        m.add("café", "über");
+        m.add("日本", "😀");
+        Map4Snapshot s = roundTrip(m);
+
+        assertEquals("über", s.value("café"));
+        assertEquals("😀", s.value("日本"));
+        assertEquals(false, s.hasKey("cafe"));
+    }
+
+    /** value/hasKey challenging case - keys with equal hash codes. */
+    @Test
+    public void testCollidingKeys() throws IOException {
+        /*
+         * "Aa" and "BB" have the same hashCode.
+         */
+        Map<String, String> m = new Map4<String, String>();
+        m.add("Aa", "1");
+        m.add("BB", "2");
+        Map4Snapshot s = roundTrip(m);
+
+        assertEquals("1", s.value("Aa"));
+        assertEquals("2", s.value("BB"));
+        assertEquals(false, s.hasKey("AaBB"));
+    }
+
+    /** write/open routine case - many entries, map unchanged. */
+    @Test
+    public void testManyEntries() throws IOException {
+        Map<String, String> m = new Map4<String, String>();
+        for (int i = 0; i < MANY; i++) {
+            m.add("key" + i, "value" + i);
+        }
+        Map4Snapshot s = roundTrip(m);
+
+        assertEquals(MANY, s.size());
+        for (int i = 0; i < MANY; i++) {
+            assertEquals("value" + i, s.value("key" + i));
+        }
+        assertEquals(false, s.hasKey("key" + MANY));
+        assertEquals(MANY, m.size());
+    }
+
+    /** open error case - a file that is not a snapshot. */
+    @Test(expected = IOException.class)
+    public void testOpenNotASnapshot() throws IOException {
+        File file = File.createTempFile("map4", ".txt");
+        file.deleteOnExit();
+        try (FileWriter out = new FileWriter(file)) {
+            out.write("not a snapshot at all");
+        }
+        Map4Snapshot.open(file.getPath());
+    }
+
+    /** open error case - a snapshot missing its last byte. */
+    @Test(expected = IOException.class)
+    public void testOpenTruncated() throws IOException {
+        File file = smallSnapshot();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        Map4Snapshot.open(file.getPath());
+    }
+
+    /** open error case - a bucket count that is not a power of 2. */
+    @Test(expected = IOException.class)
+    public void testOpenBucketsNotPowerOfTwo() throws IOException {
+        File file = smallSnapshot();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(BUCKETS_POSITION);
+            raf.writeInt(3);
+        }
+        Map4Snapshot.open(file.getPath());
+    }
+
+    /** open error case - a bucket directory past the end of the file. */
+    @Test(expected = IOException.class)
+    public void testOpenDirectoryPastEnd() throws IOException {
+        File file = smallSnapshot();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(BUCKETS_POSITION);
+            raf.writeInt(1 << 20);
+        }
+        Map4Snapshot.open(file.getPath());
+    }
+
+    /** write routine case - replaces an existing snapshot. */
+    @Test
+    public void testWriteReplacesExisting() throws IOException {
+        File file = smallSnapshot();
+        Map<String, String> m = new Map4<String, String>();
+        m.add("x", "y");
+        Map4Snapshot.write(m, file.getPath());
+        Map4Snapshot s = Map4Snapshot.open(file.getPath());
+
+        assertEquals(1, s.size());
+        assertEquals("y", s.value("x"));
+        assertEquals(false, s.hasKey("a"));
+    }
+
+}
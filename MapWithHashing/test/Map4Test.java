@@ -1,4 +1,11 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
 import components.map.Map;
+import components.map.Map.Pair;
 import components.map.Map1L;
 
 /**
@@ -6,6 +13,38 @@ import components.map.Map1L;
  */
 public class Map4Test extends MapTest {
 
+    /**
+     * Size of hash table used by the diagnostics tests.
+     */
+    private static final int DIAGNOSTICS_TABLE_SIZE = 11;
+
+    /**
+     * Load factor used by the diagnostics tests, large enough that the hash
+     * table is never resized.
+     */
+    private static final double DIAGNOSTICS_LOAD_FACTOR = 10.0;
+
+    /**
+     * Size of the mostly empty hash table used by the sparse-table tests.
+     */
+    private static final int SPARSE_TABLE_SIZE = 1009;
+
+    /**
+     * Number of keys put in the sparse table.
+     */
+    private static final int SPARSE_KEYS = 5;
+
+    /**
+     * Load factor small enough that the one-bucket hash table of the resize
+     * tests is resized every few additions.
+     */
+    private static final double RESIZE_LOAD_FACTOR = 0.5;
+
+    /**
+     * Number of keys added by the resize tests.
+     */
+    private static final int RESIZE_KEYS = 100;
+
     @Override
     protected final Map<String, String> constructorTest() {
         return new Map4<String, String>();
@@ -16,4 +55,258 @@ public class Map4Test extends MapTest {
         return new Map1L<String, String>();
     }
 
+    /** addOrReplace routine case - key not in map. */
+    @Test
+    public final void testAddOrReplaceAdds() {
+        Map4<String, String> m = new Map4<String, String>();
+        m.add("a", "b");
+        String old = m.addOrReplace("c", "d");
+        Map<String, String> mExpected = this.constructorRef();
+        mExpected.add("a", "b");
+        mExpected.add("c", "d");
+
+        assertEquals(null, old);
+        assertEquals(mExpected, m);
+    }
+
+    /** addOrReplace challenging case - key already in map. */
+    @Test
+    public final void testAddOrReplaceReplaces() {
+        Map4<String, String> m = new Map4<String, String>();
+        m.add("a", "b");
+        m.add("c", "d");
+        String old = m.addOrReplace("c", "e");
+        Map<String, String> mExpected = this.constructorRef();
+        mExpected.add("a", "b");
+        mExpected.add("c", "e");
+
+        assertEquals("d", old);
+        assertEquals(mExpected, m);
+    }
+
+    /** valueOrDefault routine case - key in map. */
+    @Test
+    public final void testValueOrDefaultPresent() {
+        Map4<String, String> m = new Map4<String, String>();
+        m.add("a", "b");
+
+        assertEquals("b", m.valueOrDefault("a", "z"));
+        assertEquals(1, m.size());
+    }
+
+    /** valueOrDefault boundary case - key not in map. */
+    @Test
+    public final void testValueOrDefaultAbsent() {
+        Map4<String, String> m = new Map4<String, String>();
+        m.add("a", "b");
+
+        assertEquals("z", m.valueOrDefault("A", "z"));
+        assertEquals(1, m.size());
+    }
+
+    /** Diagnostics - every key collides under a constant hash function. */
+    @Test
+    public final void testChainLengthHistogramCollisions() {
+        Map4<String, String> m = new Map4<String, String>(
+                DIAGNOSTICS_TABLE_SIZE, DIAGNOSTICS_LOAD_FACTOR, key -> 0);
+        m.add("a", "b");
+        m.add("c", "d");
+        m.add("e", "f");
+        int[] histogram = m.chainLengthHistogram();
+
+        assertEquals(3, m.maxChainLength());
+        assertEquals(4, histogram.length);
+        assertEquals(DIAGNOSTICS_TABLE_SIZE - 1, histogram[0]);
+        assertEquals(0, histogram[1]);
+        assertEquals(0, histogram[2]);
+        assertEquals(1, histogram[3]);
+    }
+
+    /** Diagnostics - lookups and probes are counted, and can be reset. */
+    @Test
+    public final void testProbeCounts() {
+        Map4<String, String> m = new Map4<String, String>(
+                DIAGNOSTICS_TABLE_SIZE, DIAGNOSTICS_LOAD_FACTOR, key -> 0);
+        m.add("a", "b");
+        m.add("c", "d");
+        m.resetProbeCounts();
+        boolean found = m.hasKey("a");
+        String value = m.value("c");
+
+        assertEquals(true, found);
+        assertEquals("d", value);
+        assertEquals(2, m.lookups());
+        assertEquals(4, m.probes());
+        m.resetProbeCounts();
+        assertEquals(0, m.lookups());
+        assertEquals(0, m.probes());
+    }
+
+    /** Power-of-two mode - the table size is rounded up to a power of 2. */
+    @Test
+    public final void testPowerOfTwoTableSize() {
+        Map4<String, String> m = new Map4<String, String>(
+                DIAGNOSTICS_TABLE_SIZE, DIAGNOSTICS_LOAD_FACTOR,
+                HashFunctions.IDENTITY, true);
+        m.add("a", "b");
+        int[] histogram = m.chainLengthHistogram();
+        int buckets = 0;
+        for (int count : histogram) {
+            buckets += count;
+        }
+
+        assertEquals(Integer.highestOneBit(DIAGNOSTICS_TABLE_SIZE) * 2,
+                buckets);
+        assertEquals("b", m.value("a"));
+    }
+
+    /**
+     * Creates and returns a {@code Map4} with the given hash table size and
+     * load factor, and keys {@code "0"} to {@code n - 1}, each with its own
+     * value.
+     *
+     * @param tableSize
+     *            the initial size of the hash table
+     * @param loadFactor
+     *            the load factor
+     * @param n
+     *            the number of keys
+     * @return the constructed map
+     */
+    private static Map4<String, String> createNumbered(int tableSize,
+            double loadFactor, int n) {
+        Map4<String, String> m = new Map4<String, String>(tableSize,
+                loadFactor);
+        for (int i = 0; i < n; i++) {
+            m.add(Integer.toString(i), "v" + i);
+        }
+        return m;
+    }
+
+    /**
+     * Checks that iterating over {@code m} sees each of the keys {@code "0"}
+     * to {@code n - 1} exactly once, with its value.
+     *
+     * @param m
+     *            the map, as built by {@code createNumbered}
+     * @param n
+     *            the number of keys
+     */
+    private static void checkIteration(Map4<String, String> m, int n) {
+        boolean[] seen = new boolean[n];
+        int count = 0;
+        for (Pair<String, String> p : m) {
+            int i = Integer.parseInt(p.key());
+            assertFalse(seen[i]);
+            assertEquals("v" + i, p.value());
+            seen[i] = true;
+            count++;
+        }
+        assertEquals(n, count);
+    }
+
+    /**
+     * Checks that removing from {@code m} with {@code removeAny} until it is
+     * empty removes each of the keys {@code "0"} to {@code n - 1} exactly
+     * once, with its value.
+     *
+     * @param m
+     *            the map, as built by {@code createNumbered}
+     * @param n
+     *            the number of keys
+     */
+    private static void checkDrain(Map4<String, String> m, int n) {
+        boolean[] seen = new boolean[n];
+        for (int removed = 1; removed <= n; removed++) {
+            Pair<String, String> p = m.removeAny();
+            int i = Integer.parseInt(p.key());
+            assertFalse(seen[i]);
+            assertEquals("v" + i, p.value());
+            seen[i] = true;
+            assertEquals(n - removed, m.size());
+        }
+    }
+
+    /**
+     * Returns the number of buckets of {@code m}, counting the old buckets
+     * not yet migrated while a resize is in progress.
+     *
+     * @param m
+     *            the map
+     * @return the number of buckets of m
+     */
+    private static int bucketCount(Map4<String, String> m) {
+        int buckets = 0;
+        for (int count : m.chainLengthHistogram()) {
+            buckets += count;
+        }
+        return buckets;
+    }
+
+    /** removeAny - drains a hash table whose buckets are mostly empty. */
+    @Test
+    public final void testRemoveAnyDrainsSparseTable() {
+        Map4<String, String> m = createNumbered(SPARSE_TABLE_SIZE,
+                DIAGNOSTICS_LOAD_FACTOR, SPARSE_KEYS);
+
+        checkDrain(m, SPARSE_KEYS);
+    }
+
+    /** removeAny - finds a key added after the table was drained. */
+    @Test
+    public final void testRemoveAnyAfterDrainAndAdd() {
+        Map4<String, String> m = createNumbered(SPARSE_TABLE_SIZE,
+                DIAGNOSTICS_LOAD_FACTOR, SPARSE_KEYS);
+        checkDrain(m, SPARSE_KEYS);
+        m.add("0", "v0");
+
+        checkDrain(m, 1);
+    }
+
+    /** Iterator - skips the empty buckets of a sparse table. */
+    @Test
+    public final void testIteratorSparseTable() {
+        Map4<String, String> m = createNumbered(SPARSE_TABLE_SIZE,
+                DIAGNOSTICS_LOAD_FACTOR, SPARSE_KEYS);
+
+        checkIteration(m, SPARSE_KEYS);
+    }
+
+    /**
+     * Iterator - sees every key after each addition, including while a
+     * resize is in progress.
+     */
+    @Test
+    public final void testIteratorDuringResize() {
+        Map4<String, String> m = new Map4<String, String>(1,
+                RESIZE_LOAD_FACTOR);
+        for (int n = 1; n <= RESIZE_KEYS; n++) {
+            m.add(Integer.toString(n - 1), "v" + (n - 1));
+            checkIteration(m, n);
+        }
+    }
+
+    /**
+     * removeAny - drains maps of every size up to RESIZE_KEYS, including
+     * ones left mid-resize by their last addition.
+     */
+    @Test
+    public final void testRemoveAnyDuringResize() {
+        for (int n = 1; n <= RESIZE_KEYS; n++) {
+            Map4<String, String> m = createNumbered(1, RESIZE_LOAD_FACTOR, n);
+            checkDrain(m, n);
+        }
+    }
+
+    /** removeAny - shrinks the hash table as the map drains, as remove does. */
+    @Test
+    public final void testRemoveAnyShrinksTable() {
+        Map4<String, String> m = createNumbered(1, RESIZE_LOAD_FACTOR,
+                RESIZE_KEYS);
+        int peak = bucketCount(m);
+        checkDrain(m, RESIZE_KEYS);
+
+        assertTrue(bucketCount(m) < peak / 2);
+    }
+
 }
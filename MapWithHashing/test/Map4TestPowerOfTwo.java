@@ -0,0 +1,32 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4} in power-of-two mode, with a
+ * one-bucket hash table and a small load factor, so that the masked hash
+ * table is resized (and left mid-migration) by the tests.
+ */
+public class Map4TestPowerOfTwo extends MapTest {
+
+    /**
+     * Initial size of hash table to be used in tests.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 1;
+
+    /**
+     * Load factor to be used in tests.
+     */
+    private static final double TEST_LOAD_FACTOR = 0.5;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4<String, String>(TEST_HASH_TABLE_SIZE, TEST_LOAD_FACTOR,
+                HashFunctions.IDENTITY, true);
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
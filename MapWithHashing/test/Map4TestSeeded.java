@@ -0,0 +1,37 @@
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code Map4} using a seeded hash function
+ * with a one-bucket hash table and a small load factor, so that keys are
+ * placed and migrated using the pluggable hash function.
+ */
+public class Map4TestSeeded extends MapTest {
+
+    /**
+     * Initial size of hash table to be used in tests.
+     */
+    private static final int TEST_HASH_TABLE_SIZE = 1;
+
+    /**
+     * Load factor to be used in tests.
+     */
+    private static final double TEST_LOAD_FACTOR = 0.5;
+
+    /**
+     * Seed of the hash function to be used in tests.
+     */
+    private static final int TEST_SEED = 0x5eed;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new Map4<String, String>(TEST_HASH_TABLE_SIZE, TEST_LOAD_FACTOR,
+                HashFunctions.seeded(TEST_SEED));
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+}
@@ -0,0 +1,132 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import components.map.Map;
+import components.map.Map1L;
+
+/**
+ * Customized JUnit test fixture for {@code SmallMap}, plus tests that cross
+ * the boundary between the inline arrays and the hashed representation.
+ */
+public class SmallMapTest extends MapTest {
+
+    /**
+     * Number of entries that forces a {@code SmallMap} to leave its arrays.
+     */
+    private static final int LARGE = 20;
+
+    @Override
+    protected final Map<String, String> constructorTest() {
+        return new SmallMap<String, String>();
+    }
+
+    @Override
+    protected final Map<String, String> constructorRef() {
+        return new Map1L<String, String>();
+    }
+
+    /**
+     * Returns a map with keys "k0" to "k(n-1)" mapped to "v0" to "v(n-1)".
+     *
+     * @param m
+     *            the (empty) map to fill
+     * @param n
+     *            the number of entries
+     * @return m
+     */
+    private static Map<String, String> fill(Map<String, String> m, int n) {
+        for (int i = 0; i < n; i++) {
+            m.add("k" + i, "v" + i);
+        }
+        return m;
+    }
+
+    /** Growing past the inline capacity keeps every entry. */
+    @Test
+    public final void testAddPastInlineCapacity() {
+        Map<String, String> m = fill(this.constructorTest(), LARGE);
+        Map<String, String> mExpected = fill(this.constructorRef(), LARGE);
+
+        assertEquals(mExpected, m);
+        assertEquals("v7", m.value("k7"));
+        assertEquals(true, m.hasKey("k" + (LARGE - 1)));
+        assertEquals(false, m.hasKey("k" + LARGE));
+    }
+
+    /** Shrinking back below the inline capacity keeps every entry. */
+    @Test
+    public final void testRemoveBackToInline() {
+        Map<String, String> m = fill(this.constructorTest(), LARGE);
+        Map<String, String> mExpected = fill(this.constructorRef(), LARGE);
+        for (int i = 0; i < LARGE - 1; i++) {
+            assertEquals(mExpected.remove("k" + i), m.remove("k" + i));
+        }
+
+        assertEquals(mExpected, m);
+        m.add("k0", "w0");
+        assertEquals("w0", m.value("k0"));
+        assertEquals(2, m.size());
+    }
+
+    /** removeAny drains a large map through the demotion to arrays. */
+    @Test
+    public final void testRemoveAnyDrainsLargeMap() {
+        Map<String, String> m = fill(this.constructorTest(), LARGE);
+        Map<String, String> mExpected = fill(this.constructorRef(), LARGE);
+        while (m.size() > 0) {
+            Map.Pair<String, String> p = m.removeAny();
+            assertEquals(p, mExpected.remove(p.key()));
+        }
+
+        assertEquals(0, mExpected.size());
+    }
+
+    /** transferFrom moves a large map and leaves the source empty. */
+    @Test
+    public final void testTransferFromLarge() {
+        Map<String, String> source = fill(this.constructorTest(), LARGE);
+        Map<String, String> m = this.constructorTest();
+        m.transferFrom(source);
+        Map<String, String> mExpected = fill(this.constructorRef(), LARGE);
+
+        assertEquals(mExpected, m);
+        assertEquals(0, source.size());
+        source.add("a", "b");
+        assertEquals("b", source.value("a"));
+    }
+
+    /** valueOrNull - present and absent keys, small and large maps. */
+    @Test
+    public final void testValueOrNull() {
+        SmallMap<String, String> m = new SmallMap<String, String>();
+        assertEquals(null, m.valueOrNull("k0"));
+        fill(m, 2);
+        assertEquals("v1", m.valueOrNull("k1"));
+        assertEquals(null, m.valueOrNull("k2"));
+        SmallMap<String, String> large = new SmallMap<String, String>();
+        fill(large, LARGE);
+        assertEquals("v3", large.valueOrNull("k3"));
+        assertEquals(null, large.valueOrNull("k" + LARGE));
+    }
+
+    /** replaceValueIfPresent - replaces present keys, ignores absent ones. */
+    @Test
+    public final void testReplaceValueIfPresent() {
+        SmallMap<String, String> m = new SmallMap<String, String>();
+        assertEquals(null, m.replaceValueIfPresent("k0", "w0"));
+        assertEquals(0, m.size());
+        fill(m, 2);
+        assertEquals("v1", m.replaceValueIfPresent("k1", "w1"));
+        assertEquals("w1", m.value("k1"));
+        assertEquals(null, m.replaceValueIfPresent("k2", "w2"));
+        assertEquals(2, m.size());
+        SmallMap<String, String> large = new SmallMap<String, String>();
+        fill(large, LARGE);
+        assertEquals("v3", large.replaceValueIfPresent("k3", "w3"));
+        assertEquals("w3", large.value("k3"));
+        assertEquals(null, large.replaceValueIfPresent("k" + LARGE, "x"));
+        assertEquals(LARGE, large.size());
+    }
+
+}
@@ -1,6 +1,7 @@
 import java.lang.reflect.Constructor;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 import components.queue.Queue;
 import components.queue.Queue1L;
@@ -278,4 +279,37 @@ public class SortingMachine4<T> extends SortingMachineSecondary<T> {
         return this.entries.iterator();
     }
 
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Removes every entry of {@code this}, in order, passing each to
+     * {@code action} as it is removed. Equivalent to calling
+     * {@code action.accept(this.removeFirst())} until {@code this} is empty;
+     * the entries were already sorted by {@code changeToExtractionMode}, so
+     * they are just dequeued in turn.
+     *
+     * @param action
+     *            the action to perform on each entry
+     * @updates this
+     * @requires not this.insertion_mode  and  [action does not use this]
+     * @ensures <pre>
+     * this = (false, #this.order, {})  and
+     * [action has been applied to the entries of #this.contents, in the
+     *  order of #this.order]
+     * </pre>
+     */
+    public final void drainSorted(Consumer<? super T> action) {
+        assert action != null : "Violation of: action is not null";
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+
+        Queue<T> sorted = this.entries;
+        this.entries = sorted.newInstance();
+        while (sorted.length() > 0) {
+            action.accept(sorted.dequeue());
+        }
+    }
+
 }
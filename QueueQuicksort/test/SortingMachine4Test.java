@@ -1,4 +1,12 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
 
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachine1L;
@@ -18,4 +26,35 @@ public final class SortingMachine4Test extends SortingMachineTest {
         return new SortingMachine1L<String>(order);
     }
 
+    @Test
+    public void testDrainSorted() {
+        SortingMachine4<String> m = new SortingMachine4<String>(
+                String.CASE_INSENSITIVE_ORDER);
+        m.add("green");
+        m.add("Blue");
+        m.add("red");
+        m.add("blue");
+        m.changeToExtractionMode();
+        List<String> drained = new ArrayList<String>();
+        m.drainSorted(drained::add);
+        assertFalse(m.isInInsertionMode());
+        assertEquals(0, m.size());
+        List<String> lowerCase = new ArrayList<String>();
+        for (String s : drained) {
+            lowerCase.add(s.toLowerCase());
+        }
+        assertEquals(Arrays.asList("blue", "blue", "green", "red"), lowerCase);
+    }
+
+    @Test
+    public void testDrainSortedEmpty() {
+        SortingMachine4<String> m = new SortingMachine4<String>(
+                String.CASE_INSENSITIVE_ORDER);
+        m.changeToExtractionMode();
+        List<String> drained = new ArrayList<String>();
+        m.drainSorted(drained::add);
+        assertEquals(0, drained.size());
+        assertEquals(0, m.size());
+    }
+
 }
@@ -0,0 +1,202 @@
+import java.util.Random;
+
+import components.set.Set;
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares the unbalanced binary search trees of {@code Set3a} (recursive,
+ * on {@code BinaryTree}) and {@code Set3c} (iterative, on bare nodes) with the
+ * AVL tree of {@code Set3b} by inserting keys in sorted, reverse-sorted and
+ * random order, and then looking every key up, reporting the time per
+ * operation and the height of the resulting tree.
+ *
+ * <p>
+ * {@code Set3a} and {@code Set3c} are only run on random keys: sorted and
+ * reverse-sorted input make their trees a path of height n, which takes
+ * quadratic time to build (and overflows the stack in {@code Set3a}) long
+ * before n reaches these sizes.
+ *
+ * <p>
+ * Timings are taken with {@code System.nanoTime} after a number of warm-up
+ * rounds that let the JIT compiler settle, and the fastest measured round is
+ * reported.
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public final class Set3Benchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private Set3Benchmark() {
+    }
+
+    /**
+     * Set sizes benchmarked.
+     */
+    private static final int[] SIZES = { 100000, 1000000 };
+
+    /**
+     * Number of untimed rounds run before the timed ones.
+     */
+    private static final int WARM_UP_ROUNDS = 2;
+
+    /**
+     * Number of timed rounds, of which the fastest is reported.
+     */
+    private static final int MEASURED_ROUNDS = 3;
+
+    /**
+     * Seed of the random key orders, so that runs are repeatable.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Orders in which the keys are inserted.
+     */
+    enum Order {
+
+        /**
+         * Increasing order.
+         */
+        SORTED {
+            @Override
+            Integer[] keys(int n) {
+                Integer[] keys = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                    keys[i] = i;
+                }
+                return keys;
+            }
+        },
+
+        /**
+         * Decreasing order.
+         */
+        REVERSE_SORTED {
+            @Override
+            Integer[] keys(int n) {
+                Integer[] keys = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                    keys[i] = n - 1 - i;
+                }
+                return keys;
+            }
+        },
+
+        /**
+         * A random permutation.
+         */
+        RANDOM {
+            @Override
+            Integer[] keys(int n) {
+                Integer[] keys = SORTED.keys(n);
+                Random random = new Random(SEED);
+                for (int i = n - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    Integer tmp = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = tmp;
+                }
+                return keys;
+            }
+        };
+
+        /**
+         * Returns the keys 0 to {@code n - 1} in this order.
+         *
+         * @param n
+         *            the number of keys
+         * @return the keys
+         */
+        abstract Integer[] keys(int n);
+
+    }
+
+    /**
+     * Benchmarks inserting {@code keys} into new sets like {@code empty} and
+     * then looking them up, and reports the results as one row of
+     * {@code out}.
+     *
+     * @param out
+     *            the output stream
+     * @param name
+     *            the name of the implementation, for reporting
+     * @param empty
+     *            an empty set of the implementation benchmarked
+     * @param order
+     *            the order of the keys, for reporting
+     * @param keys
+     *            the keys
+     * @updates out.content
+     * @requires out.is_open  and  |empty| = 0
+     */
+    private static void benchmark(SimpleWriter out, String name,
+            Set<Integer> empty, Order order, Integer[] keys) {
+        long bestAdd = Long.MAX_VALUE;
+        long bestContains = Long.MAX_VALUE;
+        int found = 0;
+        int height = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            Set<Integer> s = empty.newInstance();
+            long start = System.nanoTime();
+            for (Integer key : keys) {
+                s.add(key);
+            }
+            long added = System.nanoTime();
+            found = 0;
+            for (Integer key : keys) {
+                if (s.contains(key)) {
+                    found++;
+                }
+            }
+            long lookedUp = System.nanoTime();
+            if (round >= WARM_UP_ROUNDS) {
+                bestAdd = Math.min(bestAdd, added - start);
+                bestContains = Math.min(bestContains, lookedUp - added);
+            }
+            if (s instanceof Set3b<?>) {
+                height = ((Set3b<Integer>) s).height();
+            }
+        }
+        assert found == keys.length : "Violation of: every key is found";
+
+        String heightText = "-";
+        if (height > 0) {
+            heightText = Integer.toString(height);
+        }
+        out.println(String.format("%-8s%-16s%10d%12.1f%12.1f%8s", name, order,
+                keys.length, (double) bestAdd / keys.length,
+                (double) bestContains / keys.length, heightText));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.println(String.format("%-8s%-16s%10s%12s%12s%8s", "set", "order",
+                "n", "add", "contains", "height"));
+        out.println(String.format("%-8s%-16s%10s%12s%12s%8s", "", "", "",
+                "(ns/op)", "(ns/op)", ""));
+        for (int n : SIZES) {
+            for (Order order : Order.values()) {
+                Integer[] keys = order.keys(n);
+                benchmark(out, "Set3b", new Set3b<Integer>(), order, keys);
+                if (order == Order.RANDOM) {
+                    benchmark(out, "Set3c", new Set3c<Integer>(), order, keys);
+                    benchmark(out, "Set3a", new Set3a<Integer>(), order, keys);
+                }
+            }
+        }
+        out.close();
+    }
+
+}
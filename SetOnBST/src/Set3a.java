@@ -1,4 +1,7 @@
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import components.binarytree.BinaryTree;
 import components.binarytree.BinaryTree1;
@@ -32,6 +35,12 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Initial length of the array that {@code addAllSorted} collects its
+     * elements in.
+     */
+    private static final int INITIAL_BULK_LENGTH = 16;
+
     /**
      * Elements included in {@code this}.
      */
@@ -197,6 +206,279 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
         return removed;
     }
 
+    /**
+     * Returns the largest label of {@code t} that is at most {@code x} if
+     * {@code atMost}, or the smallest label of {@code t} that is at least
+     * {@code x} otherwise; returns null if there is no such label.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     * @param t
+     *            the {@code BinaryTree} to be searched
+     * @param x
+     *            the bound
+     * @param atMost
+     *            whether to look for the floor (rather than the ceiling) of
+     *            {@code x}
+     * @return the floor or ceiling of x in t, or null
+     * @requires IS_BST(t)
+     * @ensures <pre>
+     * if atMost
+     *  then nearestInTree = [the largest label of t that is <= x, or null]
+     *  else nearestInTree = [the smallest label of t that is >= x, or null]
+     * </pre>
+     */
+    private static <T extends Comparable<T>> T nearestInTree(BinaryTree<T> t,
+            T x, boolean atMost) {
+        T nearest = null;
+        if (t.size() > 0) {
+            BinaryTree<T> left = t.newInstance();
+            BinaryTree<T> right = t.newInstance();
+            T root = t.disassemble(left, right);
+            int c = root.compareTo(x);
+            if (c == 0) {
+                nearest = root;
+            } else if ((c < 0) == atMost) {
+                /*
+                 * root is on the right side of x: it is the answer unless the
+                 * subtree between it and x holds a nearer label.
+                 */
+                BinaryTree<T> between = right;
+                if (!atMost) {
+                    between = left;
+                }
+                nearest = nearestInTree(between, x, atMost);
+                if (nearest == null) {
+                    nearest = root;
+                }
+            } else {
+                BinaryTree<T> beyond = left;
+                if (!atMost) {
+                    beyond = right;
+                }
+                nearest = nearestInTree(beyond, x, atMost);
+            }
+            t.assemble(root, left, right);
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the number of labels of {@code t} that are smaller than
+     * {@code x}.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     * @param t
+     *            the {@code BinaryTree} to be searched
+     * @param x
+     *            the bound
+     * @return the number of labels of t smaller than x
+     * @requires IS_BST(t)
+     * @ensures rankInTree = |{y: T where (y is in labels(t)  and  y < x)}|
+     */
+    private static <T extends Comparable<T>> int rankInTree(BinaryTree<T> t,
+            T x) {
+        int rank = 0;
+        if (t.size() > 0) {
+            BinaryTree<T> left = t.newInstance();
+            BinaryTree<T> right = t.newInstance();
+            T root = t.disassemble(left, right);
+            if (x.compareTo(root) <= 0) {
+                rank = rankInTree(left, x);
+            } else {
+                rank = left.size() + 1 + rankInTree(right, x);
+            }
+            t.assemble(root, left, right);
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the label of {@code t} that has exactly {@code i} smaller labels
+     * in {@code t}.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     * @param t
+     *            the {@code BinaryTree} to be searched
+     * @param i
+     *            the rank of the label
+     * @return the label of rank i
+     * @requires IS_BST(t)  and  0 <= i < |t|
+     * @ensures <pre>
+     * selectInTree is in labels(t)  and
+     * |{y: T where (y is in labels(t)  and  y < selectInTree)}| = i
+     * </pre>
+     */
+    private static <T extends Comparable<T>> T selectInTree(BinaryTree<T> t,
+            int i) {
+        BinaryTree<T> left = t.newInstance();
+        BinaryTree<T> right = t.newInstance();
+        T root = t.disassemble(left, right);
+        T selected = root;
+        if (i < left.size()) {
+            selected = selectInTree(left, i);
+        } else if (i > left.size()) {
+            selected = selectInTree(right, i - left.size() - 1);
+        }
+        t.assemble(root, left, right);
+        return selected;
+    }
+
+    /**
+     * Copies the labels {@code x} of {@code t} with {@code lo <= x < hi}, in
+     * increasing order, into {@code range} starting at position {@code n}.
+     * Only the subtrees that can hold such labels are visited, so this takes
+     * time proportional to the height of {@code t} plus the number of labels
+     * copied.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     * @param t
+     *            the {@code BinaryTree} to be searched
+     * @param lo
+     *            the smallest label to copy
+     * @param hi
+     *            the bound above the labels to copy
+     * @param range
+     *            the array to copy the labels into
+     * @param n
+     *            the position to copy the first label to
+     * @return the position after the last label copied
+     * @updates range
+     * @requires <pre>
+     * IS_BST(t)  and
+     * n + |{y: T where (y is in labels(t)  and  lo <= y < hi)}| <= |range|
+     * </pre>
+     * @ensures <pre>
+     * [range[n, collectRange) holds the labels y of t with lo <= y < hi, in
+     *  increasing order]  and
+     * [the entries of range outside [n, collectRange) are unchanged]
+     * </pre>
+     */
+    private static <T extends Comparable<T>> int collectRange(BinaryTree<T> t,
+            T lo, T hi, T[] range, int n) {
+        int end = n;
+        if (t.size() > 0) {
+            BinaryTree<T> left = t.newInstance();
+            BinaryTree<T> right = t.newInstance();
+            T root = t.disassemble(left, right);
+            if (lo.compareTo(root) < 0) {
+                end = collectRange(left, lo, hi, range, end);
+            }
+            if (lo.compareTo(root) <= 0 && root.compareTo(hi) < 0) {
+                range[end] = root;
+                end++;
+            }
+            if (root.compareTo(hi) < 0) {
+                end = collectRange(right, lo, hi, range, end);
+            }
+            t.assemble(root, left, right);
+        }
+        return end;
+    }
+
+    /**
+     * Returns a new array of {@code length} labels.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param length
+     *            the length of the array
+     * @return the new array
+     * @ensures |newArray| = length
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> T[] newArray(int length) {
+        /*
+         * With "new T[...]" in place of "(T[]) new Comparable<?>[...]" it does
+         * not compile; as shown, it results in a warning about an unchecked
+         * conversion, though it cannot fail since T extends Comparable<T>.
+         */
+        return (T[]) new Comparable<?>[length];
+    }
+
+    /**
+     * Returns the elements of {@code s} in increasing order. If {@code s} is a
+     * {@code Set3a} this is an in-order walk of its tree; otherwise the
+     * elements are copied and sorted.
+     *
+     * @param <T>
+     *            type of {@code Set} elements
+     * @param s
+     *            the set
+     * @return the elements of s in increasing order
+     * @ensures <pre>
+     * entries(sortedElements) = s  and  |sortedElements| = |s|  and
+     * [sortedElements is in increasing order]
+     * </pre>
+     */
+    private static <T extends Comparable<T>> T[] sortedElements(Set<T> s) {
+        T[] sorted = newArray(s.size());
+        int n = 0;
+        for (T x : s) {
+            sorted[n] = x;
+            n++;
+        }
+        if (!(s instanceof Set3a<?>)) {
+            Arrays.sort(sorted);
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns a hashed copy of the elements of {@code s}, so that membership
+     * in {@code s} can be probed in expected constant time whatever its
+     * implementation.
+     *
+     * @param <T>
+     *            type of {@code Set} elements
+     * @param s
+     *            the set
+     * @return a {@code HashSet} with the elements of s
+     * @ensures hashed = s
+     */
+    private static <T> HashSet<T> hashed(Set<T> s) {
+        HashSet<T> index = new HashSet<T>(2 * s.size());
+        for (T x : s) {
+            index.add(x);
+        }
+        return index;
+    }
+
+    /**
+     * Builds and returns a height-balanced binary search tree of the labels
+     * {@code labels[lo, hi)}.
+     *
+     * @param <T>
+     *            type of {@code BinaryTree} labels
+     * @param labels
+     *            the labels, in increasing order
+     * @param lo
+     *            the first position to use
+     * @param hi
+     *            one past the last position to use
+     * @return the tree
+     * @requires 0 <= lo <= hi <= |labels|  and  [labels[lo, hi) is increasing]
+     * @ensures <pre>
+     * IS_BST(buildTree)  and  labels(buildTree) = entries(labels[lo, hi))  and
+     * [the heights of the subtrees of each node of buildTree differ by at
+     *  most 1]
+     * </pre>
+     */
+    private static <T extends Comparable<T>> BinaryTree<T> buildTree(
+            T[] labels, int lo, int hi) {
+        BinaryTree<T> t = new BinaryTree1<T>();
+        if (lo < hi) {
+            int mid = (lo + hi) / 2;
+            BinaryTree<T> left = buildTree(labels, lo, mid);
+            BinaryTree<T> right = buildTree(labels, mid + 1, hi);
+            t.assemble(labels[mid], left, right);
+        }
+        return t;
+    }
+
     /**
      * Creator of initial representation.
      */
@@ -219,6 +501,22 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
 
     }
 
+    /**
+     * Constructor from elements in increasing order: builds a perfectly
+     * balanced tree of them in time linear in their number.
+     *
+     * @param sorted
+     *            the elements, in increasing order
+     * @requires [sorted delivers its elements in strictly increasing order]
+     * @ensures this = [elements delivered by sorted]
+     */
+    public Set3a(Iterable<T> sorted) {
+        assert sorted != null : "Violation of: sorted is not null";
+
+        this.createNewRep();
+        this.addAllSorted(sorted);
+    }
+
     /*
      * Standard methods -------------------------------------------------------
      */
@@ -292,7 +590,429 @@ public class Set3a<T extends Comparable<T>> extends SetSecondary<T> {
 
     @Override
     public final Iterator<T> iterator() {
+        /*
+         * BinaryTree iterates over its labels in order, which for a binary
+         * search tree is increasing order.
+         */
         return this.tree.iterator();
     }
 
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Adds to {@code this} all elements of {@code s}, leaving {@code s}
+     * unchanged. Runs in time linear in {@code |this| + |s|} when {@code s} is
+     * a {@code Set3a}, by merging the two in-order sequences, and in
+     * {@code O(|this| + |s| log |s|)} time otherwise. The tree is rebuilt
+     * height-balanced.
+     *
+     * @param s
+     *            the set whose elements are to be added
+     * @updates this
+     * @requires s is not this
+     * @ensures this = #this union s
+     */
+    public final void addAll(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        T[] b = sortedElements(s);
+        this.unionWith(b, b.length);
+    }
+
+    /**
+     * Adds to {@code this} the elements delivered by {@code sorted}, which
+     * must deliver them in increasing order. If {@code this} is empty the
+     * tree is built directly from them, perfectly balanced, in time linear in
+     * their number; otherwise they are merged with the elements of
+     * {@code this} in time linear in the total.
+     *
+     * @param sorted
+     *            the elements to add, in increasing order
+     * @updates this
+     * @requires [sorted delivers its elements in strictly increasing order]
+     * @ensures this = #this union [elements delivered by sorted]
+     */
+    public final void addAllSorted(Iterable<T> sorted) {
+        assert sorted != null : "Violation of: sorted is not null";
+
+        T[] b = newArray(INITIAL_BULK_LENGTH);
+        int n = 0;
+        for (T x : sorted) {
+            assert n == 0 || b[n - 1].compareTo(x) < 0 : ""
+                    + "Violation of: sorted is in strictly increasing order";
+            if (n == b.length) {
+                b = Arrays.copyOf(b, 2 * n);
+            }
+            b[n] = x;
+            n++;
+        }
+        if (this.tree.size() == 0) {
+            this.tree = buildTree(b, 0, n);
+        } else {
+            this.unionWith(b, n);
+        }
+    }
+
+    /**
+     * Rebuilds the tree representing {@code this} perfectly balanced, in time
+     * linear in {@code |this|}.
+     *
+     * @ensures this = #this
+     */
+    public final void rebalance() {
+        T[] a = sortedElements(this);
+        this.tree = buildTree(a, 0, a.length);
+    }
+
+    /**
+     * Reports the height of the tree representing {@code this}: 0 if
+     * {@code this} is empty, and otherwise the number of nodes on a longest
+     * path from the root to a leaf.
+     *
+     * @return the height of the tree
+     * @ensures height = [height of the tree representing this]
+     */
+    public final int height() {
+        return this.tree.height();
+    }
+
+    /**
+     * Merges the labels {@code b[0, bLength)} into {@code this}, and rebuilds
+     * the tree height-balanced.
+     *
+     * @param b
+     *            the labels to add, in increasing order
+     * @param bLength
+     *            the number of labels to add
+     * @updates this
+     * @requires <pre>
+     * 0 <= bLength <= |b|  and  [b[0, bLength) is strictly increasing]
+     * </pre>
+     * @ensures this = #this union entries(b[0, bLength))
+     */
+    private void unionWith(T[] b, int bLength) {
+        T[] a = sortedElements(this);
+        T[] union = newArray(a.length + bLength);
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < bLength) {
+            int c;
+            if (i == a.length) {
+                c = 1;
+            } else if (j == bLength) {
+                c = -1;
+            } else {
+                c = a[i].compareTo(b[j]);
+            }
+            if (c <= 0) {
+                union[n] = a[i];
+                i++;
+                if (c == 0) {
+                    j++;
+                }
+            } else {
+                union[n] = b[j];
+                j++;
+            }
+            n++;
+        }
+        this.tree = buildTree(union, 0, n);
+    }
+
+    /**
+     * Removes from {@code this} all elements that are not in {@code s}. Runs
+     * in time linear in {@code |this| + |s|} when {@code s} is a
+     * {@code Set3a}, by merging the two in-order sequences; otherwise
+     * {@code s} is copied into a hash table once and each element of
+     * {@code this} is probed there, in expected time linear in
+     * {@code |this| + |s|}. The tree is rebuilt height-balanced.
+     *
+     * @param s
+     *            the set of elements to keep
+     * @updates this
+     * @requires s is not this
+     * @ensures this = #this intersection s
+     */
+    public final void retainAll(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        this.keepWhereMembershipIs(s, true);
+    }
+
+    /**
+     * Removes from {@code this} all elements that are in {@code s}. Runs in
+     * time linear in {@code |this| + |s|} when {@code s} is a {@code Set3a},
+     * by merging the two in-order sequences; otherwise {@code s} is copied
+     * into a hash table once and each element of {@code this} is probed
+     * there, in expected time linear in {@code |this| + |s|}. The tree is
+     * rebuilt height-balanced.
+     *
+     * @param s
+     *            the set of elements to remove
+     * @updates this
+     * @requires s is not this
+     * @ensures this = #this \ s
+     */
+    public final void removeAll(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        this.keepWhereMembershipIs(s, false);
+    }
+
+    /**
+     * Keeps just the elements of {@code this} whose membership in {@code s} is
+     * {@code inS}, and rebuilds the tree height-balanced.
+     *
+     * @param s
+     *            the set to test membership in
+     * @param inS
+     *            whether to keep the elements in {@code s} or those not in
+     *            {@code s}
+     * @updates this
+     * @ensures <pre>
+     * if inS
+     *  then this = #this intersection s
+     *  else this = #this \ s
+     * </pre>
+     */
+    private void keepWhereMembershipIs(Set<T> s, boolean inS) {
+        T[] a = sortedElements(this);
+        T[] kept = newArray(a.length);
+        int n = 0;
+        if (s instanceof Set3a<?>) {
+            T[] b = sortedElements(s);
+            int j = 0;
+            for (T x : a) {
+                while (j < b.length && b[j].compareTo(x) < 0) {
+                    j++;
+                }
+                boolean found = j < b.length && b[j].compareTo(x) == 0;
+                if (found == inS) {
+                    kept[n] = x;
+                    n++;
+                }
+            }
+        } else {
+            HashSet<T> index = hashed(s);
+            for (T x : a) {
+                if (index.contains(x) == inS) {
+                    kept[n] = x;
+                    n++;
+                }
+            }
+        }
+        this.tree = buildTree(kept, 0, n);
+    }
+
+    /**
+     * Reports whether {@code this} is a subset of {@code s}. Runs in time
+     * linear in {@code |this| + |s|} when {@code s} is a {@code Set3a}, by
+     * merging the two in-order sequences; otherwise {@code s} is copied into
+     * a hash table once and each element of {@code this} is probed there.
+     *
+     * @param s
+     *            the second set
+     * @return whether this is a subset of s
+     * @ensures isSubset = this is subset of s
+     */
+    @Override
+    public final boolean isSubset(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+
+        boolean subset = this.size() <= s.size();
+        if (subset && s instanceof Set3a<?> && s != this) {
+            Iterator<T> it = s.iterator();
+            T y = null;
+            for (T x : this) {
+                while (subset && (y == null || y.compareTo(x) < 0)) {
+                    if (it.hasNext()) {
+                        y = it.next();
+                    } else {
+                        subset = false;
+                    }
+                }
+                if (subset && y.compareTo(x) != 0) {
+                    subset = false;
+                }
+            }
+        } else if (subset && s != this) {
+            HashSet<T> index = hashed(s);
+            for (T x : this) {
+                if (subset && !index.contains(x)) {
+                    subset = false;
+                }
+            }
+        }
+        return subset;
+    }
+
+    /**
+     * Reports the largest element of {@code this} that is at most {@code x},
+     * or null if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the floor of x in this, or null
+     * @ensures <pre>
+     * if there exists y: T (y is in this  and  y <= x)
+     *  then floor = [the largest such y]
+     *  else floor = null
+     * </pre>
+     */
+    public final T floor(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return nearestInTree(this.tree, x, true);
+    }
+
+    /**
+     * Reports the smallest element of {@code this} that is at least {@code x},
+     * or null if there is none.
+     *
+     * @param x
+     *            the bound
+     * @return the ceiling of x in this, or null
+     * @ensures <pre>
+     * if there exists y: T (y is in this  and  y >= x)
+     *  then ceiling = [the smallest such y]
+     *  else ceiling = null
+     * </pre>
+     */
+    public final T ceiling(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return nearestInTree(this.tree, x, false);
+    }
+
+    /**
+     * Reports the number of elements of {@code this} that are smaller than
+     * {@code x}. Uses the sizes of the subtrees along one search path, so it
+     * takes time proportional to the height of the tree.
+     *
+     * @param x
+     *            the bound
+     * @return the number of elements of this smaller than x
+     * @ensures rank = |{y: T where (y is in this  and  y < x)}|
+     */
+    public final int rank(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return rankInTree(this.tree, x);
+    }
+
+    /**
+     * Reports the element of {@code this} that has exactly {@code i} smaller
+     * elements in {@code this}, i.e., the element at position {@code i} of the
+     * sorted order. Uses the sizes of the subtrees along one search path, so it
+     * takes time proportional to the height of the tree.
+     *
+     * @param i
+     *            the rank of the element
+     * @return the element of rank i
+     * @requires 0 <= i < |this|
+     * @ensures <pre>
+     * select is in this  and
+     * |{y: T where (y is in this  and  y < select)}| = i
+     * </pre>
+     */
+    public final T select(int i) {
+        assert 0 <= i : "Violation of: 0 <= i";
+        assert i < this.size() : "Violation of: i < |this|";
+
+        return selectInTree(this.tree, i);
+    }
+
+    /**
+     * Returns an iterator over the elements {@code x} of {@code this} with
+     * {@code lo <= x < hi}, in increasing order. The elements are copied when
+     * the iterator is created, in one in-order walk of just the part of the
+     * tree that holds them, so this takes time proportional to the height of
+     * the tree plus the number of elements in the range, and later changes to
+     * {@code this} do not affect the iterator.
+     *
+     * @param lo
+     *            the smallest element to deliver
+     * @param hi
+     *            the bound above the elements to deliver
+     * @return an iterator over the elements of this in [lo, hi)
+     * @ensures <pre>
+     * [range delivers the elements of {y: T where (y is in this  and
+     *  lo <= y < hi)} in increasing order]
+     * </pre>
+     */
+    public final Iterator<T> range(T lo, T hi) {
+        assert lo != null : "Violation of: lo is not null";
+        assert hi != null : "Violation of: hi is not null";
+
+        return new RangeIterator(lo, hi);
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for the elements of
+     * {@code Set3a} in a range.
+     */
+    private final class RangeIterator implements Iterator<T> {
+
+        /**
+         * Elements to deliver, in increasing order.
+         */
+        private final T[] elements;
+
+        /**
+         * Position of the next element to deliver.
+         */
+        private int next;
+
+        /**
+         * Constructor.
+         *
+         * @param lo
+         *            the smallest element to deliver
+         * @param hi
+         *            the bound above the elements to deliver
+         */
+        RangeIterator(T lo, T hi) {
+            int count = Set3a.this.rank(hi) - Set3a.this.rank(lo);
+            this.elements = newArray(Math.max(0, count));
+            if (count > 0) {
+                collectRange(Set3a.this.tree, lo, hi, this.elements, 0);
+            }
+            this.next = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.elements.length;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T x = this.elements[this.next];
+            this.next++;
+            return x;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
 }
@@ -0,0 +1,505 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as an AVL tree (a height-balanced binary search
+ * tree) of nodes, done "bare-handed", with implementations of primary
+ * methods.
+ *
+ * <p>
+ * Every node records the height of its subtree, and {@code add} and
+ * {@code remove} rotate the nodes on the path they changed so that the heights
+ * of the two subtrees of every node differ by at most 1. The height of the
+ * tree is therefore less than 1.45 log2(|this| + 2) whatever order the
+ * elements arrive in, so {@code add}, {@code remove}, {@code removeAny} and
+ * {@code contains} all take O(log |this|) time, even for sorted input that
+ * makes the tree of {@code Set3a} degenerate into a list.
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_BST(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties as described in the
+ *   slides with the ordering reported by compareTo for T, including that
+ *   it has no duplicate labels]
+ *
+ * IS_AVL(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [the heights of the two subtrees of every node of tree differ by at
+ *   most 1]
+ * </pre>
+ * @convention <pre>
+ * [$this.root is null or points to the root node of a binary tree whose
+ *  nodes are all reachable from $this.root exactly once]  and
+ * IS_BST([that tree])  and  IS_AVL([that tree])  and
+ * [the height of every node is the height of the subtree rooted there]  and
+ * $this.size = [number of nodes in that tree]
+ * </pre>
+ * @correspondence this = [labels of the nodes of the tree at $this.root]
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public class Set3b<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node class for AVL tree nodes.
+     */
+    private final class Node {
+
+        /**
+         * Label of node.
+         */
+        private T label;
+
+        /**
+         * Root of left subtree, or null.
+         */
+        private Node left;
+
+        /**
+         * Root of right subtree, or null.
+         */
+        private Node right;
+
+        /**
+         * Height of the subtree rooted at this node.
+         */
+        private int height;
+
+        /**
+         * Constructor for a leaf.
+         *
+         * @param label
+         *            the label of the leaf
+         */
+        Node(T label) {
+            this.label = label;
+            this.left = null;
+            this.right = null;
+            this.height = 1;
+        }
+
+    }
+
+    /**
+     * Root node of the tree, or null if the tree is empty.
+     */
+    private Node root;
+
+    /**
+     * Number of nodes in the tree.
+     */
+    private int size;
+
+    /**
+     * Returns the height of the subtree rooted at {@code n}.
+     *
+     * @param n
+     *            the root of the subtree, or null
+     * @return the height of the subtree (0 if n is null)
+     */
+    private int heightOf(Node n) {
+        int height = 0;
+        if (n != null) {
+            height = n.height;
+        }
+        return height;
+    }
+
+    /**
+     * Recomputes the height of {@code n} from the heights of its subtrees.
+     *
+     * @param n
+     *            the node
+     * @updates n.height
+     * @requires [the heights of the children of n are correct]
+     * @ensures [n.height is the height of the subtree rooted at n]
+     */
+    private void updateHeight(Node n) {
+        n.height = 1 + Math.max(this.heightOf(n.left), this.heightOf(n.right));
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code n} to the right, and returns its new
+     * root (the former left child of {@code n}).
+     *
+     * @param n
+     *            the root of the subtree
+     * @return the new root of the subtree
+     * @requires n.left /= null
+     * @ensures [labels and in-order sequence of the subtree are unchanged]
+     */
+    private Node rotateRight(Node n) {
+        Node newRoot = n.left;
+        n.left = newRoot.right;
+        newRoot.right = n;
+        this.updateHeight(n);
+        this.updateHeight(newRoot);
+        return newRoot;
+    }
+
+    /**
+     * Rotates the subtree rooted at {@code n} to the left, and returns its new
+     * root (the former right child of {@code n}).
+     *
+     * @param n
+     *            the root of the subtree
+     * @return the new root of the subtree
+     * @requires n.right /= null
+     * @ensures [labels and in-order sequence of the subtree are unchanged]
+     */
+    private Node rotateLeft(Node n) {
+        Node newRoot = n.right;
+        n.right = newRoot.left;
+        newRoot.left = n;
+        this.updateHeight(n);
+        this.updateHeight(newRoot);
+        return newRoot;
+    }
+
+    /**
+     * Restores the AVL property at {@code n}, whose subtrees are AVL trees
+     * whose heights differ by at most 2, and returns the new root of the
+     * subtree.
+     *
+     * @param n
+     *            the root of the subtree
+     * @return the new root of the subtree
+     * @requires <pre>
+     * IS_AVL(n.left)  and  IS_AVL(n.right)  and
+     * |height(n.left) - height(n.right)| <= 2
+     * </pre>
+     * @ensures <pre>
+     * IS_AVL([subtree at rebalance])  and
+     * [labels and in-order sequence of the subtree are unchanged]
+     * </pre>
+     */
+    private Node rebalance(Node n) {
+        Node newRoot = n;
+        int balance = this.heightOf(n.left) - this.heightOf(n.right);
+        if (balance > 1) {
+            if (this.heightOf(n.left.left) < this.heightOf(n.left.right)) {
+                n.left = this.rotateLeft(n.left);
+            }
+            newRoot = this.rotateRight(n);
+        } else if (balance < -1) {
+            if (this.heightOf(n.right.right) < this.heightOf(n.right.left)) {
+                n.right = this.rotateRight(n.right);
+            }
+            newRoot = this.rotateLeft(n);
+        } else {
+            this.updateHeight(n);
+        }
+        return newRoot;
+    }
+
+    /**
+     * Inserts {@code x} in the subtree rooted at {@code n}, and returns the
+     * new root of the subtree.
+     *
+     * @param n
+     *            the root of the subtree, or null
+     * @param x
+     *            the label to be inserted
+     * @return the new root of the subtree
+     * @aliases reference {@code x}
+     * @requires IS_BST([subtree at n])  and  x is not in labels([subtree at n])
+     * @ensures <pre>
+     * IS_BST([subtree at insertInTree])  and
+     * IS_AVL([subtree at insertInTree])  and
+     * labels([subtree at insertInTree]) = labels([subtree at #n]) union {x}
+     * </pre>
+     */
+    private Node insertInTree(Node n, T x) {
+        Node newRoot;
+        if (n == null) {
+            newRoot = new Node(x);
+        } else {
+            if (x.compareTo(n.label) < 0) {
+                n.left = this.insertInTree(n.left, x);
+            } else {
+                n.right = this.insertInTree(n.right, x);
+            }
+            newRoot = this.rebalance(n);
+        }
+        return newRoot;
+    }
+
+    /**
+     * Removes the node labeled {@code x} from the subtree rooted at {@code n},
+     * and returns the new root of the subtree.
+     *
+     * @param n
+     *            the root of the subtree
+     * @param x
+     *            the label to be removed
+     * @return the new root of the subtree
+     * @requires IS_BST([subtree at n])  and  x is in labels([subtree at n])
+     * @ensures <pre>
+     * IS_BST([subtree at removeFromTree])  and
+     * IS_AVL([subtree at removeFromTree])  and
+     * labels([subtree at removeFromTree]) = labels([subtree at #n]) \ {x}
+     * </pre>
+     */
+    private Node removeFromTree(Node n, T x) {
+        Node newRoot = n;
+        int c = x.compareTo(n.label);
+        if (c < 0) {
+            n.left = this.removeFromTree(n.left, x);
+        } else if (c > 0) {
+            n.right = this.removeFromTree(n.right, x);
+        } else if (n.left == null) {
+            newRoot = n.right;
+        } else if (n.right == null) {
+            newRoot = n.left;
+        } else {
+            /*
+             * Replace the label with the smallest label of the right subtree,
+             * and remove that one from the right subtree instead.
+             */
+            Node smallest = n.right;
+            while (smallest.left != null) {
+                smallest = smallest.left;
+            }
+            n.label = smallest.label;
+            n.right = this.removeFromTree(n.right, smallest.label);
+        }
+        if (newRoot == n) {
+            newRoot = this.rebalance(n);
+        }
+        return newRoot;
+    }
+
+    /**
+     * Returns the node labeled {@code x}, or null if there is none.
+     *
+     * @param x
+     *            the label to be searched for
+     * @return the node labeled x, or null
+     * @ensures <pre>
+     * if x is in this
+     *  then findNode.label = x
+     *  else findNode = null
+     * </pre>
+     */
+    private Node findNode(T x) {
+        Node n = this.root;
+        int c = 1;
+        while (n != null && c != 0) {
+            c = x.compareTo(n.label);
+            if (c < 0) {
+                n = n.left;
+            } else if (c > 0) {
+                n = n.right;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3b() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3b<?> : ""
+                + "Violation of: source is of dynamic type Set3b<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3b<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3b<T> localSource = (Set3b<T>) source;
+        this.root = localSource.root;
+        this.size = localSource.size;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        this.root = this.insertInTree(this.root, x);
+        this.size++;
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+        Node n = this.findNode(x);
+        assert n != null : "Violation of: x is in this";
+
+        T removed = n.label;
+        this.root = this.removeFromTree(this.root, x);
+        this.size--;
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Node smallest = this.root;
+        while (smallest.left != null) {
+            smallest = smallest.left;
+        }
+        T removed = smallest.label;
+        this.root = this.removeFromTree(this.root, removed);
+        this.size--;
+        return removed;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.findNode(x) != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set3bIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3b}. The
+     * elements are delivered in increasing order.
+     */
+    private final class Set3bIterator implements Iterator<T> {
+
+        /**
+         * Nodes whose labels and right subtrees are still to be visited, the
+         * next one on top.
+         */
+        private final Deque<Node> pending;
+
+        /**
+         * No-argument constructor.
+         */
+        Set3bIterator() {
+            this.pending = new ArrayDeque<Node>();
+            this.pushLeftPath(Set3b.this.root);
+        }
+
+        /**
+         * Pushes {@code n} and its chain of left descendants.
+         *
+         * @param n
+         *            the first node to push, or null
+         */
+        private void pushLeftPath(Node n) {
+            Node p = n;
+            while (p != null) {
+                this.pending.push(p);
+                p = p.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node n = this.pending.pop();
+            this.pushLeftPath(n.right);
+            return n.label;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the height of the tree representing {@code this}: 0 if
+     * {@code this} is empty, and otherwise the number of nodes on a longest
+     * path from the root to a leaf. It is less than
+     * {@code 1.45 log2(|this| + 2)}.
+     *
+     * @return the height of the tree
+     * @ensures height = [height of the tree representing this]
+     */
+    public final int height() {
+        return this.heightOf(this.root);
+    }
+
+}
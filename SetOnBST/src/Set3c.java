@@ -0,0 +1,379 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a binary search tree of nodes, done
+ * "bare-handed", with implementations of primary methods.
+ *
+ * <p>
+ * This is the same representation as {@code Set3a}, but without the
+ * {@code BinaryTree} component in between: {@code contains}, {@code add},
+ * {@code remove} and {@code removeAny} walk down the tree in a loop,
+ * following child references, instead of recursing and disassembling and
+ * reassembling a {@code BinaryTree} (with two new subtrees) at every level.
+ * {@code contains} allocates nothing, {@code add} allocates just the new node,
+ * and no method recurses, so a tree made degenerate by sorted input is slow
+ * but cannot overflow the stack. The tree is not rebalanced; {@code Set3b}
+ * is the balanced alternative.
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * IS_BST(
+ *   tree: binary tree of T
+ *  ): boolean satisfies
+ *  [tree satisfies the binary search tree properties as described in the
+ *   slides with the ordering reported by compareTo for T, including that
+ *   it has no duplicate labels]
+ * </pre>
+ * @convention <pre>
+ * [$this.root is null or points to the root node of a binary tree whose
+ *  nodes are all reachable from $this.root exactly once]  and
+ * IS_BST([that tree])  and
+ * $this.size = [number of nodes in that tree]
+ * </pre>
+ * @correspondence this = [labels of the nodes of the tree at $this.root]
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public class Set3c<T extends Comparable<T>> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Node class for binary search tree nodes.
+     */
+    private final class Node {
+
+        /**
+         * Label of node.
+         */
+        private T label;
+
+        /**
+         * Root of left subtree, or null.
+         */
+        private Node left;
+
+        /**
+         * Root of right subtree, or null.
+         */
+        private Node right;
+
+        /**
+         * Constructor for a leaf.
+         *
+         * @param label
+         *            the label of the leaf
+         */
+        Node(T label) {
+            this.label = label;
+            this.left = null;
+            this.right = null;
+        }
+
+    }
+
+    /**
+     * Root node of the tree, or null if the tree is empty.
+     */
+    private Node root;
+
+    /**
+     * Number of nodes in the tree.
+     */
+    private int size;
+
+    /**
+     * Returns the node labeled {@code x}, or null if there is none.
+     *
+     * @param x
+     *            the label to be searched for
+     * @return the node labeled x, or null
+     * @ensures <pre>
+     * if x is in this
+     *  then findNode.label = x
+     *  else findNode = null
+     * </pre>
+     */
+    private Node findNode(T x) {
+        Node n = this.root;
+        int c = 1;
+        while (n != null && c != 0) {
+            c = x.compareTo(n.label);
+            if (c < 0) {
+                n = n.left;
+            } else if (c > 0) {
+                n = n.right;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Removes node {@code n}, whose parent is {@code parent}, from the tree.
+     *
+     * @param n
+     *            the node to remove
+     * @param parent
+     *            the parent of n, or null if n is the root
+     * @updates this
+     * @requires <pre>
+     * [n is a node of the tree]  and
+     * [parent is the parent of n, or null if n is $this.root]
+     * </pre>
+     * @ensures this = #this \ {n.label}
+     */
+    private void removeNode(Node n, Node parent) {
+        if (n.left != null && n.right != null) {
+            /*
+             * Move the smallest label of the right subtree into n, and unlink
+             * the node that held it instead; that node has no left child.
+             */
+            Node smallestParent = n;
+            Node smallest = n.right;
+            while (smallest.left != null) {
+                smallestParent = smallest;
+                smallest = smallest.left;
+            }
+            n.label = smallest.label;
+            this.removeNode(smallest, smallestParent);
+        } else {
+            Node child = n.left;
+            if (child == null) {
+                child = n.right;
+            }
+            if (parent == null) {
+                this.root = child;
+            } else if (parent.left == n) {
+                parent.left = child;
+            } else {
+                parent.right = child;
+            }
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     */
+    private void createNewRep() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set3c() {
+        this.createNewRep();
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep();
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set3c<?> : ""
+                + "Violation of: source is of dynamic type Set3c<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set3c<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set3c<T> localSource = (Set3c<T>) source;
+        this.root = localSource.root;
+        this.size = localSource.size;
+        localSource.createNewRep();
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert !this.contains(x) : "Violation of: x is not in this";
+
+        Node leaf = new Node(x);
+        if (this.root == null) {
+            this.root = leaf;
+        } else {
+            Node n = this.root;
+            boolean placed = false;
+            while (!placed) {
+                if (x.compareTo(n.label) < 0) {
+                    if (n.left == null) {
+                        n.left = leaf;
+                        placed = true;
+                    } else {
+                        n = n.left;
+                    }
+                } else {
+                    if (n.right == null) {
+                        n.right = leaf;
+                        placed = true;
+                    } else {
+                        n = n.right;
+                    }
+                }
+            }
+        }
+        this.size++;
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        Node parent = null;
+        Node n = this.root;
+        int c = 1;
+        while (n != null && c != 0) {
+            c = x.compareTo(n.label);
+            if (c != 0) {
+                parent = n;
+                if (c < 0) {
+                    n = n.left;
+                } else {
+                    n = n.right;
+                }
+            }
+        }
+        assert n != null : "Violation of: x is in this";
+
+        T removed = n.label;
+        this.removeNode(n, parent);
+        this.size--;
+        return removed;
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: this /= empty_set";
+
+        Node parent = null;
+        Node smallest = this.root;
+        while (smallest.left != null) {
+            parent = smallest;
+            smallest = smallest.left;
+        }
+        T removed = smallest.label;
+        this.removeNode(smallest, parent);
+        this.size--;
+        return removed;
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.findNode(x) != null;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set3cIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set3c}. The
+     * elements are delivered in increasing order.
+     */
+    private final class Set3cIterator implements Iterator<T> {
+
+        /**
+         * Nodes whose labels and right subtrees are still to be visited, the
+         * next one on top.
+         */
+        private final Deque<Node> pending;
+
+        /**
+         * No-argument constructor.
+         */
+        Set3cIterator() {
+            this.pending = new ArrayDeque<Node>();
+            this.pushLeftPath(Set3c.this.root);
+        }
+
+        /**
+         * Pushes {@code n} and its chain of left descendants.
+         *
+         * @param n
+         *            the first node to push, or null
+         */
+        private void pushLeftPath(Node n) {
+            Node p = n;
+            while (p != null) {
+                this.pending.push(p);
+                p = p.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.pending.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            Node n = this.pending.pop();
+            this.pushLeftPath(n.right);
+            return n.label;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -1,3 +1,11 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import components.queue.Queue;
+import components.queue.Queue1L;
 import components.set.Set;
 import components.set.Set1L;
 
@@ -6,6 +14,31 @@ import components.set.Set1L;
  */
 public class Set3aTest extends SetTest {
 
+    /**
+     * Number of elements bulk-loaded by the sorted constructor test.
+     */
+    private static final int BULK_SIZE = 100000;
+
+    /**
+     * Height of a perfectly balanced tree of {@code BULK_SIZE} nodes.
+     */
+    private static final int BULK_HEIGHT = 17;
+
+    /**
+     * Spacing of the lookups in the sorted constructor test.
+     */
+    private static final int BULK_STEP = 997;
+
+    /**
+     * Number of sorted elements added one at a time by the rebalance test.
+     */
+    private static final int DEGENERATE_SIZE = 200;
+
+    /**
+     * Height of a perfectly balanced tree of {@code DEGENERATE_SIZE} nodes.
+     */
+    private static final int DEGENERATE_HEIGHT = 8;
+
     @Override
     protected final Set<String> constructorTest() {
         return new Set3a<String>();
@@ -16,4 +49,306 @@ public class Set3aTest extends SetTest {
         return new Set1L<String>();
     }
 
+    /**
+     * Returns a new {@code Set3a} with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures createSet3a = [entries in args]
+     */
+    private static Set3a<String> createSet3a(String... args) {
+        Set3a<String> set = new Set3a<String>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /**
+     * Returns a new {@code Set1L} with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures createRef = [entries in args]
+     */
+    private static Set<String> createRef(String... args) {
+        Set<String> set = new Set1L<String>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /** addAll routine case - argument of the same type. */
+    @Test
+    public final void testAddAllSame() {
+        Set3a<String> s = createSet3a("b", "d", "f");
+        Set<String> t = createSet3a("a", "b", "c", "g");
+        s.addAll(t);
+
+        assertEquals(createRef("a", "b", "c", "d", "f", "g"), s);
+        assertEquals(createRef("a", "b", "c", "g"), t);
+    }
+
+    /** addAll routine case - argument of another type. */
+    @Test
+    public final void testAddAllOther() {
+        Set3a<String> s = createSet3a("b", "d", "f");
+        Set<String> t = createRef("f", "e", "a");
+        s.addAll(t);
+
+        assertEquals(createRef("a", "b", "d", "e", "f"), s);
+        assertEquals(createRef("a", "e", "f"), t);
+    }
+
+    /** addAll boundary case - empty sets. */
+    @Test
+    public final void testAddAllEmpty() {
+        Set3a<String> s = createSet3a();
+        s.addAll(createSet3a());
+        assertEquals(0, s.size());
+        s.addAll(createRef("x"));
+        assertEquals(createRef("x"), s);
+        s.addAll(createSet3a());
+        assertEquals(createRef("x"), s);
+    }
+
+    /** retainAll routine case - argument of the same type. */
+    @Test
+    public final void testRetainAllSame() {
+        Set3a<String> s = createSet3a("a", "c", "e", "g", "i");
+        Set<String> t = createSet3a("b", "c", "d", "g", "z");
+        s.retainAll(t);
+
+        assertEquals(createRef("c", "g"), s);
+        assertEquals(createRef("b", "c", "d", "g", "z"), t);
+    }
+
+    /** retainAll routine case - argument of another type. */
+    @Test
+    public final void testRetainAllOther() {
+        Set3a<String> s = createSet3a("a", "c", "e", "g", "i");
+        Set<String> t = createRef("i", "a", "b");
+        s.retainAll(t);
+
+        assertEquals(createRef("a", "i"), s);
+        assertEquals(createRef("a", "b", "i"), t);
+    }
+
+    /** retainAll boundary case - disjoint sets. */
+    @Test
+    public final void testRetainAllDisjoint() {
+        Set3a<String> s = createSet3a("a", "b");
+        s.retainAll(createSet3a("c", "d"));
+        assertEquals(0, s.size());
+    }
+
+    /** removeAll routine case - argument of the same type. */
+    @Test
+    public final void testRemoveAllSame() {
+        Set3a<String> s = createSet3a("a", "c", "e", "g", "i");
+        Set<String> t = createSet3a("a", "b", "g", "i", "j");
+        s.removeAll(t);
+
+        assertEquals(createRef("c", "e"), s);
+        assertEquals(createRef("a", "b", "g", "i", "j"), t);
+    }
+
+    /** removeAll routine case - argument of another type. */
+    @Test
+    public final void testRemoveAllOther() {
+        Set3a<String> s = createSet3a("a", "c", "e", "g", "i");
+        Set<String> t = createRef("e", "z");
+        s.removeAll(t);
+
+        assertEquals(createRef("a", "c", "g", "i"), s);
+        assertEquals(createRef("e", "z"), t);
+    }
+
+    /** isSubset routine cases - argument of the same type. */
+    @Test
+    public final void testIsSubsetSame() {
+        Set3a<String> s = createSet3a("b", "d");
+
+        assertEquals(true, s.isSubset(createSet3a("a", "b", "c", "d")));
+        assertEquals(true, s.isSubset(createSet3a("b", "d")));
+        assertEquals(false, s.isSubset(createSet3a("a", "b", "c")));
+        assertEquals(false, s.isSubset(createSet3a("a", "c", "d", "e")));
+        assertEquals(false, s.isSubset(createSet3a("d")));
+        assertEquals(true, createSet3a().isSubset(createSet3a()));
+    }
+
+    /** isSubset routine cases - argument of another type. */
+    @Test
+    public final void testIsSubsetOther() {
+        Set3a<String> s = createSet3a("b", "d");
+
+        assertEquals(true, s.isSubset(createRef("d", "c", "b")));
+        assertEquals(false, s.isSubset(createRef("d", "c", "a")));
+        assertEquals(true, createSet3a().isSubset(createRef("a")));
+    }
+
+    /** iterator routine case - elements come out in increasing order. */
+    @Test
+    public final void testIteratorOrder() {
+        Set3a<String> s = createSet3a("m", "c", "x", "a", "e", "q");
+        StringBuilder seen = new StringBuilder();
+        for (String x : s) {
+            seen.append(x);
+        }
+        assertEquals("acemqx", seen.toString());
+    }
+
+    /** floor and ceiling routine cases - present and absent bounds. */
+    @Test
+    public final void testFloorCeiling() {
+        Set3a<String> s = createSet3a("m", "c", "x", "a", "e", "q");
+
+        assertEquals("e", s.floor("e"));
+        assertEquals("e", s.ceiling("e"));
+        assertEquals("e", s.floor("f"));
+        assertEquals("m", s.ceiling("f"));
+        assertEquals("q", s.floor("r"));
+        assertEquals("x", s.ceiling("r"));
+        assertEquals("x", s.floor("z"));
+        assertEquals("a", s.ceiling("0"));
+    }
+
+    /** floor and ceiling boundary cases - no such element. */
+    @Test
+    public final void testFloorCeilingNone() {
+        Set3a<String> s = createSet3a("m", "c", "x");
+
+        assertEquals(null, s.floor("b"));
+        assertEquals(null, s.ceiling("y"));
+        assertEquals(null, createSet3a().floor("m"));
+        assertEquals(null, createSet3a().ceiling("m"));
+    }
+
+    /** rank and select routine cases - every position. */
+    @Test
+    public final void testRankSelect() {
+        Set3a<String> s = createSet3a("m", "c", "x", "a", "e", "q");
+        String[] sorted = { "a", "c", "e", "m", "q", "x" };
+
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i, s.rank(sorted[i]));
+            assertEquals(sorted[i], s.select(i));
+        }
+        assertEquals(0, s.rank("0"));
+        assertEquals(3, s.rank("f"));
+        assertEquals(sorted.length, s.rank("z"));
+        assertEquals(6, s.size());
+    }
+
+    /** range routine cases - bounds present, absent, and empty ranges. */
+    @Test
+    public final void testRange() {
+        Set3a<String> s = createSet3a("m", "c", "x", "a", "e", "q");
+
+        assertEquals("cem", concatenate(s.range("c", "q")));
+        assertEquals("em", concatenate(s.range("d", "n")));
+        assertEquals("acemqx", concatenate(s.range("0", "z")));
+        assertEquals("", concatenate(s.range("f", "l")));
+        assertEquals("", concatenate(s.range("q", "c")));
+        assertEquals(6, s.size());
+    }
+
+    /** range on a large tree - later changes do not affect the iterator. */
+    @Test
+    public final void testRangeLarge() {
+        Queue<Integer> evens = new Queue1L<Integer>();
+        for (int i = 0; i < BULK_SIZE; i += 2) {
+            evens.enqueue(i);
+        }
+        Set3a<Integer> s = new Set3a<Integer>(evens);
+        int height = s.height();
+        Iterator<Integer> it = s.range(BULK_SIZE / 4, BULK_SIZE / 2 + 1);
+        s.add(BULK_SIZE / 4 + 1);
+
+        for (int i = BULK_SIZE / 4; i <= BULK_SIZE / 2; i += 2) {
+            assertEquals(true, it.hasNext());
+            assertEquals(i, it.next().intValue());
+        }
+        assertEquals(false, it.hasNext());
+        assertEquals(BULK_SIZE / 2 + 1, s.size());
+        assertEquals(true, s.height() <= height + 1);
+    }
+
+    /**
+     * Returns the concatenation of the strings delivered by {@code it}.
+     *
+     * @param it
+     *            the iterator
+     * @return the concatenation
+     */
+    private static String concatenate(Iterator<String> it) {
+        StringBuilder all = new StringBuilder();
+        while (it.hasNext()) {
+            all.append(it.next());
+        }
+        return all.toString();
+    }
+
+    /** constructor from sorted input - builds a perfectly balanced tree. */
+    @Test
+    public final void testSortedConstructor() {
+        Queue<Integer> sorted = new Queue1L<Integer>();
+        for (int i = 0; i < BULK_SIZE; i++) {
+            sorted.enqueue(i);
+        }
+        Set3a<Integer> s = new Set3a<Integer>(sorted);
+
+        assertEquals(BULK_SIZE, s.size());
+        assertEquals(BULK_SIZE, sorted.length());
+        assertEquals(BULK_HEIGHT, s.height());
+        for (int i = 0; i < BULK_SIZE; i += BULK_STEP) {
+            assertEquals(i, s.rank(i));
+        }
+        assertEquals(false, s.contains(BULK_SIZE));
+    }
+
+    /** constructor from sorted input boundary case - no elements. */
+    @Test
+    public final void testSortedConstructorEmpty() {
+        Set3a<String> s = new Set3a<String>(new Queue1L<String>());
+
+        assertEquals(0, s.size());
+        assertEquals(0, s.height());
+    }
+
+    /** addAllSorted routine case - merged into a non-empty set. */
+    @Test
+    public final void testAddAllSortedNonEmpty() {
+        Set3a<String> s = createSet3a("b", "d", "f");
+        Queue<String> sorted = new Queue1L<String>();
+        sorted.enqueue("a");
+        sorted.enqueue("d");
+        sorted.enqueue("g");
+        s.addAllSorted(sorted);
+
+        assertEquals(createRef("a", "b", "d", "f", "g"), s);
+    }
+
+    /** rebalance challenging case - a degenerate tree becomes balanced. */
+    @Test
+    public final void testRebalance() {
+        Set3a<Integer> s = new Set3a<Integer>();
+        for (int i = 0; i < DEGENERATE_SIZE; i++) {
+            s.add(i);
+        }
+        assertEquals(DEGENERATE_SIZE, s.height());
+        s.rebalance();
+
+        assertEquals(DEGENERATE_SIZE, s.size());
+        assertEquals(DEGENERATE_HEIGHT, s.height());
+        for (int i = 0; i < DEGENERATE_SIZE; i++) {
+            assertEquals(Integer.valueOf(i), s.select(i));
+        }
+    }
+
 }
@@ -0,0 +1,121 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set3b}.
+ */
+public class Set3bTest extends SetTest {
+
+    /**
+     * Number of elements inserted by the height tests: a perfect tree of them
+     * has height {@code PERFECT_HEIGHT}.
+     */
+    private static final int PERFECT_SIZE = 1023;
+
+    /**
+     * Height of a perfect tree of {@code PERFECT_SIZE} nodes.
+     */
+    private static final int PERFECT_HEIGHT = 10;
+
+    /**
+     * Number of elements inserted by the large tests.
+     */
+    private static final int LARGE_SIZE = 100000;
+
+    /**
+     * Largest height of an AVL tree of {@code LARGE_SIZE} nodes.
+     */
+    private static final int LARGE_HEIGHT_BOUND = 24;
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set3b<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /** height boundary cases - empty set and one element. */
+    @Test
+    public final void testHeightSmall() {
+        Set3b<String> s = new Set3b<String>();
+        assertEquals(0, s.height());
+        s.add("a");
+        assertEquals(1, s.height());
+        s.add("b");
+        assertEquals(2, s.height());
+        s.add("c");
+        assertEquals(2, s.height());
+    }
+
+    /** height challenging case - sorted insertion stays balanced. */
+    @Test
+    public final void testHeightSortedInsertion() {
+        Set3b<Integer> s = new Set3b<Integer>();
+        for (int i = 0; i < PERFECT_SIZE; i++) {
+            s.add(i);
+        }
+        assertEquals(PERFECT_SIZE, s.size());
+        assertEquals(PERFECT_HEIGHT, s.height());
+    }
+
+    /** height challenging case - reverse-sorted insertion stays balanced. */
+    @Test
+    public final void testHeightReverseSortedInsertion() {
+        Set3b<Integer> s = new Set3b<Integer>();
+        for (int i = PERFECT_SIZE - 1; i >= 0; i--) {
+            s.add(i);
+        }
+        assertEquals(PERFECT_SIZE, s.size());
+        assertEquals(PERFECT_HEIGHT, s.height());
+    }
+
+    /** iterator routine case - elements come out in increasing order. */
+    @Test
+    public final void testIteratorOrder() {
+        Set3b<String> s = new Set3b<String>();
+        s.add("m");
+        s.add("c");
+        s.add("x");
+        s.add("a");
+        s.add("e");
+        StringBuilder seen = new StringBuilder();
+        for (String x : s) {
+            seen.append(x);
+        }
+        assertEquals("acemx", seen.toString());
+    }
+
+    /** add/remove challenging case - many sorted keys, every other removed. */
+    @Test
+    public final void testLargeSortedAddRemove() {
+        Set3b<Integer> s = new Set3b<Integer>();
+        for (int i = 0; i < LARGE_SIZE; i++) {
+            s.add(i);
+        }
+        assertTrue(s.height() <= LARGE_HEIGHT_BOUND);
+        for (int i = 0; i < LARGE_SIZE; i += 2) {
+            assertEquals(Integer.valueOf(i), s.remove(i));
+        }
+        assertEquals(LARGE_SIZE / 2, s.size());
+        assertTrue(s.height() <= LARGE_HEIGHT_BOUND);
+        for (int i = 0; i < LARGE_SIZE; i++) {
+            assertEquals(i % 2 == 1, s.contains(i));
+        }
+        int previous = -1;
+        while (s.size() > 0) {
+            int x = s.removeAny();
+            assertTrue(previous < x);
+            previous = x;
+        }
+        assertEquals(0, s.height());
+    }
+
+}
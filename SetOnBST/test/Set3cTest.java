@@ -0,0 +1,94 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import components.set.Set;
+import components.set.Set1L;
+
+/**
+ * Customized JUnit test fixture for {@code Set3c}.
+ */
+public class Set3cTest extends SetTest {
+
+    /**
+     * Number of sorted elements inserted by the deep-tree test; the tree is a
+     * path this long, far deeper than recursion could handle.
+     */
+    private static final int DEEP_SIZE = 20000;
+
+    /**
+     * Spacing of the lookups in the deep-tree test.
+     */
+    private static final int PROBE_STEP = 100;
+
+    @Override
+    protected final Set<String> constructorTest() {
+        return new Set3c<String>();
+    }
+
+    @Override
+    protected final Set<String> constructorRef() {
+        return new Set1L<String>();
+    }
+
+    /** remove routine cases - leaf, one child, two children, and root. */
+    @Test
+    public final void testRemoveShapes() {
+        Set3c<String> s = new Set3c<String>();
+        String[] labels = { "m", "f", "t", "b", "h", "p", "x", "g" };
+        for (String x : labels) {
+            s.add(x);
+        }
+        assertEquals("b", s.remove("b"));
+        assertEquals("h", s.remove("h"));
+        assertEquals("t", s.remove("t"));
+        assertEquals("m", s.remove("m"));
+        Set<String> expected = new Set1L<String>();
+        for (String x : new String[] { "f", "g", "p", "x" }) {
+            expected.add(x);
+        }
+        assertEquals(expected, s);
+    }
+
+    /** iterator routine case - elements come out in increasing order. */
+    @Test
+    public final void testIteratorOrder() {
+        Set3c<String> s = new Set3c<String>();
+        s.add("m");
+        s.add("c");
+        s.add("x");
+        s.add("a");
+        s.add("e");
+        StringBuilder seen = new StringBuilder();
+        for (String x : s) {
+            seen.append(x);
+        }
+        assertEquals("acemx", seen.toString());
+    }
+
+    /** challenging case - a degenerate tree does not overflow the stack. */
+    @Test
+    public final void testDeepTree() {
+        Set3c<Integer> s = new Set3c<Integer>();
+        for (int i = 0; i < DEEP_SIZE; i++) {
+            s.add(i);
+        }
+        for (int i = 0; i < DEEP_SIZE; i += PROBE_STEP) {
+            assertTrue(s.contains(i));
+        }
+        assertEquals(false, s.contains(DEEP_SIZE));
+        int count = 0;
+        for (int x : s) {
+            assertEquals(count, x);
+            count++;
+        }
+        assertEquals(DEEP_SIZE, count);
+        assertEquals(Integer.valueOf(DEEP_SIZE - 1), s.remove(DEEP_SIZE - 1));
+        while (s.size() > 0) {
+            s.removeAny();
+        }
+        assertEquals(false, s.contains(0));
+    }
+
+}
@@ -56,6 +56,59 @@ public class Set2<T> extends SetSecondary<T> {
         }
     }
 
+    /**
+     * Returns a hashed set with the same elements as {@code s}: {@code s}
+     * itself if it is already a {@code Set4}, and a new {@code Set4} copy of
+     * it otherwise.
+     *
+     * @param <T>
+     *            type of {@code Set} elements
+     * @param s
+     *            the set
+     * @return a {@code Set4} equal to s
+     * @ensures hashed = s
+     */
+    private static <T> Set4<T> hashed(Set<T> s) {
+        Set4<T> index;
+        if (s instanceof Set4<?>) {
+            index = (Set4<T>) s;
+        } else {
+            index = new Set4<T>(Math.max(1, s.size()));
+            for (T x : s) {
+                index.add(x);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Keeps just the elements of {@code this} whose membership in {@code s} is
+     * {@code inS}, probing a hashed copy of {@code s} once per element.
+     *
+     * @param s
+     *            the set to test membership in
+     * @param inS
+     *            whether to keep the elements in {@code s} or those not in
+     *            {@code s}
+     * @updates this
+     * @ensures <pre>
+     * if inS
+     *  then this = #this intersection s
+     *  else this = #this \ s
+     * </pre>
+     */
+    private void keepWhereMembershipIs(Set<T> s, boolean inS) {
+        Set4<T> index = hashed(s);
+        Queue<T> kept = this.elements.newInstance();
+        while (this.elements.length() > 0) {
+            T x = this.elements.dequeue();
+            if (index.contains(x) == inS) {
+                kept.enqueue(x);
+            }
+        }
+        this.elements.transferFrom(kept);
+    }
+
     /**
      * Creator of initial representation.
      */
@@ -176,4 +229,96 @@ public class Set2<T> extends SetSecondary<T> {
         return this.elements.iterator();
     }
 
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Adds to {@code this} all elements of {@code s}, leaving {@code s}
+     * unchanged. The elements of {@code this} are indexed in a hash table
+     * first, so this takes expected time linear in {@code |this| + |s|}.
+     *
+     * @param s
+     *            the set whose elements are to be added
+     * @updates this
+     * @requires s is not this
+     * @ensures this = #this union s
+     */
+    public final void addAll(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        Set4<T> index = hashed(this);
+        for (T x : s) {
+            if (!index.contains(x)) {
+                this.elements.enqueue(x);
+            }
+        }
+    }
+
+    /**
+     * Removes from {@code this} all elements that are not in {@code s}. The
+     * elements of {@code s} are indexed in a hash table first (unless
+     * {@code s} is already a {@code Set4}), so this takes expected time linear
+     * in {@code |this| + |s|}.
+     *
+     * @param s
+     *            the set of elements to keep
+     * @updates this
+     * @requires s is not this
+     * @ensures this = #this intersection s
+     */
+    public final void retainAll(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        this.keepWhereMembershipIs(s, true);
+    }
+
+    /**
+     * Removes from {@code this} all elements that are in {@code s}. The
+     * elements of {@code s} are indexed in a hash table first (unless
+     * {@code s} is already a {@code Set4}), so this takes expected time linear
+     * in {@code |this| + |s|}.
+     *
+     * @param s
+     *            the set of elements to remove
+     * @updates this
+     * @requires s is not this
+     * @ensures this = #this \ s
+     */
+    public final void removeAll(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+        assert s != this : "Violation of: s is not this";
+
+        this.keepWhereMembershipIs(s, false);
+    }
+
+    /**
+     * Reports whether {@code this} is a subset of {@code s}. The elements of
+     * {@code s} are indexed in a hash table first (unless {@code s} is already
+     * a {@code Set4}), so this takes expected time linear in
+     * {@code |this| + |s|}.
+     *
+     * @param s
+     *            the second set
+     * @return whether this is a subset of s
+     * @ensures isSubset = this is subset of s
+     */
+    @Override
+    public final boolean isSubset(Set<T> s) {
+        assert s != null : "Violation of: s is not null";
+
+        boolean subset = this.size() <= s.size();
+        if (subset && s != this) {
+            Set4<T> index = hashed(s);
+            for (T x : this.elements) {
+                if (subset && !index.contains(x)) {
+                    subset = false;
+                }
+            }
+        }
+        return subset;
+    }
+
 }
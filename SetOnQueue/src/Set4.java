@@ -0,0 +1,429 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.set.Set;
+import components.set.SetSecondary;
+
+/**
+ * {@code Set} represented as a dense array of elements indexed by an
+ * open-addressing hash table (linear probing), with implementations of
+ * primary methods.
+ * <p>
+ * The elements are kept packed at the front of {@code elements}, and each
+ * non-empty slot of {@code slots} holds one more than the position of an
+ * element in {@code elements}. {@code contains}, {@code add} and
+ * {@code remove} probe {@code slots} in expected constant time;
+ * {@code removeAny} removes the last element of {@code elements}, and
+ * {@code remove} fills the hole it leaves with the last element, so both stay
+ * constant time. Removed slots are closed up by shifting later entries of
+ * their probe run back, so the table never fills up with deleted markers.
+ *
+ * @param <T>
+ *            type of {@code Set} elements
+ * @mathdefinitions <pre>
+ * HOME (
+ *   h: integer,
+ *   n: integer
+ *  ) : integer is
+ *  (h xor (h >>> 16)) mod n
+ * </pre>
+ * @convention <pre>
+ * |$this.elements| = |$this.hashes|  and
+ * $this.size <= |$this.elements|  and
+ * [|$this.slots| is a power of 2]  and  2 * |$this.elements| <= |$this.slots|
+ *   and
+ * for all i: integer where (0 <= i < $this.size)
+ *   ($this.elements[i] /= null  and
+ *    $this.hashes[i] = [computed result of $this.elements[i].hashCode()]  and
+ *    [exactly one slot s has $this.slots[s] = i + 1, and no slot between
+ *     HOME($this.hashes[i], |$this.slots|) and s (going around the table)
+ *     is 0]  and
+ *    [no other j in [0, $this.size) has $this.elements[j] = $this.elements[i]])
+ *   and
+ * [every non-zero entry of $this.slots is in [1, $this.size]]
+ * </pre>
+ * @correspondence <pre>
+ * this = {x: T where (there exists i: integer
+ *           (0 <= i < $this.size  and  $this.elements[i] = x))}
+ * </pre>
+ *
+ * @author Mohammed Maalin
+ * @author Nur Adem
+ *
+ */
+public class Set4<T> extends SetSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Default capacity of {@code elements}.
+     */
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /**
+     * Elements of {@code this}, packed into positions [0, size).
+     */
+    private T[] elements;
+
+    /**
+     * Cached hash codes of the elements, parallel to {@code elements}.
+     */
+    private int[] hashes;
+
+    /**
+     * Hash index: each slot is 0 (empty) or one more than the position of an
+     * element in {@code elements}.
+     */
+    private int[] slots;
+
+    /**
+     * Size of {@code this}.
+     */
+    private int size;
+
+    /**
+     * Returns the home slot of hash code {@code h} in a table of
+     * {@code mask + 1} slots.
+     *
+     * @param h
+     *            the hash code
+     * @param mask
+     *            the number of slots minus 1
+     * @return the home slot of {@code h}
+     * @requires [mask + 1 is a power of 2]
+     * @ensures home = HOME(h, mask + 1)
+     */
+    private static int home(int h, int mask) {
+        return (h ^ (h >>> (Integer.SIZE / 2))) & mask;
+    }
+
+    /**
+     * Returns the slot that indexes {@code x}, or, if {@code x} is not in
+     * {@code this}, the empty slot where it would be indexed.
+     *
+     * @param x
+     *            the element to look for
+     * @param hash
+     *            the hash code of {@code x}
+     * @return the slot for {@code x}
+     * @requires hash = [computed result of x.hashCode()]
+     * @ensures <pre>
+     * if x is in this
+     *  then $this.elements[$this.slots[slotFor] - 1] = x
+     *  else $this.slots[slotFor] = 0
+     * </pre>
+     */
+    private int slotFor(T x, int hash) {
+        int mask = this.slots.length - 1;
+        int s = home(hash, mask);
+        while (this.slots[s] != 0 && !(this.hashes[this.slots[s] - 1] == hash
+                && x.equals(this.elements[this.slots[s] - 1]))) {
+            s = (s + 1) & mask;
+        }
+        return s;
+    }
+
+    /**
+     * Returns the slot that indexes position {@code i} of
+     * {@code $this.elements}.
+     *
+     * @param i
+     *            the position
+     * @return the slot holding {@code i + 1}
+     * @requires 0 <= i < $this.size
+     * @ensures $this.slots[slotOf] = i + 1
+     */
+    private int slotOf(int i) {
+        int mask = this.slots.length - 1;
+        int s = home(this.hashes[i], mask);
+        while (this.slots[s] != i + 1) {
+            s = (s + 1) & mask;
+        }
+        return s;
+    }
+
+    /**
+     * Empties slot {@code s}, shifting back later entries of its probe run
+     * that would otherwise no longer be reachable from their home slots.
+     *
+     * @param s
+     *            the slot to empty
+     * @updates $this.slots
+     * @requires $this.slots[s] /= 0
+     * @ensures <pre>
+     * [the entry #$this.slots[s] is gone from $this.slots, and every other
+     *  entry is still reachable from its home slot]
+     * </pre>
+     */
+    private void deleteSlot(int s) {
+        int mask = this.slots.length - 1;
+        int hole = s;
+        int j = (s + 1) & mask;
+        while (this.slots[j] != 0) {
+            int h = home(this.hashes[this.slots[j] - 1], mask);
+            /*
+             * The entry at j may move into the hole unless its home slot lies
+             * cyclically in (hole, j].
+             */
+            boolean stays;
+            if (hole <= j) {
+                stays = hole < h && h <= j;
+            } else {
+                stays = hole < h || h <= j;
+            }
+            if (!stays) {
+                this.slots[hole] = this.slots[j];
+                hole = j;
+            }
+            j = (j + 1) & mask;
+        }
+        this.slots[hole] = 0;
+    }
+
+    /**
+     * Removes the element at position {@code i} of {@code $this.elements},
+     * whose index slot is {@code s}, moving the last element into its place.
+     *
+     * @param i
+     *            the position of the element to remove
+     * @param s
+     *            the slot indexing position {@code i}
+     * @return the removed element
+     * @updates this
+     * @requires 0 <= i < $this.size  and  $this.slots[s] = i + 1
+     * @ensures removeAt = #$this.elements[i]  and  this = #this \ {removeAt}
+     */
+    private T removeAt(int i, int s) {
+        T removed = this.elements[i];
+        this.deleteSlot(s);
+        int last = this.size - 1;
+        if (i != last) {
+            this.slots[this.slotOf(last)] = i + 1;
+            this.elements[i] = this.elements[last];
+            this.hashes[i] = this.hashes[last];
+        }
+        this.elements[last] = null;
+        this.size--;
+        return removed;
+    }
+
+    /**
+     * Moves the elements into arrays of capacity {@code capacity}, rebuilding
+     * the hash index.
+     *
+     * @param capacity
+     *            the new capacity
+     * @updates this
+     * @requires [capacity is a power of 2]  and  $this.size <= capacity
+     * @ensures this = #this  and  |$this.elements| = capacity
+     */
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        T[] oldElements = this.elements;
+        int[] oldHashes = this.hashes;
+        /*
+         * With "new T[...]" in place of "(T[]) new Object[...]" it does not
+         * compile; as shown, it results in a warning about an unchecked
+         * conversion, though it cannot fail since the array never leaves this
+         * object.
+         */
+        this.elements = (T[]) new Object[capacity];
+        this.hashes = new int[capacity];
+        this.slots = new int[2 * capacity];
+        System.arraycopy(oldElements, 0, this.elements, 0, this.size);
+        System.arraycopy(oldHashes, 0, this.hashes, 0, this.size);
+        for (int i = 0; i < this.size; i++) {
+            this.slots[this.slotFor(this.elements[i], this.hashes[i])] = i + 1;
+        }
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param capacity
+     *            the capacity of {@code elements}
+     * @requires [capacity is a power of 2]
+     * @ensures |$this.elements| = capacity  and  this = {}
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(int capacity) {
+        this.elements = (T[]) new Object[capacity];
+        this.hashes = new int[capacity];
+        this.slots = new int[2 * capacity];
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * No-argument constructor.
+     */
+    public Set4() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor resulting in a set that can hold {@code expectedSize}
+     * elements before it has to grow.
+     *
+     * @param expectedSize
+     *            expected number of elements
+     * @requires 0 < expectedSize <= 2^29
+     * @ensures this = {}
+     */
+    public Set4(int expectedSize) {
+        assert expectedSize > 0 : "Violation of: expectedSize > 0";
+        int capacity = 1;
+        while (capacity < expectedSize) {
+            capacity *= 2;
+        }
+        this.createNewRep(capacity);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final Set<T> newInstance() {
+        try {
+            return this.getClass().getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    @Override
+    public final void transferFrom(Set<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof Set4<?> : ""
+                + "Violation of: source is of dynamic type Set4<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type Set4<?>, and
+         * the ? must be T or the call would not have compiled.
+         */
+        Set4<T> localSource = (Set4<T>) source;
+        this.elements = localSource.elements;
+        this.hashes = localSource.hashes;
+        this.slots = localSource.slots;
+        this.size = localSource.size;
+        localSource.createNewRep(DEFAULT_CAPACITY);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        int hash = x.hashCode();
+        int s = this.slotFor(x, hash);
+        assert this.slots[s] == 0 : "Violation of: x is not in this";
+
+        if (this.size == this.elements.length) {
+            this.resize(2 * this.elements.length);
+            s = this.slotFor(x, hash);
+        }
+        this.elements[this.size] = x;
+        this.hashes[this.size] = hash;
+        this.slots[s] = this.size + 1;
+        this.size++;
+    }
+
+    @Override
+    public final T remove(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        int s = this.slotFor(x, x.hashCode());
+        assert this.slots[s] != 0 : "Violation of: x is in this";
+
+        return this.removeAt(this.slots[s] - 1, s);
+    }
+
+    @Override
+    public final T removeAny() {
+        assert this.size() > 0 : "Violation of: |this| > 0";
+
+        int last = this.size - 1;
+        return this.removeAt(last, this.slotOf(last));
+    }
+
+    @Override
+    public final boolean contains(T x) {
+        assert x != null : "Violation of: x is not null";
+
+        return this.slots[this.slotFor(x, x.hashCode())] != 0;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new Set4Iterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for {@code Set4}.
+     */
+    private final class Set4Iterator implements Iterator<T> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * No-argument constructor.
+         */
+        Set4Iterator() {
+            this.numberSeen = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < Set4.this.size;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = Set4.this.elements[this.numberSeen];
+            this.numberSeen++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+}
@@ -1,3 +1,7 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
 import components.set.Set;
 import components.set.Set1L;
 
@@ -16,4 +20,165 @@ public class Set2Test extends SetTest {
         return new Set1L<String>();
     }
 
+    /**
+     * Returns a new {@code Set2} with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures createSet2 = [entries in args]
+     */
+    private static Set2<String> createSet2(String... args) {
+        Set2<String> set = new Set2<String>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /**
+     * Returns a new {@code Set4}, which {@code Set2} probes directly, with the
+     * given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures createHashed = [entries in args]
+     */
+    private static Set<String> createHashed(String... args) {
+        Set<String> set = new Set4<String>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /**
+     * Returns a new {@code Set1L} with the given entries.
+     *
+     * @param args
+     *            the entries for the set
+     * @return the constructed set
+     * @requires [every entry in args is unique]
+     * @ensures createRef = [entries in args]
+     */
+    private static Set<String> createRef(String... args) {
+        Set<String> set = new Set1L<String>();
+        for (String s : args) {
+            set.add(s);
+        }
+        return set;
+    }
+
+    /** addAll routine case - argument already hashed. */
+    @Test
+    public final void testAddAllSame() {
+        Set2<String> s = createSet2("b", "d", "f");
+        Set<String> t = createHashed("a", "b", "c", "g");
+        s.addAll(t);
+
+        assertEquals(createRef("a", "b", "c", "d", "f", "g"), s);
+        assertEquals(createRef("a", "b", "c", "g"), t);
+    }
+
+    /** addAll routine case - argument of another type. */
+    @Test
+    public final void testAddAllOther() {
+        Set2<String> s = createSet2("b", "d", "f");
+        Set<String> t = createRef("f", "e", "a");
+        s.addAll(t);
+
+        assertEquals(createRef("a", "b", "d", "e", "f"), s);
+        assertEquals(createRef("a", "e", "f"), t);
+    }
+
+    /** addAll boundary case - empty sets. */
+    @Test
+    public final void testAddAllEmpty() {
+        Set2<String> s = createSet2();
+        s.addAll(createHashed());
+        assertEquals(0, s.size());
+        s.addAll(createRef("x"));
+        assertEquals(createRef("x"), s);
+        s.addAll(createHashed());
+        assertEquals(createRef("x"), s);
+    }
+
+    /** retainAll routine case - argument already hashed. */
+    @Test
+    public final void testRetainAllSame() {
+        Set2<String> s = createSet2("a", "c", "e", "g", "i");
+        Set<String> t = createHashed("b", "c", "d", "g", "z");
+        s.retainAll(t);
+
+        assertEquals(createRef("c", "g"), s);
+        assertEquals(createRef("b", "c", "d", "g", "z"), t);
+    }
+
+    /** retainAll routine case - argument of another type. */
+    @Test
+    public final void testRetainAllOther() {
+        Set2<String> s = createSet2("a", "c", "e", "g", "i");
+        Set<String> t = createRef("i", "a", "b");
+        s.retainAll(t);
+
+        assertEquals(createRef("a", "i"), s);
+        assertEquals(createRef("a", "b", "i"), t);
+    }
+
+    /** retainAll boundary case - disjoint sets. */
+    @Test
+    public final void testRetainAllDisjoint() {
+        Set2<String> s = createSet2("a", "b");
+        s.retainAll(createHashed("c", "d"));
+        assertEquals(0, s.size());
+    }
+
+    /** removeAll routine case - argument already hashed. */
+    @Test
+    public final void testRemoveAllSame() {
+        Set2<String> s = createSet2("a", "c", "e", "g", "i");
+        Set<String> t = createHashed("a", "b", "g", "i", "j");
+        s.removeAll(t);
+
+        assertEquals(createRef("c", "e"), s);
+        assertEquals(createRef("a", "b", "g", "i", "j"), t);
+    }
+
+    /** removeAll routine case - argument of another type. */
+    @Test
+    public final void testRemoveAllOther() {
+        Set2<String> s = createSet2("a", "c", "e", "g", "i");
+        Set<String> t = createRef("e", "z");
+        s.removeAll(t);
+
+        assertEquals(createRef("a", "c", "g", "i"), s);
+        assertEquals(createRef("e", "z"), t);
+    }
+
+    /** isSubset routine cases - argument already hashed. */
+    @Test
+    public final void testIsSubsetSame() {
+        Set2<String> s = createSet2("b", "d");
+
+        assertEquals(true, s.isSubset(createHashed("a", "b", "c", "d")));
+        assertEquals(true, s.isSubset(createHashed("b", "d")));
+        assertEquals(false, s.isSubset(createHashed("a", "b", "c")));
+        assertEquals(false, s.isSubset(createHashed("a", "c", "d", "e")));
+        assertEquals(false, s.isSubset(createHashed("d")));
+        assertEquals(true, createSet2().isSubset(createHashed()));
+    }
+
+    /** isSubset routine cases - argument of another type. */
+    @Test
+    public final void testIsSubsetOther() {
+        Set2<String> s = createSet2("b", "d");
+
+        assertEquals(true, s.isSubset(createRef("d", "c", "b")));
+        assertEquals(false, s.isSubset(createRef("d", "c", "a")));
+        assertEquals(true, createSet2().isSubset(createRef("a")));
+    }
+
 }
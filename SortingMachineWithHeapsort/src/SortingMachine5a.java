@@ -1,6 +1,8 @@
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 import components.queue.Queue;
 import components.queue.Queue1L;
@@ -11,6 +13,21 @@ import components.sortingmachine.SortingMachineSecondary;
  * {@code SortingMachine} represented as a {@code Queue} and an array (using an
  * embedding of heap sort), with implementations of primary methods.
  *
+ * <p>
+ * By default, {@code add} just enqueues its argument, and
+ * {@code changeToExtractionMode} moves all the entries into an array and
+ * turns it into a heap bottom-up (Floyd's method, linear time). A machine
+ * constructed in incremental mode instead keeps its entries in a heap from
+ * the start: {@code add} appends to a growable array and sifts the new entry
+ * up, in O(log n) time, and {@code changeToExtractionMode} takes constant
+ * time, so no single call pays for building the whole heap.
+ *
+ * <p>
+ * A caller that wants every entry in order can use {@code drainSorted}
+ * instead of calling {@code removeFirst} until the machine is empty: it sorts
+ * the whole array with {@code Arrays.parallelSort}, a fork-join merge sort that
+ * uses every available core, and then hands the entries over in order.
+ *
  * @param <T>
  *            type of {@code SortingMachine} entries
  * @mathdefinitions <pre>
@@ -42,22 +59,23 @@ import components.sortingmachine.SortingMachineSecondary;
  * </pre>
  * @convention <pre>
  * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method]  and
- * if $this.insertionMode then
+ * if $this.insertionMode  and  not $this.incremental then
  *   $this.heapSize = 0
  * else
  *   $this.entries = <>  and
  *   for all i: integer
- *       where (0 <= i  and  i < |$this.heap|)
+ *       where (0 <= i  and  i < $this.heapSize)
  *     ([entry at position i in $this.heap is not null])  and
  *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
  *     [relation computed by $this.machineOrder.compare method])  and
  *   0 <= $this.heapSize <= |$this.heap|
  * </pre>
  * @correspondence <pre>
- * if $this.insertionMode then
+ * if $this.insertionMode  and  not $this.incremental then
  *   this = (true, $this.machineOrder, multiset_entries($this.entries))
  * else
- *   this = (false, $this.machineOrder, multiset_entries($this.heap[0, $this.heapSize)))
+ *   this = ($this.insertionMode, $this.machineOrder,
+ *           multiset_entries($this.heap[0, $this.heapSize)))
  * </pre>
  *
  * @author Nur Adem
@@ -70,6 +88,11 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * Private members --------------------------------------------------------
      */
 
+    /**
+     * Initial length of the heap array of a machine in incremental mode.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
     //working
     /**
      * Order.
@@ -81,6 +104,11 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      */
     private boolean insertionMode;
 
+    /**
+     * Whether {@code add} puts entries straight into the heap.
+     */
+    private boolean incremental;
+
     /**
      * Entries.
      */
@@ -130,6 +158,11 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * Given an array that represents a complete binary tree and an index
      * referring to the root of a subtree that would be a heap except for its
      * root, sifts the root down to turn that whole subtree into a heap.
+     * <p>
+     * The root is lifted out, leaving a hole that moves down in its place while
+     * the smaller child of the hole is smaller than the root, and the root is
+     * stored once, where the hole stops. That takes at most two comparisons per
+     * level, and no recursion.
      *
      * @param <T>
      *            type of array entries
@@ -145,7 +178,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @requires <pre>
      * 0 <= top  and  last < |array|  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= last)
      *   ([entry at position i in array is not null])  and
      * [subtree rooted at {@code top} is a complete binary tree]  and
      * SUBTREE_IS_HEAP(array, 2 * top + 1, last,
@@ -163,15 +196,15 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * [the other entries in array are the same as in #array]
      * </pre>
      */
-    private static <T> void siftDown(T[] array, int top, int last,
+    static <T> void siftDown(T[] array, int top, int last,
             Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
         assert order != null : "Violation of: order is not null";
         assert 0 <= top : "Violation of: 0 <= top";
         assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
+        for (int i = 0; i <= last; i++) {
             assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
+                    + "Violation of: all entries in array[0, last] are not null";
         }
         assert isHeap(array, 2 * top + 1, last, order) : ""
                 + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 1, last,"
@@ -184,77 +217,170 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
          * requires clause, because it must be true when using the array
          * representation for a complete binary tree.
          */
-        int lTop = 2 * top + 1;
-        int rTop = 2 * top + 2;
-
-        if (lTop <= last) {
-            if (rTop <= last) {
-                if (order.compare(array[lTop], array[rTop]) > 0) {
-                    if (order.compare(array[rTop], array[top]) < 0) {
-                        exchangeEntries(array, rTop, top);
-                        siftDown(array, rTop, last, order);
-                    }
-                } else if (order.compare(array[lTop], array[top]) < 0) {
-                    exchangeEntries(array, lTop, top);
-                    siftDown(array, rTop, last, order);
-                }
-            } else if (order.compare(array[lTop], array[top]) < 0) {
-                exchangeEntries(array, lTop, top);
-                siftDown(array, lTop, last, order);
+        T x = array[top];
+        int hole = top;
+        int child = 2 * hole + 1;
+        boolean placed = false;
+        while (!placed && child <= last) {
+            if (child < last
+                    && order.compare(array[child + 1], array[child]) < 0) {
+                child++;
+            }
+            if (order.compare(array[child], x) < 0) {
+                array[hole] = array[child];
+                hole = child;
+                child = 2 * hole + 1;
+            } else {
+                placed = true;
             }
         }
+        array[hole] = x;
     }
 
     /**
-     * Heapifies the subtree of the given array rooted at the given {@code top}.
+     * Given an array that represents a complete binary tree and an index
+     * referring to the root of a subtree that would be a heap except for its
+     * root, sifts the root down to turn that whole subtree into a heap, using
+     * Floyd's bottom-up method.
+     * <p>
+     * The hole left by lifting out the root first moves all the way down to a
+     * leaf, always towards the smaller child, at one comparison per level;
+     * the root is then sifted up from there, which usually stops after a
+     * comparison or two, since the entry being sifted down (in
+     * {@code removeFirst}, the former last entry of the heap) tends to belong
+     * near the bottom. That is about half the comparisons of
+     * {@code siftDown}, which matters when comparisons are expensive.
      *
      * @param <T>
      *            type of array entries
      * @param array
      *            the complete binary tree
      * @param top
-     *            the index of the root of the "subtree" to heapify
+     *            the index of the root of the "subtree"
+     * @param last
+     *            the index of the last entry in the heap
      * @param order
-     *            the total preorder for sorting
+     *            total preorder for sorting
      * @updates array
      * @requires <pre>
-     * 0 <= top  and
+     * 0 <= top  and  last < |array|  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= last)
      *   ([entry at position i in array is not null])  and
      * [subtree rooted at {@code top} is a complete binary tree]  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 1, last,
+     *     [relation computed by order.compare method])  and
+     * SUBTREE_IS_HEAP(array, 2 * top + 2, last,
+     *     [relation computed by order.compare method])  and
      * IS_TOTAL_PREORDER([relation computed by order.compare method])
      * </pre>
      * @ensures <pre>
-     * SUBTREE_IS_HEAP(array, top, |array| - 1,
+     * SUBTREE_IS_HEAP(array, top, last,
      *     [relation computed by order.compare method])  and
-     * perms(array, #array)
+     * perms(array, #array)  and
+     * SUBTREE_ARRAY_ENTRIES(array, top, last) =
+     *  SUBTREE_ARRAY_ENTRIES(#array, top, last)  and
+     * [the other entries in array are the same as in #array]
      * </pre>
      */
-    private static <T> void heapify(T[] array, int top, Comparator<T> order) {
+    static <T> void siftDownBottomUp(T[] array, int top, int last,
+            Comparator<T> order) {
         assert array != null : "Violation of: array is not null";
         assert order != null : "Violation of: order is not null";
         assert 0 <= top : "Violation of: 0 <= top";
-        for (int i = 0; i < array.length; i++) {
+        assert last < array.length : "Violation of: last < |array|";
+        for (int i = 0; i <= last; i++) {
             assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
+                    + "Violation of: all entries in array[0, last] are not null";
         }
+        assert isHeap(array, 2 * top + 1, last, order) : ""
+                + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 1, last,"
+                + " [relation computed by order.compare method])";
+        assert isHeap(array, 2 * top + 2, last, order) : ""
+                + "Violation of: SUBTREE_IS_HEAP(array, 2 * top + 2, last,"
+                + " [relation computed by order.compare method])";
         /*
          * Impractical to check last requires clause; no need to check the other
          * requires clause, because it must be true when using the array
          * representation for a complete binary tree.
          */
-        int lTop = 2 * top + 1;
-        int rTop = 2 * top + 2;
-
-        if (rTop < array.length) {
-            heapify(array, lTop, order);
-            heapify(array, rTop, order);
-        } else if (lTop < array.length) {
-            heapify(array, rTop, order);
+        T x = array[top];
+        int hole = top;
+        int child = 2 * hole + 1;
+        while (child <= last) {
+            if (child < last
+                    && order.compare(array[child + 1], array[child]) < 0) {
+                child++;
+            }
+            array[hole] = array[child];
+            hole = child;
+            child = 2 * hole + 1;
         }
+        boolean placed = false;
+        while (!placed && hole > top) {
+            int parent = (hole - 1) / 2;
+            if (order.compare(x, array[parent]) < 0) {
+                array[hole] = array[parent];
+                hole = parent;
+            } else {
+                placed = true;
+            }
+        }
+        array[hole] = x;
+    }
 
-        siftDown(array, top, array.length - 1, order);
+    /**
+     * Given an array whose entries {@code [0, last)} form a heap, sifts the
+     * entry at index {@code last} up to turn entries {@code [0, last]} into a
+     * heap. The entry is moved into its final place once, rather than swapped
+     * with each ancestor it passes.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param last
+     *            the index of the entry to sift up, which is the last entry in
+     *            the heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * 0 <= last < |array|  and
+     * for all i: integer
+     *     where (0 <= i  and  i <= last)
+     *   ([entry at position i in array is not null])  and
+     * SUBTREE_IS_HEAP(array, 0, last - 1,
+     *     [relation computed by order.compare method])  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * SUBTREE_IS_HEAP(array, 0, last,
+     *     [relation computed by order.compare method])  and
+     * perms(array, #array)  and
+     * [the entries after index last are the same as in #array]
+     * </pre>
+     */
+    private static <T> void siftUp(T[] array, int last,
+            Comparator<T> order) {
+        assert array != null : "Violation of: array is not null";
+        assert order != null : "Violation of: order is not null";
+        assert 0 <= last : "Violation of: 0 <= last";
+        assert last < array.length : "Violation of: last < |array|";
+
+        T x = array[last];
+        int hole = last;
+        boolean placed = false;
+        while (hole > 0 && !placed) {
+            int parent = (hole - 1) / 2;
+            if (order.compare(x, array[parent]) < 0) {
+                array[hole] = array[parent];
+                hole = parent;
+            } else {
+                placed = true;
+            }
+        }
+        array[hole] = x;
     }
 
     /**
@@ -296,8 +422,14 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
             heap[i] = q.dequeue();
             i++;
         }
-        int top = 0;
-        heapify(heap, top, order);
+        /*
+         * Floyd's method: sift down every entry that has children, from the
+         * last one back to the root. Each subtree is a heap by the time its
+         * root is sifted down, and the total work is linear in |heap|.
+         */
+        for (int top = heap.length / 2 - 1; top >= 0; top--) {
+            siftDown(heap, top, heap.length - 1, order);
+        }
 
         return heap;
     }
@@ -321,7 +453,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @requires <pre>
      * 0 <= top  and  last < |array|  and
      * for all i: integer
-     *     where (0 <= i  and  i < |array|)
+     *     where (0 <= i  and  i <= last)
      *   ([entry at position i in array is not null])  and
      * [subtree rooted at {@code top} is a complete binary tree]
      * </pre>
@@ -335,9 +467,9 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert array != null : "Violation of: array is not null";
         assert 0 <= top : "Violation of: 0 <= top";
         assert last < array.length : "Violation of: last < |array|";
-        for (int i = 0; i < array.length; i++) {
+        for (int i = 0; i <= last; i++) {
             assert array[i] != null : ""
-                    + "Violation of: all entries in array are not null";
+                    + "Violation of: all entries in array[0, last] are not null";
         }
         /*
          * No need to check the other requires clause, because it must be true
@@ -364,12 +496,12 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * @return true if the convention holds (or if assertion checking is off);
      *         otherwise reports a violated assertion
      * @convention <pre>
-     * if $this.insertionMode then
+     * if $this.insertionMode  and  not $this.incremental then
      *   $this.heapSize = 0
      * else
      *   $this.entries = <>  and
      *   for all i: integer
-     *       where (0 <= i  and  i < |$this.heap|)
+     *       where (0 <= i  and  i < $this.heapSize)
      *     ([entry at position i in $this.heap is not null])  and
      *   SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,
      *     [relation computed by $this.machineOrder.compare method])  and
@@ -377,25 +509,30 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      * </pre>
      */
     private boolean conventionHolds() {
-        if (this.insertionMode) {
+        if (this.entriesInQueue()) {
             assert this.heapSize == 0 : ""
-                    + "Violation of: if $this.insertionMode then $this.heapSize = 0";
+                    + "Violation of: if $this.insertionMode and"
+                    + " not $this.incremental then $this.heapSize = 0";
         } else {
             assert this.entries.length() == 0 : ""
-                    + "Violation of: if not $this.insertionMode then $this.entries = <>";
+                    + "Violation of: if not $this.insertionMode or"
+                    + " $this.incremental then $this.entries = <>";
             assert 0 <= this.heapSize : ""
-                    + "Violation of: if not $this.insertionMode then 0 <= $this.heapSize";
+                    + "Violation of: if not $this.insertionMode or"
+                    + " $this.incremental then 0 <= $this.heapSize";
             assert this.heapSize <= this.heap.length : ""
-                    + "Violation of: if not $this.insertionMode then"
-                    + " $this.heapSize <= |$this.heap|";
-            for (int i = 0; i < this.heap.length; i++) {
+                    + "Violation of: if not $this.insertionMode or"
+                    + " $this.incremental then $this.heapSize <= |$this.heap|";
+            for (int i = 0; i < this.heapSize; i++) {
                 assert this.heap[i] != null : ""
-                        + "Violation of: if not $this.insertionMode then"
-                        + " all entries in $this.heap are not null";
+                        + "Violation of: if not $this.insertionMode or"
+                        + " $this.incremental then all entries in $this.heap"
+                        + " are not null";
             }
             assert isHeap(this.heap, 0, this.heapSize - 1,
                     this.machineOrder) : ""
-                            + "Violation of: if not $this.insertionMode then"
+                            + "Violation of: if not $this.insertionMode or"
+                            + " $this.incremental then"
                             + " SUBTREE_IS_HEAP($this.heap, 0, $this.heapSize - 1,"
                             + " [relation computed by $this.machineOrder.compare"
                             + " method])";
@@ -403,24 +540,63 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         return true;
     }
 
+    /**
+     * Reports whether the entries are held in {@code $this.entries}, which is
+     * the case in insertion mode unless the machine is incremental.
+     *
+     * @return true iff $this.insertionMode and not $this.incremental
+     */
+    private boolean entriesInQueue() {
+        return this.insertionMode && !this.incremental;
+    }
+
+    /**
+     * Doubles the length of {@code $this.heap}, keeping its entries.
+     *
+     * @updates $this.heap
+     * @ensures <pre>
+     * |$this.heap| = 2 * |#$this.heap|  and
+     * $this.heap[0, $this.heapSize) = #$this.heap[0, $this.heapSize)
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void growHeap() {
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        T[] bigger = (T[]) (new Object[2 * this.heap.length]);
+        System.arraycopy(this.heap, 0, bigger, 0, this.heapSize);
+        this.heap = bigger;
+    }
+
     /**
      * Creator of initial representation.
      *
      * @param order
      *            total preorder for sorting
+     * @param incremental
+     *            whether {@code add} is to put entries straight into the heap
      * @requires IS_TOTAL_PREORDER([relation computed by order.compare method]
      * @ensures <pre>
      * $this.insertionMode = true  and
      * $this.machineOrder = order  and
+     * $this.incremental = incremental  and
      * $this.entries = <>  and
      * $this.heapSize = 0
      * </pre>
      */
-    private void createNewRep(Comparator<T> order) {
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order, boolean incremental) {
         this.machineOrder = order;
         this.insertionMode = true;
+        this.incremental = incremental;
         this.entries = new Queue1L<T>();
         this.heapSize = 0;
+        if (incremental) {
+            this.heap = (T[]) (new Object[INITIAL_CAPACITY]);
+        }
     }
 
     /*
@@ -434,7 +610,23 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
      *            total preorder for sorting
      */
     public SortingMachine5a(Comparator<T> order) {
-        this.createNewRep(order);
+        this.createNewRep(order, false);
+        assert this.conventionHolds();
+    }
+
+    /**
+     * Constructor from order and mode of heap construction.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param incremental
+     *            whether {@code add} is to put entries straight into the heap,
+     *            making {@code changeToExtractionMode} take constant time, or
+     *            to leave building the heap to
+     *            {@code changeToExtractionMode}
+     */
+    public SortingMachine5a(Comparator<T> order, boolean incremental) {
+        this.createNewRep(order, incremental);
         assert this.conventionHolds();
     }
 
@@ -446,8 +638,9 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     @Override
     public final SortingMachine<T> newInstance() {
         try {
-            return this.getClass().getConstructor(Comparator.class)
-                    .newInstance(this.machineOrder);
+            return this.getClass()
+                    .getConstructor(Comparator.class, boolean.class)
+                    .newInstance(this.machineOrder, this.incremental);
         } catch (ReflectiveOperationException e) {
             throw new AssertionError(
                     "Cannot construct object of type " + this.getClass());
@@ -456,7 +649,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
 
     @Override
     public final void clear() {
-        this.createNewRep(this.machineOrder);
+        this.createNewRep(this.machineOrder, this.incremental);
         assert this.conventionHolds();
     }
 
@@ -475,10 +668,12 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         SortingMachine5a<T> localSource = (SortingMachine5a<T>) source;
         this.insertionMode = localSource.insertionMode;
         this.machineOrder = localSource.machineOrder;
+        this.incremental = localSource.incremental;
         this.entries = localSource.entries;
         this.heap = localSource.heap;
         this.heapSize = localSource.heapSize;
-        localSource.createNewRep(localSource.machineOrder);
+        localSource.createNewRep(localSource.machineOrder,
+                localSource.incremental);
         assert this.conventionHolds();
         assert localSource.conventionHolds();
     }
@@ -492,7 +687,16 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         assert x != null : "Violation of: x is not null";
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
 
-        this.entries.enqueue(x);
+        if (this.incremental) {
+            if (this.heapSize == this.heap.length) {
+                this.growHeap();
+            }
+            this.heap[this.heapSize] = x;
+            siftUp(this.heap, this.heapSize, this.machineOrder);
+            this.heapSize++;
+        } else {
+            this.entries.enqueue(x);
+        }
 
         assert this.conventionHolds();
     }
@@ -501,8 +705,10 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     public final void changeToExtractionMode() {
         assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
         this.insertionMode = false;
-        this.heap = buildHeap(this.entries, this.machineOrder);
-        this.heapSize = this.heap.length;
+        if (!this.incremental) {
+            this.heap = buildHeap(this.entries, this.machineOrder);
+            this.heapSize = this.heap.length;
+        }
 
         assert this.conventionHolds();
     }
@@ -517,7 +723,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         exchangeEntries(this.heap, 0, this.heapSize - 1);
 
         this.heapSize--;
-        siftDown(this.heap, 0, this.heapSize - 1, this.machineOrder);
+        siftDownBottomUp(this.heap, 0, this.heapSize - 1, this.machineOrder);
 
         assert this.conventionHolds();
 
@@ -540,7 +746,11 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
     public final int size() {
         assert this.conventionHolds();
 
-        return this.heapSize;
+        int size = this.heapSize;
+        if (this.entriesInQueue()) {
+            size = this.entries.length();
+        }
+        return size;
     }
 
     @Override
@@ -568,7 +778,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
          * No-argument constructor.
          */
         private SortingMachine5aIterator() {
-            if (SortingMachine5a.this.insertionMode) {
+            if (SortingMachine5a.this.entriesInQueue()) {
                 this.queueIterator = SortingMachine5a.this.entries.iterator();
             } else {
                 this.arrayCurrentIndex = 0;
@@ -579,7 +789,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
         @Override
         public boolean hasNext() {
             boolean hasNext;
-            if (SortingMachine5a.this.insertionMode) {
+            if (SortingMachine5a.this.entriesInQueue()) {
                 hasNext = this.queueIterator.hasNext();
             } else {
                 hasNext = this.arrayCurrentIndex < SortingMachine5a.this.heapSize;
@@ -600,7 +810,7 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
                 throw new NoSuchElementException();
             }
             T next;
-            if (SortingMachine5a.this.insertionMode) {
+            if (SortingMachine5a.this.entriesInQueue()) {
                 next = this.queueIterator.next();
             } else {
                 next = SortingMachine5a.this.heap[this.arrayCurrentIndex];
@@ -618,4 +828,53 @@ public class SortingMachine5a<T> extends SortingMachineSecondary<T> {
 
     }
 
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Removes every entry of {@code this}, in order, passing each to
+     * {@code action} as it is removed. Equivalent to calling
+     * {@code action.accept(this.removeFirst())} until {@code this} is empty,
+     * but sorts all the entries at once, in parallel, rather than sifting down
+     * after each one.
+     *
+     * @param action
+     *            the action to perform on each entry
+     * @updates this
+     * @requires <pre>
+     * not this.insertion_mode  and
+     * [action does not use this]  and
+     * [this.order.compare can be called from several threads at once]
+     * </pre>
+     * @ensures <pre>
+     * this = (false, #this.order, {})  and
+     * [action has been applied to the entries of #this.contents, in the
+     *  order of #this.order]
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    public final void drainSorted(Consumer<? super T> action) {
+        assert action != null : "Violation of: action is not null";
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+
+        T[] sorted = this.heap;
+        int n = this.heapSize;
+        /*
+         * The entries are taken out of the representation before action sees
+         * any of them, so this is already empty while they are handed over.
+         */
+        this.heap = (T[]) (new Object[0]);
+        this.heapSize = 0;
+        Arrays.parallelSort(sorted, 0, n, this.machineOrder);
+        for (int i = 0; i < n; i++) {
+            T x = sorted[i];
+            sorted[i] = null;
+            action.accept(x);
+        }
+
+        assert this.conventionHolds();
+    }
+
 }
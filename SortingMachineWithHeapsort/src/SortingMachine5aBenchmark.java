@@ -0,0 +1,373 @@
+import java.util.Comparator;
+import java.util.Random;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Compares ways of sifting down in the {@code removeFirst} of
+ * {@code SortingMachine5a}: the recursive, swapping sift-down it used to have
+ * (with its choice of child corrected), the iterative "hole" sift-down, and
+ * Floyd's bottom-up sift-down that {@code removeFirst} now uses. For each,
+ * every entry of a heap of random strings is removed in turn, and the time
+ * and the number of comparisons per removal are reported, both for the
+ * natural order of {@code String} and for the more expensive
+ * {@code String.CASE_INSENSITIVE_ORDER}. The last two rows drain a whole
+ * {@code SortingMachine5a}, first through its {@code removeFirst} and then
+ * with {@code drainSorted}, which sorts all the entries at once with a
+ * parallel merge sort.
+ *
+ * <p>
+ * Timings are taken with {@code System.nanoTime} after a number of warm-up
+ * rounds that let the JIT compiler settle, and the fastest measured round is
+ * reported.
+ *
+ * @author Nur Adem
+ * @author Mohammed Maalin
+ *
+ */
+public final class SortingMachine5aBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SortingMachine5aBenchmark() {
+    }
+
+    /**
+     * Heap sizes benchmarked.
+     */
+    private static final int[] SIZES = { 100000, 1000000 };
+
+    /**
+     * Length of the random strings.
+     */
+    private static final int STRING_LENGTH = 12;
+
+    /**
+     * Number of untimed rounds run before the timed ones.
+     */
+    private static final int WARM_UP_ROUNDS = 3;
+
+    /**
+     * Number of timed rounds, of which the fastest is reported.
+     */
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * Seed of the random strings, so that runs are repeatable.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * {@code Comparator} that counts how many times it is called.
+     */
+    private static final class CountingOrder implements Comparator<String> {
+
+        /**
+         * The order actually used.
+         */
+        private final Comparator<String> order;
+
+        /**
+         * Number of comparisons made so far.
+         */
+        private long count;
+
+        /**
+         * Constructor.
+         *
+         * @param order
+         *            the order to count comparisons of
+         */
+        CountingOrder(Comparator<String> order) {
+            this.order = order;
+            this.count = 0;
+        }
+
+        @Override
+        public int compare(String s1, String s2) {
+            this.count++;
+            return this.order.compare(s1, s2);
+        }
+
+    }
+
+    /**
+     * Sift-down methods benchmarked.
+     */
+    enum Variant {
+
+        /**
+         * The recursive sift-down that swaps at every level.
+         */
+        RECURSIVE_SWAP {
+            @Override
+            void siftDown(String[] array, int top, int last,
+                    Comparator<String> order) {
+                recursiveSiftDown(array, top, last, order);
+            }
+        },
+
+        /**
+         * The iterative sift-down that moves a hole down.
+         */
+        HOLE {
+            @Override
+            void siftDown(String[] array, int top, int last,
+                    Comparator<String> order) {
+                SortingMachine5a.siftDown(array, top, last, order);
+            }
+        },
+
+        /**
+         * Floyd's bottom-up sift-down.
+         */
+        BOTTOM_UP {
+            @Override
+            void siftDown(String[] array, int top, int last,
+                    Comparator<String> order) {
+                SortingMachine5a.siftDownBottomUp(array, top, last, order);
+            }
+        };
+
+        /**
+         * Sifts {@code array[top]} down to make {@code array[top, last]} a
+         * heap.
+         *
+         * @param array
+         *            the complete binary tree
+         * @param top
+         *            the index of the root of the subtree
+         * @param last
+         *            the index of the last entry in the heap
+         * @param order
+         *            total preorder for sorting
+         */
+        abstract void siftDown(String[] array, int top, int last,
+                Comparator<String> order);
+
+    }
+
+    /**
+     * The sift-down {@code SortingMachine5a} used to have, with the right
+     * child recursed into after swapping with the left one corrected.
+     *
+     * @param array
+     *            the complete binary tree
+     * @param top
+     *            the index of the root of the subtree
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     */
+    private static void recursiveSiftDown(String[] array, int top, int last,
+            Comparator<String> order) {
+        int lTop = 2 * top + 1;
+        int rTop = 2 * top + 2;
+        int swapWith = -1;
+        if (lTop <= last) {
+            if (rTop <= last) {
+                if (order.compare(array[lTop], array[rTop]) > 0) {
+                    if (order.compare(array[rTop], array[top]) < 0) {
+                        swapWith = rTop;
+                    }
+                } else if (order.compare(array[lTop], array[top]) < 0) {
+                    swapWith = lTop;
+                }
+            } else if (order.compare(array[lTop], array[top]) < 0) {
+                swapWith = lTop;
+            }
+        }
+        if (swapWith >= 0) {
+            String temp = array[top];
+            array[top] = array[swapWith];
+            array[swapWith] = temp;
+            recursiveSiftDown(array, swapWith, last, order);
+        }
+    }
+
+    /**
+     * Returns {@code n} random strings of mixed-case letters.
+     *
+     * @param n
+     *            the number of strings
+     * @return the strings
+     */
+    private static String[] randomStrings(int n) {
+        Random random = new Random(SEED);
+        String[] strings = new String[n];
+        char[] chars = new char[STRING_LENGTH];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < STRING_LENGTH; j++) {
+                char c = (char) ('a' + random.nextInt('z' - 'a' + 1));
+                if (random.nextBoolean()) {
+                    c = Character.toUpperCase(c);
+                }
+                chars[j] = c;
+            }
+            strings[i] = new String(chars);
+        }
+        return strings;
+    }
+
+    /**
+     * Benchmarks removing every entry of a heap of {@code strings} with
+     * {@code variant}, and reports the results as one row of {@code out}.
+     *
+     * @param out
+     *            the output stream
+     * @param strings
+     *            the entries
+     * @param orderName
+     *            the name of the order, for reporting
+     * @param order
+     *            the order
+     * @param variant
+     *            the sift-down method
+     * @updates out.content
+     * @requires out.is_open
+     */
+    private static void benchmark(SimpleWriter out, String[] strings,
+            String orderName, Comparator<String> order, Variant variant) {
+        int n = strings.length;
+        long best = Long.MAX_VALUE;
+        CountingOrder counting = new CountingOrder(order);
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            String[] heap = strings.clone();
+            for (int top = n / 2 - 1; top >= 0; top--) {
+                SortingMachine5a.siftDown(heap, top, n - 1, order);
+            }
+            counting.count = 0;
+            long start = System.nanoTime();
+            for (int last = n - 1; last > 0; last--) {
+                String first = heap[0];
+                heap[0] = heap[last];
+                heap[last] = first;
+                variant.siftDown(heap, 0, last - 1, counting);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARM_UP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+            assert order.compare(heap[n - 1], heap[0]) <= 0 : ""
+                    + "Violation of: heap is sorted in reverse order";
+        }
+        out.println(String.format("%10d  %-22s%12.1f%14.2f", n,
+                orderName + " " + variant, (double) best / n,
+                (double) counting.count / n));
+    }
+
+    /**
+     * Benchmarks draining a {@code SortingMachine5a} of {@code strings}, and
+     * reports the results as one row of {@code out}.
+     *
+     * @param out
+     *            the output stream
+     * @param strings
+     *            the entries
+     * @param orderName
+     *            the name of the order, for reporting
+     * @param order
+     *            the order
+     * @updates out.content
+     * @requires out.is_open
+     */
+    private static void benchmarkMachine(SimpleWriter out, String[] strings,
+            String orderName, Comparator<String> order) {
+        int n = strings.length;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            SortingMachine5a<String> m = new SortingMachine5a<String>(order);
+            for (String s : strings) {
+                m.add(s);
+            }
+            m.changeToExtractionMode();
+            long start = System.nanoTime();
+            while (m.size() > 0) {
+                m.removeFirst();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARM_UP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        out.println(String.format("%10d  %-22s%12.1f%14s", n,
+                orderName + " machine", (double) best / n, "-"));
+    }
+
+    /**
+     * Benchmarks draining a {@code SortingMachine5a} of {@code strings} with
+     * {@code drainSorted}, and reports the results as one row of {@code out}.
+     *
+     * @param out
+     *            the output stream
+     * @param strings
+     *            the entries
+     * @param orderName
+     *            the name of the order, for reporting
+     * @param order
+     *            the order
+     * @updates out.content
+     * @requires out.is_open
+     */
+    private static void benchmarkDrainSorted(SimpleWriter out,
+            String[] strings, String orderName, Comparator<String> order) {
+        int n = strings.length;
+        long best = Long.MAX_VALUE;
+        String[] drained = new String[n];
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            SortingMachine5a<String> m = new SortingMachine5a<String>(order);
+            for (String s : strings) {
+                m.add(s);
+            }
+            m.changeToExtractionMode();
+            int[] count = { 0 };
+            long start = System.nanoTime();
+            m.drainSorted(s -> {
+                drained[count[0]] = s;
+                count[0]++;
+            });
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARM_UP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+            assert count[0] == n : "Violation of: every entry is drained";
+        }
+        out.println(String.format("%10d  %-22s%12.1f%14s", n,
+                orderName + " drainSorted", (double) best / n, "-"));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.println(String.format("%10s  %-22s%12s%14s", "n",
+                "variant", "removeFirst", "comparisons"));
+        out.println(String.format("%10s  %-22s%12s%14s", "", "",
+                "(ns/op)", "(per op)"));
+        for (int n : SIZES) {
+            String[] strings = randomStrings(n);
+            for (Variant variant : Variant.values()) {
+                benchmark(out, strings, "natural", Comparator.naturalOrder(),
+                        variant);
+            }
+            for (Variant variant : Variant.values()) {
+                benchmark(out, strings, "nocase",
+                        String.CASE_INSENSITIVE_ORDER, variant);
+            }
+            benchmarkMachine(out, strings, "nocase",
+                    String.CASE_INSENSITIVE_ORDER);
+            benchmarkDrainSorted(out, strings, "nocase",
+                    String.CASE_INSENSITIVE_ORDER);
+        }
+        out.close();
+    }
+
+}
@@ -0,0 +1,389 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} represented as an array that is turned into a d-ary
+ * heap on the change to extraction mode, with implementations of primary
+ * methods.
+ *
+ * <p>
+ * Each node of a d-ary heap has up to d children, stored next to each other,
+ * so the heap is only log_d n levels deep instead of log_2 n. Sifting down
+ * makes d - 1 comparisons per level to find the smallest child, but the
+ * children share one or two cache lines, and there are half (4-ary) or a third
+ * (8-ary) as many levels whose entries are likely to miss the cache on a large
+ * heap. {@code add} appends to a growable array, and
+ * {@code changeToExtractionMode} turns the array into a heap bottom-up
+ * (Floyd's method) in linear time.
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ *
+ * IS_D_ARY_HEAP (
+ *   a: string of T,
+ *   d: integer,
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all i: integer
+ *      where (0 < i  and  i < |a|)
+ *    (r(a[(i - 1) / d], a[i]))
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])
+ *   and
+ * $this.arity >= 2  and
+ * 0 <= $this.size <= |$this.entries|  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.entries|)
+ *   ([entry at position i in $this.entries is null]  iff  i >= $this.size)
+ *   and
+ * if not $this.insertionMode then
+ *   IS_D_ARY_HEAP($this.entries[0, $this.size), $this.arity,
+ *     [relation computed by $this.machineOrder.compare method])
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.entries[0, $this.size)))
+ * </pre>
+ *
+ * @author Nur Adem
+ * @author Mohammed Maalin
+ *
+ */
+public class SortingMachine5d<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Number of children of each node of the heap, if not given.
+     */
+    private static final int DEFAULT_ARITY = 4;
+
+    /**
+     * Initial length of the entries array.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Number of children of each node of the heap.
+     */
+    private int arity;
+
+    /**
+     * Entries, in positions [0, size); a heap in extraction mode.
+     */
+    private T[] entries;
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Given an array whose entries {@code [0, last]} would be a d-ary heap
+     * except for the entry at {@code top}, sifts that entry down to turn the
+     * subtree rooted there into a heap. The entry is moved once, to where the
+     * hole it leaves stops moving down.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete d-ary tree
+     * @param d
+     *            the number of children of each node
+     * @param top
+     *            the index of the root of the subtree
+     * @param last
+     *            the index of the last entry in the heap
+     * @param order
+     *            total preorder for sorting
+     * @updates array
+     * @requires <pre>
+     * d >= 2  and  0 <= top <= last < |array|  and
+     * [the subtrees of the children of top are d-ary heaps]  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * [the subtree rooted at top is a d-ary heap]  and
+     * perms(array, #array)  and
+     * [the entries outside the subtree rooted at top are unchanged]
+     * </pre>
+     */
+    static <T> void siftDown(T[] array, int d, int top, int last,
+            Comparator<T> order) {
+        T x = array[top];
+        int hole = top;
+        boolean placed = false;
+        while (!placed && d * hole + 1 <= last) {
+            int first = d * hole + 1;
+            int end = Math.min(first + d - 1, last);
+            int smallest = first;
+            for (int c = first + 1; c <= end; c++) {
+                if (order.compare(array[c], array[smallest]) < 0) {
+                    smallest = c;
+                }
+            }
+            if (order.compare(array[smallest], x) < 0) {
+                array[hole] = array[smallest];
+                hole = smallest;
+            } else {
+                placed = true;
+            }
+        }
+        array[hole] = x;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param d
+     *            the number of children of each node of the heap
+     * @requires <pre>
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])  and
+     * d >= 2
+     * </pre>
+     * @ensures <pre>
+     * $this.insertionMode = true  and  $this.machineOrder = order  and
+     * $this.arity = d  and  $this.size = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order, int d) {
+        this.machineOrder = order;
+        this.insertionMode = true;
+        this.arity = d;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.entries = (T[]) (new Object[INITIAL_CAPACITY]);
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order, for a 4-ary heap.
+     *
+     * @param order
+     *            total preorder for sorting
+     */
+    public SortingMachine5d(Comparator<T> order) {
+        this(order, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructor from order and arity.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param d
+     *            the number of children of each node of the heap
+     * @requires d >= 2
+     */
+    public SortingMachine5d(Comparator<T> order, int d) {
+        assert order != null : "Violation of: order is not null";
+        assert d >= 2 : "Violation of: d >= 2";
+
+        this.createNewRep(order, d);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class, int.class)
+                    .newInstance(this.machineOrder, this.arity);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder, this.arity);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5d<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5d<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5d<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5d<T> localSource = (SortingMachine5d<T>) source;
+        this.machineOrder = localSource.machineOrder;
+        this.insertionMode = localSource.insertionMode;
+        this.arity = localSource.arity;
+        this.entries = localSource.entries;
+        this.size = localSource.size;
+        localSource.createNewRep(localSource.machineOrder, localSource.arity);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.size == this.entries.length) {
+            T[] bigger = (T[]) (new Object[2 * this.entries.length]);
+            System.arraycopy(this.entries, 0, bigger, 0, this.size);
+            this.entries = bigger;
+        }
+        this.entries[this.size] = x;
+        this.size++;
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        for (int top = (this.size - 2) / this.arity; top >= 0; top--) {
+            siftDown(this.entries, this.arity, top, this.size - 1,
+                    this.machineOrder);
+        }
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T first = this.entries[0];
+        this.size--;
+        this.entries[0] = this.entries[this.size];
+        this.entries[this.size] = null;
+        if (this.size > 0) {
+            siftDown(this.entries, this.arity, 0, this.size - 1,
+                    this.machineOrder);
+        }
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5dIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5d}.
+     */
+    private final class SortingMachine5dIterator implements Iterator<T> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * No-argument constructor.
+         */
+        SortingMachine5dIterator() {
+            this.numberSeen = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < SortingMachine5d.this.size;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine5d.this.entries[this.numberSeen];
+            this.numberSeen++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the number of children of each node of the heap.
+     *
+     * @return the arity of the heap
+     * @ensures arity = [number of children of each node of the heap]
+     */
+    public final int arity() {
+        return this.arity;
+    }
+
+}
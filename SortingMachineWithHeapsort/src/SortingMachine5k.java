@@ -0,0 +1,383 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} that keeps only the first {@code capacity} entries
+ * added to it, in order, represented as an array that is a binary heap with
+ * the last of those entries at its root, with implementations of primary
+ * methods.
+ *
+ * <p>
+ * Once the machine holds {@code capacity} entries, {@code add} compares its
+ * argument with the last entry kept: if the argument comes first, it replaces
+ * that entry, which is sifted down; otherwise it is dropped. So filling the
+ * machine with n entries takes O(n log K) time and O(K) space, where K is
+ * {@code capacity}, and a machine with K at least the number of entries added
+ * behaves like any other {@code SortingMachine}. {@code changeToExtractionMode}
+ * heapsorts the K entries into order in place, and {@code removeFirst} then
+ * takes them from the front of the array.
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_TOTAL_PREORDER (
+ *   r: binary relation on T
+ *  ) : boolean is
+ *  for all x, y, z: T
+ *   ((r(x, y) or r(y, x))  and
+ *    (if (r(x, y) and r(y, z)) then r(x, z)))
+ * </pre>
+ * @convention <pre>
+ * IS_TOTAL_PREORDER([relation computed by $this.machineOrder.compare method])
+ *   and
+ * $this.capacity > 0  and
+ * 0 <= $this.first  and  $this.first + $this.size <= |$this.entries|  and
+ * |$this.entries| <= $this.capacity  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.entries|)
+ *   ([entry at position i in $this.entries is null]  iff
+ *    (i < $this.first  or  i >= $this.first + $this.size))  and
+ * if $this.insertionMode then
+ *   $this.first = 0  and
+ *   [$this.entries[0, $this.size) is a binary heap in the reverse of the
+ *    relation computed by $this.machineOrder.compare method]
+ * else
+ *   [$this.entries[$this.first, $this.first + $this.size) is sorted by the
+ *    relation computed by $this.machineOrder.compare method]
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.entries[$this.first,
+ *                                        $this.first + $this.size)))
+ * </pre>
+ *
+ * @author Nur Adem
+ * @author Mohammed Maalin
+ *
+ */
+public class SortingMachine5k<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Largest initial length of the entries array.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Order.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Reverse of the order, which the heap is kept in.
+     */
+    private Comparator<T> reverseOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Largest number of entries kept.
+     */
+    private int capacity;
+
+    /**
+     * Entries: a heap in insertion mode, sorted in extraction mode.
+     */
+    private T[] entries;
+
+    /**
+     * Index of the first entry.
+     */
+    private int first;
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Given an array whose entries {@code [0, last)} are a binary heap, sifts
+     * the entry at {@code last} up to make {@code [0, last]} a heap.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param array
+     *            the complete binary tree
+     * @param last
+     *            the index of the entry to sift up
+     * @param order
+     *            total preorder the heap is in
+     * @updates array
+     * @requires <pre>
+     * 0 <= last < |array|  and  [array[0, last) is a binary heap]  and
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])
+     * </pre>
+     * @ensures <pre>
+     * [array[0, last] is a binary heap]  and  perms(array, #array)  and
+     * [the entries outside array[0, last] are unchanged]
+     * </pre>
+     */
+    private static <T> void siftUp(T[] array, int last, Comparator<T> order) {
+        T x = array[last];
+        int hole = last;
+        boolean placed = false;
+        while (hole > 0 && !placed) {
+            int parent = (hole - 1) / 2;
+            if (order.compare(x, array[parent]) < 0) {
+                array[hole] = array[parent];
+                hole = parent;
+            } else {
+                placed = true;
+            }
+        }
+        array[hole] = x;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param k
+     *            the largest number of entries kept
+     * @requires <pre>
+     * IS_TOTAL_PREORDER([relation computed by order.compare method])  and
+     * k > 0
+     * </pre>
+     * @ensures <pre>
+     * $this.insertionMode = true  and  $this.machineOrder = order  and
+     * $this.capacity = k  and  $this.first = 0  and  $this.size = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(Comparator<T> order, int k) {
+        this.machineOrder = order;
+        this.reverseOrder = order.reversed();
+        this.insertionMode = true;
+        this.capacity = k;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.entries = (T[]) (new Object[Math.min(k, INITIAL_CAPACITY)]);
+        this.first = 0;
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from order and capacity.
+     *
+     * @param order
+     *            total preorder for sorting
+     * @param k
+     *            the largest number of entries kept
+     * @requires k > 0
+     */
+    public SortingMachine5k(Comparator<T> order, int k) {
+        assert order != null : "Violation of: order is not null";
+        assert k > 0 : "Violation of: k > 0";
+
+        this.createNewRep(order, k);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass().getConstructor(Comparator.class, int.class)
+                    .newInstance(this.machineOrder, this.capacity);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.machineOrder, this.capacity);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5k<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5k<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5k<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5k<T> localSource = (SortingMachine5k<T>) source;
+        this.machineOrder = localSource.machineOrder;
+        this.reverseOrder = localSource.reverseOrder;
+        this.insertionMode = localSource.insertionMode;
+        this.capacity = localSource.capacity;
+        this.entries = localSource.entries;
+        this.first = localSource.first;
+        this.size = localSource.size;
+        localSource.createNewRep(localSource.machineOrder,
+                localSource.capacity);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        if (this.size < this.capacity) {
+            if (this.size == this.entries.length) {
+                T[] bigger = (T[]) (new Object[(int) Math
+                        .min(2L * this.entries.length, this.capacity)]);
+                System.arraycopy(this.entries, 0, bigger, 0, this.size);
+                this.entries = bigger;
+            }
+            this.entries[this.size] = x;
+            siftUp(this.entries, this.size, this.reverseOrder);
+            this.size++;
+        } else if (this.machineOrder.compare(x, this.entries[0]) < 0) {
+            this.entries[0] = x;
+            SortingMachine5d.siftDown(this.entries, 2, 0, this.size - 1,
+                    this.reverseOrder);
+        }
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        /*
+         * The root of the heap is the last entry in the order, so heapsort
+         * leaves the entries in order.
+         */
+        for (int last = this.size - 1; last > 0; last--) {
+            T tmp = this.entries[0];
+            this.entries[0] = this.entries[last];
+            this.entries[last] = tmp;
+            SortingMachine5d.siftDown(this.entries, 2, 0, last - 1,
+                    this.reverseOrder);
+        }
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        T x = this.entries[this.first];
+        this.entries[this.first] = null;
+        this.first++;
+        this.size--;
+        return x;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5kIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5k}.
+     */
+    private final class SortingMachine5kIterator implements Iterator<T> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * No-argument constructor.
+         */
+        SortingMachine5kIterator() {
+            this.numberSeen = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < SortingMachine5k.this.size;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine5k.this.entries[SortingMachine5k.this.first
+                    + this.numberSeen];
+            this.numberSeen++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the largest number of entries this keeps.
+     *
+     * @return the capacity of this
+     * @ensures capacity = [largest number of entries this keeps]
+     */
+    public final int capacity() {
+        return this.capacity;
+    }
+
+}
@@ -0,0 +1,428 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachineSecondary;
+
+/**
+ * {@code SortingMachine} ordered by a {@code long} key computed from each
+ * entry, represented as a d-ary heap whose keys are kept inline in a
+ * {@code long[]} next to the array of entries, with implementations of primary
+ * methods.
+ *
+ * <p>
+ * The key of each entry is computed once, by {@code add}. From then on the
+ * heap is rearranged by comparing keys in the {@code long[]} alone, so sifting
+ * down never follows a reference to an entry. The root is kept at position
+ * d - 1 of the arrays, after d - 1 unused positions, so that the children of
+ * every node start at a multiple of d: for d = 8 their keys fill one 64-byte
+ * block of the {@code long[]} that starts at a multiple of 64 bytes from the
+ * start of its data. That block is one cache line when the data starts on a
+ * line boundary; the JVM does not promise this, so otherwise it spans two. The
+ * entries themselves are only moved, alongside their keys. Apart from that,
+ * this is {@code SortingMachine5d}.
+ *
+ * @param <T>
+ *            type of {@code SortingMachine} entries
+ * @mathdefinitions <pre>
+ * IS_D_ARY_HEAP (
+ *   a: string of integer,
+ *   d: integer
+ *  ) : boolean is
+ *  for all i: integer
+ *      where (0 < i  and  i < |a|)
+ *    (a[(i - 1) / d] <= a[i])
+ * </pre>
+ * @convention <pre>
+ * $this.machineOrder = [Comparator.comparingLong($this.key)]  and
+ * $this.arity >= 2  and
+ * 0 <= $this.size  and
+ * $this.arity - 1 + $this.size <= |$this.entries| = |$this.keys|  and
+ * for all i: integer
+ *     where (0 <= i  and  i < |$this.entries|)
+ *   ([entry at position i in $this.entries is null]  iff
+ *    (i < $this.arity - 1  or  i >= $this.arity - 1 + $this.size))  and
+ * for all i: integer
+ *     where ($this.arity - 1 <= i  and  i < $this.arity - 1 + $this.size)
+ *   ($this.keys[i] = $this.key($this.entries[i]))  and
+ * if not $this.insertionMode then
+ *   IS_D_ARY_HEAP($this.keys[$this.arity - 1, $this.arity - 1 + $this.size),
+ *                 $this.arity)
+ * </pre>
+ * @correspondence <pre>
+ * this = ($this.insertionMode, $this.machineOrder,
+ *         multiset_entries($this.entries[$this.arity - 1,
+ *                                        $this.arity - 1 + $this.size)))
+ * </pre>
+ *
+ * @author Nur Adem
+ * @author Mohammed Maalin
+ *
+ */
+public class SortingMachine5l<T> extends SortingMachineSecondary<T> {
+
+    /*
+     * Private members --------------------------------------------------------
+     */
+
+    /**
+     * Number of children of each node of the heap, if not given.
+     */
+    private static final int DEFAULT_ARITY = 4;
+
+    /**
+     * Initial number of entries the entries and keys arrays have room for.
+     */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * Key of each entry.
+     */
+    private ToLongFunction<T> key;
+
+    /**
+     * Order, by key.
+     */
+    private Comparator<T> machineOrder;
+
+    /**
+     * Insertion mode.
+     */
+    private boolean insertionMode;
+
+    /**
+     * Number of children of each node of the heap.
+     */
+    private int arity;
+
+    /**
+     * Entries, in positions [arity - 1, arity - 1 + size).
+     */
+    private T[] entries;
+
+    /**
+     * Keys of the entries, position by position; a heap in extraction mode.
+     */
+    private long[] keys;
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+    /**
+     * Given arrays of keys and entries whose keys
+     * {@code [base, base + last]} would be a d-ary heap except for the key at
+     * {@code base + top}, sifts that key down, with its entry, to turn the
+     * subtree rooted there into a heap. Positions {@code top} and
+     * {@code last}, like the heap arithmetic, are relative to {@code base}.
+     *
+     * @param <T>
+     *            type of array entries
+     * @param keys
+     *            the complete d-ary tree of keys
+     * @param entries
+     *            the entries of the keys
+     * @param d
+     *            the number of children of each node
+     * @param base
+     *            the index of the root of the heap
+     * @param top
+     *            the position of the root of the subtree
+     * @param last
+     *            the position of the last entry in the heap
+     * @updates keys, entries
+     * @requires <pre>
+     * d >= 2  and  0 <= base  and
+     * 0 <= top <= last < |keys| - base = |entries| - base  and
+     * [the subtrees of the children of top are d-ary heaps]
+     * </pre>
+     * @ensures <pre>
+     * [the subtree rooted at top is a d-ary heap]  and
+     * [keys and entries are permuted together]  and
+     * [the entries outside the subtree rooted at top are unchanged]
+     * </pre>
+     */
+    static <T> void siftDown(long[] keys, T[] entries, int d, int base,
+            int top, int last) {
+        long k = keys[base + top];
+        T x = entries[base + top];
+        int hole = base + top;
+        int end = base + last;
+        boolean placed = false;
+        while (!placed && d * (hole - base) + 1 <= last) {
+            int first = base + d * (hole - base) + 1;
+            int lastChild = Math.min(first + d - 1, end);
+            int smallest = first;
+            for (int c = first + 1; c <= lastChild; c++) {
+                if (keys[c] < keys[smallest]) {
+                    smallest = c;
+                }
+            }
+            if (keys[smallest] < k) {
+                keys[hole] = keys[smallest];
+                entries[hole] = entries[smallest];
+                hole = smallest;
+            } else {
+                placed = true;
+            }
+        }
+        keys[hole] = k;
+        entries[hole] = x;
+    }
+
+    /**
+     * Creator of initial representation.
+     *
+     * @param keyOf
+     *            the key of each entry
+     * @param d
+     *            the number of children of each node of the heap
+     * @requires d >= 2
+     * @ensures <pre>
+     * $this.insertionMode = true  and  $this.key = keyOf  and
+     * $this.arity = d  and  $this.size = 0
+     * </pre>
+     */
+    @SuppressWarnings("unchecked")
+    private void createNewRep(ToLongFunction<T> keyOf, int d) {
+        this.key = keyOf;
+        this.machineOrder = Comparator.comparingLong(keyOf);
+        this.insertionMode = true;
+        this.arity = d;
+        /*
+         * With "new T[...]" in place of "new Object[...]" it does not compile;
+         * as shown, it results in a warning about an unchecked cast, though it
+         * cannot fail.
+         */
+        this.entries = (T[]) (new Object[d - 1 + INITIAL_CAPACITY]);
+        this.keys = new long[d - 1 + INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /*
+     * Constructors -----------------------------------------------------------
+     */
+
+    /**
+     * Constructor from key, for a 4-ary heap.
+     *
+     * @param keyOf
+     *            the key of each entry
+     */
+    public SortingMachine5l(ToLongFunction<T> keyOf) {
+        this(keyOf, DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructor from key and arity.
+     *
+     * @param keyOf
+     *            the key of each entry
+     * @param d
+     *            the number of children of each node of the heap
+     * @requires d >= 2
+     */
+    public SortingMachine5l(ToLongFunction<T> keyOf, int d) {
+        assert keyOf != null : "Violation of: keyOf is not null";
+        assert d >= 2 : "Violation of: d >= 2";
+
+        this.createNewRep(keyOf, d);
+    }
+
+    /*
+     * Standard methods -------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final SortingMachine<T> newInstance() {
+        try {
+            return this.getClass()
+                    .getConstructor(ToLongFunction.class, int.class)
+                    .newInstance(this.key, this.arity);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(
+                    "Cannot construct object of type " + this.getClass());
+        }
+    }
+
+    @Override
+    public final void clear() {
+        this.createNewRep(this.key, this.arity);
+    }
+
+    @Override
+    public final void transferFrom(SortingMachine<T> source) {
+        assert source != null : "Violation of: source is not null";
+        assert source != this : "Violation of: source is not this";
+        assert source instanceof SortingMachine5l<?> : ""
+                + "Violation of: source is of dynamic type SortingMachine5l<?>";
+        /*
+         * This cast cannot fail since the assert above would have stopped
+         * execution in that case: source must be of dynamic type
+         * SortingMachine5l<?>, and the ? must be T or the call would not have
+         * compiled.
+         */
+        SortingMachine5l<T> localSource = (SortingMachine5l<T>) source;
+        this.key = localSource.key;
+        this.machineOrder = localSource.machineOrder;
+        this.insertionMode = localSource.insertionMode;
+        this.arity = localSource.arity;
+        this.entries = localSource.entries;
+        this.keys = localSource.keys;
+        this.size = localSource.size;
+        localSource.createNewRep(localSource.key, localSource.arity);
+    }
+
+    /*
+     * Kernel methods ---------------------------------------------------------
+     */
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public final void add(T x) {
+        assert x != null : "Violation of: x is not null";
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        int base = this.arity - 1;
+        if (base + this.size == this.entries.length) {
+            int length = base + 2 * this.size;
+            T[] bigger = (T[]) (new Object[length]);
+            System.arraycopy(this.entries, base, bigger, base, this.size);
+            this.entries = bigger;
+            long[] biggerKeys = new long[length];
+            System.arraycopy(this.keys, base, biggerKeys, base, this.size);
+            this.keys = biggerKeys;
+        }
+        this.entries[base + this.size] = x;
+        this.keys[base + this.size] = this.key.applyAsLong(x);
+        this.size++;
+    }
+
+    @Override
+    public final void changeToExtractionMode() {
+        assert this.isInInsertionMode() : "Violation of: this.insertion_mode";
+
+        this.insertionMode = false;
+        int base = this.arity - 1;
+        for (int top = (this.size - 2) / this.arity; top >= 0; top--) {
+            siftDown(this.keys, this.entries, this.arity, base, top,
+                    this.size - 1);
+        }
+    }
+
+    @Override
+    public final T removeFirst() {
+        assert !this
+                .isInInsertionMode() : "Violation of: not this.insertion_mode";
+        assert this.size() > 0 : "Violation of: this.contents /= {}";
+
+        int base = this.arity - 1;
+        T first = this.entries[base];
+        this.size--;
+        this.entries[base] = this.entries[base + this.size];
+        this.keys[base] = this.keys[base + this.size];
+        this.entries[base + this.size] = null;
+        if (this.size > 0) {
+            siftDown(this.keys, this.entries, this.arity, base, 0,
+                    this.size - 1);
+        }
+        return first;
+    }
+
+    @Override
+    public final boolean isInInsertionMode() {
+        return this.insertionMode;
+    }
+
+    @Override
+    public final Comparator<T> order() {
+        return this.machineOrder;
+    }
+
+    @Override
+    public final int size() {
+        return this.size;
+    }
+
+    @Override
+    public final Iterator<T> iterator() {
+        return new SortingMachine5lIterator();
+    }
+
+    /**
+     * Implementation of {@code Iterator} interface for
+     * {@code SortingMachine5l}.
+     */
+    private final class SortingMachine5lIterator implements Iterator<T> {
+
+        /**
+         * Number of elements seen already (i.e., |~this.seen|).
+         */
+        private int numberSeen;
+
+        /**
+         * No-argument constructor.
+         */
+        SortingMachine5lIterator() {
+            this.numberSeen = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.numberSeen < SortingMachine5l.this.size;
+        }
+
+        @Override
+        public T next() {
+            assert this.hasNext() : "Violation of: ~this.unseen /= <>";
+            if (!this.hasNext()) {
+                /*
+                 * Exception is supposed to be thrown in this case, but with
+                 * assertion-checking enabled it cannot happen because of assert
+                 * above.
+                 */
+                throw new NoSuchElementException();
+            }
+            T next = SortingMachine5l.this.entries[SortingMachine5l.this.arity
+                    - 1 + this.numberSeen];
+            this.numberSeen++;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(
+                    "remove operation not supported");
+        }
+
+    }
+
+    /*
+     * Other methods ----------------------------------------------------------
+     */
+
+    /**
+     * Reports the number of children of each node of the heap.
+     *
+     * @return the arity of the heap
+     * @ensures arity = [number of children of each node of the heap]
+     */
+    public final int arity() {
+        return this.arity;
+    }
+
+    /**
+     * Reports the function that computes the key of each entry.
+     *
+     * @return the key of each entry
+     * @ensures key = [the function this is ordered by]
+     */
+    public final ToLongFunction<T> key() {
+        return this.key;
+    }
+
+}
@@ -0,0 +1,220 @@
+import java.util.Comparator;
+import java.util.Random;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+import components.sortingmachine.SortingMachine;
+
+/**
+ * Compares heap layouts for a {@code SortingMachine}: the binary heap of
+ * {@code SortingMachine5a}, the d-ary heaps of references of
+ * {@code SortingMachine5d} with d = 2, 4 and 8, and the d-ary heaps of inline
+ * {@code long} keys of {@code SortingMachine5l} with the same arities. For
+ * each, a machine is filled with random {@code Long} entries and changed to
+ * extraction mode, and then drained with {@code removeFirst}; the time per
+ * entry of each phase is reported.
+ *
+ * <p>
+ * Timings are taken with {@code System.nanoTime} after a number of warm-up
+ * rounds that let the JIT compiler settle, and the fastest measured round is
+ * reported. The largest size needs a heap of about 1.5 GB
+ * ({@code -Xmx2g}).
+ *
+ * @author Nur Adem
+ * @author Mohammed Maalin
+ *
+ */
+public final class SortingMachineHeapBenchmark {
+
+    /**
+     * Private constructor so this utility class cannot be instantiated.
+     */
+    private SortingMachineHeapBenchmark() {
+    }
+
+    /**
+     * Machine sizes benchmarked.
+     */
+    private static final int[] SIZES = { 1000000, 10000000 };
+
+    /**
+     * Number of untimed rounds run before the timed ones.
+     */
+    private static final int WARM_UP_ROUNDS = 1;
+
+    /**
+     * Number of timed rounds, of which the fastest is reported.
+     */
+    private static final int MEASURED_ROUNDS = 3;
+
+    /**
+     * Seed of the random entries, so that runs are repeatable.
+     */
+    private static final long SEED = 2231;
+
+    /**
+     * Heap layouts benchmarked.
+     */
+    enum Layout {
+
+        /**
+         * {@code SortingMachine5a}.
+         */
+        BINARY_5A {
+            @Override
+            SortingMachine<Long> newMachine() {
+                return new SortingMachine5a<Long>(Comparator.naturalOrder());
+            }
+        },
+
+        /**
+         * {@code SortingMachine5d}, 2-ary.
+         */
+        REFERENCES_2 {
+            @Override
+            SortingMachine<Long> newMachine() {
+                return new SortingMachine5d<Long>(Comparator.naturalOrder(), 2);
+            }
+        },
+
+        /**
+         * {@code SortingMachine5d}, 4-ary.
+         */
+        REFERENCES_4 {
+            @Override
+            SortingMachine<Long> newMachine() {
+                return new SortingMachine5d<Long>(Comparator.naturalOrder(), 4);
+            }
+        },
+
+        /**
+         * {@code SortingMachine5d}, 8-ary.
+         */
+        REFERENCES_8 {
+            @Override
+            SortingMachine<Long> newMachine() {
+                return new SortingMachine5d<Long>(Comparator.naturalOrder(), 8);
+            }
+        },
+
+        /**
+         * {@code SortingMachine5l}, 2-ary.
+         */
+        LONG_KEYS_2 {
+            @Override
+            SortingMachine<Long> newMachine() {
+                return new SortingMachine5l<Long>(Long::longValue, 2);
+            }
+        },
+
+        /**
+         * {@code SortingMachine5l}, 4-ary.
+         */
+        LONG_KEYS_4 {
+            @Override
+            SortingMachine<Long> newMachine() {
+                return new SortingMachine5l<Long>(Long::longValue, 4);
+            }
+        },
+
+        /**
+         * {@code SortingMachine5l}, 8-ary.
+         */
+        LONG_KEYS_8 {
+            @Override
+            SortingMachine<Long> newMachine() {
+                return new SortingMachine5l<Long>(Long::longValue, 8);
+            }
+        };
+
+        /**
+         * Returns a new, empty machine with this layout, ordered by the
+         * natural order of {@code Long}.
+         *
+         * @return the new machine
+         */
+        abstract SortingMachine<Long> newMachine();
+
+    }
+
+    /**
+     * Returns {@code n} random {@code Long}s.
+     *
+     * @param n
+     *            the number of entries
+     * @return the entries
+     */
+    private static Long[] randomEntries(int n) {
+        Random random = new Random(SEED);
+        Long[] entries = new Long[n];
+        for (int i = 0; i < n; i++) {
+            entries[i] = random.nextLong();
+        }
+        return entries;
+    }
+
+    /**
+     * Benchmarks filling and draining a machine with {@code layout}, and
+     * reports the results as one row of {@code out}.
+     *
+     * @param out
+     *            the output stream
+     * @param entries
+     *            the entries
+     * @param layout
+     *            the heap layout
+     * @updates out.content
+     * @requires out.is_open
+     */
+    private static void benchmark(SimpleWriter out, Long[] entries,
+            Layout layout) {
+        int n = entries.length;
+        long bestBuild = Long.MAX_VALUE;
+        long bestDrain = Long.MAX_VALUE;
+        for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+            SortingMachine<Long> m = layout.newMachine();
+            long start = System.nanoTime();
+            for (Long x : entries) {
+                m.add(x);
+            }
+            m.changeToExtractionMode();
+            long built = System.nanoTime();
+            long previous = Long.MIN_VALUE;
+            while (m.size() > 0) {
+                long x = m.removeFirst();
+                assert previous <= x : "Violation of: entries come out sorted";
+                previous = x;
+            }
+            long drained = System.nanoTime();
+            if (round >= WARM_UP_ROUNDS) {
+                bestBuild = Math.min(bestBuild, built - start);
+                bestDrain = Math.min(bestDrain, drained - built);
+            }
+        }
+        out.println(String.format("%10d  %-14s%12.1f%14.1f", n, layout,
+                (double) bestBuild / n, (double) bestDrain / n));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the command line arguments
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+
+        out.println(String.format("%10s  %-14s%12s%14s", "n", "layout",
+                "build", "removeFirst"));
+        out.println(String.format("%10s  %-14s%12s%14s", "", "", "(ns/op)",
+                "(ns/op)"));
+        for (int n : SIZES) {
+            Long[] entries = randomEntries(n);
+            for (Layout layout : Layout.values()) {
+                benchmark(out, entries, layout);
+            }
+        }
+        out.close();
+    }
+
+}
@@ -1,4 +1,11 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
 
 import components.sortingmachine.SortingMachine;
 import components.sortingmachine.SortingMachine1L;
@@ -18,4 +25,81 @@ public final class SortingMachine5aTest extends SortingMachineTest {
         return new SortingMachine1L<String>(order);
     }
 
+    @Test
+    public void testSiftDownHeapsort() {
+        checkHeapsort(2, SortingMachine5a::siftDown,
+                SortingMachine5a::siftDown);
+    }
+
+    @Test
+    public void testSiftDownBottomUpHeapsort() {
+        checkHeapsort(2, SortingMachine5a::siftDown,
+                SortingMachine5a::siftDownBottomUp);
+    }
+
+    /**
+     * Number of entries drained by the {@code drainSorted} tests.
+     */
+    private static final int DRAIN_SIZE = 500;
+
+    /**
+     * Adds {@code DRAIN_SIZE} scrambled entries, with duplicates, to a
+     * {@code SortingMachine5a} and to a {@code SortingMachine1L}, drains the
+     * first with {@code drainSorted} and checks that it hands over the
+     * entries the second removes, in the same order.
+     *
+     * @param incremental
+     *            whether the {@code SortingMachine5a} is incremental
+     */
+    private static void checkDrainSorted(boolean incremental) {
+        SortingMachine5a<Integer> m = new SortingMachine5a<Integer>(
+                Comparator.naturalOrder(), incremental);
+        SortingMachine<Integer> mExpected = addScrambled(m, DRAIN_SIZE);
+        List<Integer> drained = new ArrayList<Integer>();
+        m.drainSorted(drained::add);
+        assertFalse(m.isInInsertionMode());
+        assertEquals(0, m.size());
+        assertEquals(DRAIN_SIZE, drained.size());
+        for (Integer x : drained) {
+            assertEquals(mExpected.removeFirst(), x);
+        }
+    }
+
+    @Test
+    public void testDrainSorted() {
+        checkDrainSorted(false);
+    }
+
+    @Test
+    public void testDrainSortedIncremental() {
+        checkDrainSorted(true);
+    }
+
+    @Test
+    public void testDrainSortedEmpty() {
+        SortingMachine5a<String> m = new SortingMachine5a<String>(
+                String.CASE_INSENSITIVE_ORDER);
+        m.changeToExtractionMode();
+        List<String> drained = new ArrayList<String>();
+        m.drainSorted(drained::add);
+        assertEquals(0, drained.size());
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testDrainSortedThenClearAndAdd() {
+        SortingMachine5a<String> m = new SortingMachine5a<String>(
+                String.CASE_INSENSITIVE_ORDER);
+        m.add("green");
+        m.add("Blue");
+        m.changeToExtractionMode();
+        List<String> drained = new ArrayList<String>();
+        m.drainSorted(drained::add);
+        assertEquals("Blue", drained.get(0));
+        assertEquals("green", drained.get(1));
+        m.clear();
+        m.add("red");
+        assertEquals(1, m.size());
+    }
+
 }
@@ -0,0 +1,53 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5d} with a 4-ary
+ * heap.
+ */
+public final class SortingMachine5dTest extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5d<String>(order);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Largest arity heapsorted with by the sift-down tests.
+     */
+    private static final int MAX_ARITY = 8;
+
+    @Test
+    public void testSiftDownHeapsort() {
+        for (int d = 2; d <= MAX_ARITY; d++) {
+            final int arity = d;
+            SiftDown sift = (a, top, last, order) -> SortingMachine5d
+                    .siftDown(a, arity, top, last, order);
+            checkHeapsort(d, sift, sift);
+        }
+    }
+
+    @Test
+    public void testNewInstanceKeepsArity() {
+        SortingMachine5d<String> m = new SortingMachine5d<String>(
+                String.CASE_INSENSITIVE_ORDER, MAX_ARITY);
+        SortingMachine5d<String> n = (SortingMachine5d<String>) m
+                .newInstance();
+        assertEquals(MAX_ARITY, n.arity());
+        m.add("green");
+        m.clear();
+        assertEquals(MAX_ARITY, m.arity());
+    }
+
+}
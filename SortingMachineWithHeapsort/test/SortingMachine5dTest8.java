@@ -0,0 +1,27 @@
+import java.util.Comparator;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5d} with an 8-ary
+ * heap.
+ */
+public final class SortingMachine5dTest8 extends SortingMachineTest {
+
+    /**
+     * Number of children of each node of the heap.
+     */
+    private static final int ARITY = 8;
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5d<String>(order, ARITY);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+}
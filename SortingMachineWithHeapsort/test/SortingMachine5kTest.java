@@ -0,0 +1,91 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Comparator;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
+
+/**
+ * Customized JUnit test fixture for {@code SortingMachine5k}, with a capacity
+ * large enough for {@code SortingMachineTest} and smaller ones for the tests
+ * of what it keeps.
+ */
+public final class SortingMachine5kTest extends SortingMachineTest {
+
+    @Override
+    protected SortingMachine<String> constructorTest(Comparator<String> order) {
+        return new SortingMachine5k<String>(order, Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected SortingMachine<String> constructorRef(Comparator<String> order) {
+        return new SortingMachine1L<String>(order);
+    }
+
+    /**
+     * Capacity of the machines in the larger tests.
+     */
+    private static final int TOP = 50;
+
+    /**
+     * Adds {@code MANY} scrambled entries, with duplicates, to a
+     * {@code SortingMachine5k} with capacity {@code k} and to a
+     * {@code SortingMachine1L}, changes both to extraction mode, and checks
+     * that the first removes, in order, the first {@code k} entries the other
+     * removes.
+     *
+     * @param k
+     *            the capacity
+     */
+    private static void checkTop(int k) {
+        SortingMachine<Integer> m = new SortingMachine5k<Integer>(
+                Comparator.reverseOrder(), k);
+        SortingMachine<Integer> mAll = addScrambled(m, MANY);
+        assertEquals(Math.min(k, MANY), m.size());
+        while (m.size() > 0) {
+            assertEquals(mAll.removeFirst(), m.removeFirst());
+        }
+    }
+
+    @Test
+    public void testKeepsTop() {
+        checkTop(TOP);
+    }
+
+    @Test
+    public void testKeepsTopOne() {
+        checkTop(1);
+    }
+
+    @Test
+    public void testKeepsAllWhenCapacityIsEntries() {
+        checkTop(MANY);
+    }
+
+    @Test
+    public void testAddBeyondCapacityDropsLast() {
+        SortingMachine5k<String> m = new SortingMachine5k<String>(
+                String.CASE_INSENSITIVE_ORDER, 2);
+        m.add("green");
+        m.add("blue");
+        m.add("yellow");
+        m.add("Blue");
+        assertEquals(2, m.size());
+        m.changeToExtractionMode();
+        assertTrue(m.removeFirst().equalsIgnoreCase("blue"));
+        assertTrue(m.removeFirst().equalsIgnoreCase("blue"));
+    }
+
+    @Test
+    public void testNewInstanceKeepsCapacity() {
+        SortingMachine5k<String> m = new SortingMachine5k<String>(
+                String.CASE_INSENSITIVE_ORDER, TOP);
+        SortingMachine5k<String> n = (SortingMachine5k<String>) m
+                .newInstance();
+        assertEquals(TOP, n.capacity());
+    }
+
+}
@@ -0,0 +1,135 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.function.ToLongFunction;
+
+import org.junit.Test;
+
+import components.sortingmachine.SortingMachine;
+
+/**
+ * JUnit test fixture for {@code SortingMachine5l}, whose entries are ordered
+ * by a {@code long} key, so it is tested on {@code Integer} entries rather
+ * than with {@code SortingMachineTest}.
+ *
+ * @author Nur Adem
+ * @author Mohammed Maalin
+ *
+ */
+public final class SortingMachine5lTest {
+
+    /**
+     * Key of each entry: its value.
+     */
+    private static final ToLongFunction<Integer> KEY = Integer::longValue;
+
+    /**
+     * Largest arity tested.
+     */
+    private static final int MAX_ARITY = 8;
+
+    @Test
+    public void testConstructor() {
+        SortingMachine5l<Integer> m = new SortingMachine5l<Integer>(KEY);
+        assertTrue(m.isInInsertionMode());
+        assertEquals(0, m.size());
+        assertEquals(KEY, m.key());
+    }
+
+    @Test
+    public void testOrderIsByKey() {
+        SortingMachine5l<Integer> m = new SortingMachine5l<Integer>(KEY);
+        assertTrue(m.order().compare(-1, 2) < 0);
+        assertTrue(m.order().compare(2, 2) == 0);
+        assertTrue(m.order().compare(2, -1) > 0);
+    }
+
+    @Test
+    public void testAddSize() {
+        SortingMachine5l<Integer> m = new SortingMachine5l<Integer>(KEY);
+        m.add(3);
+        m.add(1);
+        m.add(3);
+        assertTrue(m.isInInsertionMode());
+        assertEquals(3, m.size());
+    }
+
+    @Test
+    public void testChangeToExtractionModeEmpty() {
+        SortingMachine5l<Integer> m = new SortingMachine5l<Integer>(KEY);
+        m.changeToExtractionMode();
+        assertFalse(m.isInInsertionMode());
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testRemoveFirstOne() {
+        SortingMachine5l<Integer> m = new SortingMachine5l<Integer>(KEY);
+        m.add(7);
+        m.changeToExtractionMode();
+        int x = m.removeFirst();
+        assertEquals(7, x);
+        assertEquals(0, m.size());
+    }
+
+    @Test
+    public void testRemoveFirstManyAllArities() {
+        for (int d = 2; d <= MAX_ARITY; d++) {
+            SortingMachine<Integer> m = new SortingMachine5l<Integer>(KEY, d);
+            SortingMachine<Integer> mExpected = SortingMachineTest
+                    .addScrambled(m, SortingMachineTest.MANY);
+            while (mExpected.size() > 0) {
+                assertEquals(mExpected.removeFirst(), m.removeFirst());
+                assertEquals(mExpected.size(), m.size());
+            }
+        }
+    }
+
+    @Test
+    public void testIteratorSeesEveryEntry() {
+        SortingMachine<Integer> m = new SortingMachine5l<Integer>(KEY,
+                MAX_ARITY);
+        SortingMachine<Integer> mExpected = SortingMachineTest.addScrambled(m,
+                SortingMachineTest.MANY);
+        long sum = 0;
+        for (int x : m) {
+            sum += x;
+        }
+        long expected = 0;
+        for (int x : mExpected) {
+            expected += x;
+        }
+        assertEquals(expected, sum);
+    }
+
+    @Test
+    public void testTransferFrom() {
+        SortingMachine5l<Integer> m = new SortingMachine5l<Integer>(KEY,
+                MAX_ARITY);
+        m.add(2);
+        m.add(1);
+        m.changeToExtractionMode();
+        SortingMachine5l<Integer> n = new SortingMachine5l<Integer>(KEY);
+        n.transferFrom(m);
+        assertTrue(m.isInInsertionMode());
+        assertEquals(0, m.size());
+        assertEquals(MAX_ARITY, n.arity());
+        int x = n.removeFirst();
+        assertEquals(1, x);
+        assertEquals(1, n.size());
+    }
+
+    @Test
+    public void testNewInstanceKeepsKeyAndArity() {
+        SortingMachine5l<Integer> m = new SortingMachine5l<Integer>(KEY,
+                MAX_ARITY);
+        SortingMachine5l<Integer> n = (SortingMachine5l<Integer>) m
+                .newInstance();
+        assertEquals(KEY, n.key());
+        assertEquals(MAX_ARITY, n.arity());
+        assertTrue(n.isInInsertionMode());
+        assertEquals(0, n.size());
+    }
+
+}
@@ -3,10 +3,12 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Comparator;
+import java.util.function.IntFunction;
 
 import org.junit.Test;
 
 import components.sortingmachine.SortingMachine;
+import components.sortingmachine.SortingMachine1L;
 
 /**
  * JUnit test fixture for {@code SortingMachine<String>}'s constructor and
@@ -18,6 +20,55 @@ import components.sortingmachine.SortingMachine;
  */
 public abstract class SortingMachineTest {
 
+    /**
+     * Number of entries added by the tests with many entries.
+     */
+    protected static final int MANY = 500;
+
+    /**
+     * Multiplier that scrambles the order of the entries added by the tests
+     * with many entries.
+     */
+    protected static final int SCRAMBLE = 7919;
+
+    /**
+     * Number of entries heapsorted by {@code checkHeapsort}.
+     */
+    private static final int SORT_SIZE = 1000;
+
+    /**
+     * A sift-down function on arrays that hold d-ary heaps, as used by
+     * {@code checkHeapsort}.
+     */
+    protected interface SiftDown {
+
+        /**
+         * Given an array whose entries {@code [0, last]} would be a heap
+         * except for the entry at {@code top}, sifts that entry down to turn
+         * the subtree rooted there into a heap.
+         *
+         * @param array
+         *            the complete tree
+         * @param top
+         *            the index of the root of the subtree
+         * @param last
+         *            the index of the last entry in the heap
+         * @param order
+         *            total preorder the heap is in
+         * @updates array
+         * @requires <pre>
+         * 0 <= top <= last < |array|  and
+         * [the subtrees of the children of top are heaps]
+         * </pre>
+         * @ensures <pre>
+         * [the subtree rooted at top is a heap]  and  perms(array, #array)
+         * </pre>
+         */
+        void siftDown(Integer[] array, int top, int last,
+                Comparator<Integer> order);
+
+    }
+
     /**
      * Invokes the appropriate {@code SortingMachine} constructor for the
      * implementation under test and returns the result.
@@ -102,6 +153,101 @@ public abstract class SortingMachineTest {
         return sm;
     }
 
+    /**
+     * Adds {@code n} scrambled entries, {@code entry(i)} for each of the
+     * integers i in {@code [0, n / 2)} twice, to {@code m} and to a new
+     * {@code SortingMachine1L} with the same order, changes both to extraction
+     * mode, and returns the {@code SortingMachine1L}, against which the
+     * entries {@code m} delivers can then be checked.
+     *
+     * @param <T>
+     *            type of {@code SortingMachine} entries
+     * @param m
+     *            the machine under test
+     * @param n
+     *            the number of entries to add
+     * @param entry
+     *            the entry for each integer
+     * @return the reference machine
+     * @updates m
+     * @requires m.insertion_mode  and  [n is even]  and  n > 0
+     * @ensures <pre>
+     * not m.insertion_mode  and
+     * addScrambled = (false, m.order, [multiset of the entries added])  and
+     * m.contents = #m.contents union [multiset of the entries added]
+     * </pre>
+     */
+    protected static <T> SortingMachine<T> addScrambled(SortingMachine<T> m,
+            int n, IntFunction<T> entry) {
+        SortingMachine<T> mExpected = new SortingMachine1L<T>(m.order());
+        for (int i = 0; i < n; i++) {
+            T x = entry.apply((i * SCRAMBLE) % (n / 2));
+            m.add(x);
+            mExpected.add(x);
+        }
+        m.changeToExtractionMode();
+        mExpected.changeToExtractionMode();
+        return mExpected;
+    }
+
+    /**
+     * Adds {@code n} scrambled entries, each of the integers in
+     * {@code [0, n / 2)} twice, to {@code m} and to a new
+     * {@code SortingMachine1L} with the same order, changes both to extraction
+     * mode, and returns the {@code SortingMachine1L}.
+     *
+     * @param m
+     *            the machine under test
+     * @param n
+     *            the number of entries to add
+     * @return the reference machine
+     * @updates m
+     * @requires m.insertion_mode  and  [n is even]  and  n > 0
+     * @ensures <pre>
+     * not m.insertion_mode  and
+     * addScrambled = (false, m.order, [multiset of the entries added])  and
+     * m.contents = #m.contents union [multiset of the entries added]
+     * </pre>
+     */
+    protected static SortingMachine<Integer> addScrambled(
+            SortingMachine<Integer> m, int n) {
+        return addScrambled(m, n, Integer::valueOf);
+    }
+
+    /**
+     * Heapsorts {@code SORT_SIZE} scrambled entries, with duplicates, in
+     * place, using a d-ary heap built with {@code build} and removed from with
+     * {@code remove}, and checks that the result is sorted.
+     *
+     * @param d
+     *            the number of children of each node of the heap
+     * @param build
+     *            the sift-down used to build the heap
+     * @param remove
+     *            the sift-down used after each removal from the heap
+     * @requires d >= 2
+     */
+    protected static void checkHeapsort(int d, SiftDown build,
+            SiftDown remove) {
+        Integer[] a = new Integer[SORT_SIZE];
+        for (int i = 0; i < SORT_SIZE; i++) {
+            a[i] = (i * SCRAMBLE) % (SORT_SIZE / 2);
+        }
+        Comparator<Integer> order = Comparator.naturalOrder();
+        for (int top = (SORT_SIZE - 2) / d; top >= 0; top--) {
+            build.siftDown(a, top, SORT_SIZE - 1, order);
+        }
+        for (int last = SORT_SIZE - 1; last > 0; last--) {
+            Integer first = a[0];
+            a[0] = a[last];
+            a[last] = first;
+            remove.siftDown(a, 0, last - 1, order);
+        }
+        for (int i = 1; i < SORT_SIZE; i++) {
+            assertTrue(a[i - 1] >= a[i]);
+        }
+    }
+
     /**
      * Comparator<String> implementation to be used in all test cases. Compare
      * {@code String}s in lexicographic order.
@@ -371,4 +517,23 @@ public abstract class SortingMachineTest {
                 "green");
         assertEquals(m.size(), 2);
     }
+
+    @Test
+    public final void testSizeInsertionModeNonEmpty() {
+        SortingMachine<String> m = this.createFromArgsTest(ORDER, true, "blue",
+                "green", "blue");
+        assertEquals(3, m.size());
+    }
+
+    @Test
+    public final void testRemoveFirstMany() {
+        SortingMachine<String> m = this.constructorTest(ORDER);
+        SortingMachine<String> mExpected = addScrambled(m, MANY,
+                Integer::toString);
+        assertEquals(MANY, m.size());
+        while (mExpected.size() > 0) {
+            assertEquals(mExpected.removeFirst(), m.removeFirst());
+        }
+        assertEquals(0, m.size());
+    }
 }
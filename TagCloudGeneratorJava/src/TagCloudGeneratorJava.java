@@ -139,15 +139,14 @@ public final class TagCloudGeneratorJava {
      * @return a map with words and their frequency
      */
     private static Map<String, Integer> countWords(Queue<String> words) {
-        Map<String, Integer> map = new HashMap<>();
-
+        CountingMap counts = new CountingMap();
         for (String word : words) {
-            if (map.containsKey(word)) {
-                int count = map.get(word);
-                map.replace(word, count + 1);
-            } else {
-                map.put(word, 1);
-            }
+            counts.increment(word);
+        }
+
+        Map<String, Integer> map = new HashMap<>(2 * counts.size());
+        for (String word : counts) {
+            map.put(word, counts.count(word));
         }
 
         return map;
@@ -156,23 +155,40 @@ public final class TagCloudGeneratorJava {
     /**
      * Get a set of top N words.
      *
+     * <p>
+     * Only the best {@code n} entries seen so far are kept, in a heap with the
+     * least frequent of them at the head, so this takes O(|wordFreq| log n)
+     * time and O(n) extra space rather than sorting every word.
+     *
      * @param wordFreq
      *            words and their frequency
      * @param n
      *            how many words to find
-     * @return a set with top N words
+     * @return a set with top N words, most frequent first
      */
     private static Set<String> findTopNWords(Map<String, Integer> wordFreq,
             int n) {
         Comparator<Map.Entry<String, Integer>> c = new EntryValueGT();
 
-        List<Map.Entry<String, Integer>> entries = new ArrayList<>(
-                wordFreq.entrySet());
-        Collections.sort(entries, c);
+        PriorityQueue<Map.Entry<String, Integer>> top = new PriorityQueue<>(
+                Math.max(1, n), c.reversed());
+        for (Map.Entry<String, Integer> entry : wordFreq.entrySet()) {
+            if (top.size() < n) {
+                top.add(entry);
+            } else if (n > 0 && c.compare(entry, top.peek()) < 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            entries.add(top.poll());
+        }
+        Collections.reverse(entries);
 
         LinkedHashMap<String, Integer> sortedFreq = new LinkedHashMap<>();
-        for (int i = 0; i < n; i++) {
-            Map.Entry<String, Integer> entry = entries.remove(0);
+        for (Map.Entry<String, Integer> entry : entries) {
             sortedFreq.put(entry.getKey(), entry.getValue());
         }
 
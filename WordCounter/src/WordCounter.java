@@ -1,5 +1,4 @@
 import components.map.Map;
-import components.map.Map1L;
 import components.queue.Queue;
 import components.queue.Queue1L;
 import components.set.Set;
@@ -133,19 +132,16 @@ public final class WordCounter {
      */
     public static Map<String, Integer> generateMapAndSortQueue(
             Queue<String> wordQueue) {
-        Map<String, Integer> wordMap = new Map1L<>();
-
+        CountingMap counts = new CountingMap();
         for (String word : wordQueue) {
-            if (wordMap.hasKey(word)) {
-                wordMap.replaceValue(word, wordMap.value(word) + 1);
-            } else {
-                wordMap.add(word, 1);
-            }
+            counts.increment(word);
         }
 
+        Map<String, Integer> wordMap = new Map4<>();
         Queue<String> sortedWordQueue = new Queue1L<>();
-        for (Map.Pair<String, Integer> p : wordMap) {
-            sortedWordQueue.enqueue(p.key());
+        for (String word : counts) {
+            wordMap.add(word, counts.count(word));
+            sortedWordQueue.enqueue(word);
         }
         sortedWordQueue.sort(String.CASE_INSENSITIVE_ORDER);
         wordQueue.transferFrom(sortedWordQueue);